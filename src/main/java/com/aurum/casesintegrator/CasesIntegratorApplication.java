@@ -3,9 +3,11 @@ package com.aurum.casesintegrator;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.gcp.data.firestore.repository.config.EnableReactiveFirestoreRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableReactiveFirestoreRepositories
+@EnableScheduling
 public class CasesIntegratorApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,28 @@
+package com.aurum.casesintegrator.config;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.aurum.casesintegrator.validation.resolver.LegalCaseArgumentResolver;
+import com.aurum.casesintegrator.validation.validator.CaseValidator;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final CaseValidator caseValidator;
+
+    @Autowired
+    public WebConfig(final CaseValidator caseValidator) {
+        this.caseValidator = caseValidator;
+    }
+
+    @Override
+    public void addArgumentResolvers(final List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(new LegalCaseArgumentResolver(this.caseValidator));
+    }
+
+}
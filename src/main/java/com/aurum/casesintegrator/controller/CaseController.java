@@ -1,15 +1,24 @@
 package com.aurum.casesintegrator.controller;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
-import javax.management.InstanceAlreadyExistsException;
 import javax.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -17,24 +26,42 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import org.springframework.web.util.UriComponents;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import com.aurum.casesintegrator.domain.Case;
 import com.aurum.casesintegrator.domain.CaseCriteria;
+import com.aurum.casesintegrator.domain.CaseImportJob;
+import com.aurum.casesintegrator.domain.CaseImportResult;
+import com.aurum.casesintegrator.domain.CaseLookupResult;
+import com.aurum.casesintegrator.domain.CaseStats;
+import com.aurum.casesintegrator.domain.QueryExplanation;
 import com.aurum.casesintegrator.domain.ResourceCreatedResponse;
+import com.aurum.casesintegrator.domain.StatsGranularity;
 import com.aurum.casesintegrator.service.CaseService;
+import com.aurum.casesintegrator.service.IdempotencyService;
+import com.aurum.casesintegrator.service.projection.CaseProjection;
 import com.aurum.casesintegrator.util.Constants;
+import com.aurum.casesintegrator.util.JsonUtil;
 import com.aurum.casesintegrator.validation.constraint.ValidLegalCase;
 
 import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiImplicitParam;
+import io.swagger.annotations.ApiImplicitParams;
 import io.swagger.annotations.ApiOperation;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import springfox.documentation.annotations.ApiIgnore;
 
 @Api(tags = "Cases", value = "Resources for cases endpoints")
 @Validated
@@ -42,59 +69,229 @@ import reactor.core.publisher.Mono;
 @RequestMapping("/v1/cases")
 public class CaseController {
 
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType(Constants.APPLICATION_NDJSON_VALUE);
+    private static final String PREFER = "Prefer";
+    private static final String PREFERENCE_APPLIED = "Preference-Applied";
+    private static final String RETURN_MINIMAL = "return=minimal";
+
     @Value("${fetch.pages.limit}")
     private int pageLimit;
 
     @Value("${fetch.months.limit}")
     private int monthsLimit;
 
+    @Value("${import.request.timeout}")
+    private long importTimeout;
+
+    @Value("${stream.request.timeout}")
+    private long streamTimeout;
+
+    @Value("${stream.chunk.size}")
+    private int streamChunkSize;
+
+    @Value("${stream.flush.interval}")
+    private long streamFlushInterval;
+
     private final CaseService caseService;
+    private final IdempotencyService idempotencyService;
 
     @Autowired
-    public CaseController(final CaseService caseService) {
+    public CaseController(final CaseService caseService, final IdempotencyService idempotencyService) {
         this.caseService = caseService;
+        this.idempotencyService = idempotencyService;
     }
 
     @ApiOperation(value = "Create a single or multiple case(s)")
     @PostMapping
     @CrossOrigin
     @ResponseStatus(HttpStatus.CREATED)
-    public ResponseEntity<Object> create(@ValidLegalCase @RequestBody final String singleOrMultipleCase, final UriComponentsBuilder uriBuilder) throws InstanceAlreadyExistsException {
-        final List<Case> casesToCreate = this.caseService.getExtractedCasesFrom(singleOrMultipleCase);
-        final Flux<Case> createdCases = this.caseService.create(casesToCreate);
+    @ApiImplicitParams(@ApiImplicitParam(name = "body", value = "A single case or an array of cases", required = true, paramType = "body", dataType = "Case"))
+    public Mono<ResponseEntity<Object>> create(@ApiIgnore @ValidLegalCase final List<Case> casesToCreate,
+                                               @RequestHeader(value = PREFER, required = false) final String prefer,
+                                               @RequestHeader(value = Constants.IDEMPOTENCY_KEY, required = false) final String idempotencyKey,
+                                               @ApiIgnore @RequestAttribute(value = Constants.IDEMPOTENCY_FINGERPRINT_ATTRIBUTE, required = false) final String fingerprint,
+                                               final UriComponentsBuilder uriBuilder) {
+        final boolean returnMinimal = isReturnMinimalPreferred(prefer);
+        final Mono<ResponseEntity<Object>> createResponse = Mono.defer(() -> this.caseService.create(casesToCreate).collectList()).map(createdCases -> {
+            final LocalDateTime createdAt = LocalDateTime.now();
+            final ResponseEntity.BodyBuilder response = createdCases.size() == Constants.SINGLE_CASE
+                    ? ResponseEntity.created(generateUriResource(createdCases.get(0).getId(), uriBuilder).toUri())
+                    : ResponseEntity.status(HttpStatus.MULTI_STATUS);
+            if (returnMinimal) {
+                response.header(PREFERENCE_APPLIED, RETURN_MINIMAL);
+            }
+
+            final List<ResourceCreatedResponse> body = createdCases.stream()
+                    .map(singleCase -> createStatusBody(singleCase, createdAt, returnMinimal, uriBuilder))
+                    .collect(Collectors.toList());
+            return response.body(createdCases.size() == Constants.SINGLE_CASE ? body.get(0) : body);
+        });
 
-        if (createdCases.toStream().count() == Constants.SINGLE_CASE) {
-            return createSingleStatusResponseCreated(uriBuilder, createdCases);
+        if (idempotencyKey == null) {
+            return createResponse;
         }
-        return ResponseEntity.status(HttpStatus.MULTI_STATUS).body(createMultipleStatusBody(createdCases, uriBuilder));
+        return this.idempotencyService.replayOrReserve(idempotencyKey, fingerprint)
+                .switchIfEmpty(createResponse
+                        .flatMap(created -> this.idempotencyService.complete(idempotencyKey, fingerprint, created).thenReturn(created))
+                        .doOnError(error -> this.idempotencyService.releaseIfPending(idempotencyKey))
+                        .doOnCancel(() -> this.idempotencyService.releaseIfPending(idempotencyKey)));
+    }
+
+    @ApiOperation(value = "Import cases from newline delimited JSON, streaming back one result per line")
+    @PostMapping(value = "/import", consumes = Constants.APPLICATION_NDJSON_VALUE, produces = Constants.APPLICATION_NDJSON_VALUE)
+    @CrossOrigin
+    public ResponseEntity<ResponseBodyEmitter> importCases(final InputStream ndjson) {
+        final ResponseBodyEmitter emitter = new ResponseBodyEmitter(importTimeout);
+        this.caseService.importCases(ndjson)
+                .subscribeOn(Schedulers.boundedElastic())
+                .subscribe(results -> sendLines(emitter, results), emitter::completeWithError, emitter::complete);
+        return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(emitter);
+    }
+
+    @ApiOperation(value = "Submit newline delimited JSON cases as an asynchronous import job")
+    @PostMapping(value = "/jobs", consumes = Constants.APPLICATION_NDJSON_VALUE)
+    @CrossOrigin
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public Mono<ResponseEntity<CaseImportJob>> submitImportJob(@RequestParam final String customer, final InputStream ndjson,
+                                                               final UriComponentsBuilder uriBuilder) {
+        return this.caseService.submitImportJob(customer, ndjson)
+                .map(job -> ResponseEntity.accepted().location(generateJobUriResource(job.getId(), uriBuilder).toUri()).body(job));
+    }
+
+    @ApiOperation(value = "Get import job progress")
+    @GetMapping(value = "/jobs/{id}")
+    @CrossOrigin
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<ResponseEntity<CaseImportJob>> findImportJobById(@PathVariable String id) {
+        return this.caseService.findImportJobById(id)
+                .map(job -> ResponseEntity.ok(job))
+                .switchIfEmpty(Mono.just(ResponseEntity.notFound().build()));
+    }
+
+    @ApiOperation(value = "Resume a failed import job from its last committed chunk")
+    @PostMapping(value = "/jobs/{id}/resume")
+    @CrossOrigin
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public Mono<ResponseEntity<CaseImportJob>> resumeImportJob(@PathVariable String id) {
+        return this.caseService.resumeImportJob(id)
+                .map(job -> ResponseEntity.accepted().body(job))
+                .switchIfEmpty(Mono.just(ResponseEntity.notFound().build()));
     }
 
     @ApiOperation(value = "Update case fields")
     @PutMapping
     @CrossOrigin
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    public ResponseEntity<Void> update(@Valid @RequestBody final Case singleCase) {
-        this.caseService.updateAllFields(singleCase);
-        return ResponseEntity.noContent().build();
+    public Mono<ResponseEntity<Void>> update(@Valid @RequestBody final Case singleCase) {
+        final ResponseEntity<Void> noContent = ResponseEntity.noContent().build();
+        return this.caseService.updateAllFields(singleCase).thenReturn(noContent);
     }
 
     @ApiOperation(value = "Get case by resource id")
     @GetMapping(value = "/{id}")
     @CrossOrigin
     @ResponseStatus(HttpStatus.OK)
-    public Mono<ResponseEntity<Case>> findById(@PathVariable String id) {
-        return this.caseService.findById(id)
-                .map(c -> ResponseEntity.ok(c))
+    public Mono<ResponseEntity<Object>> findById(@PathVariable String id, @RequestParam(required = false) final String fields,
+                                                 @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) final String ifNoneMatch) {
+        final CaseProjection projection = CaseProjection.parse(fields);
+        final Mono<Case> found = ifNoneMatch == null ? this.caseService.findById(id) : this.caseService.findRevalidatedById(id);
+        return found
+                .map(c -> {
+                    final String entityTag = EntityTags.of(c, projection);
+                    return EntityTags.matches(ifNoneMatch, entityTag)
+                            ? ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(entityTag).build()
+                            : ResponseEntity.ok().eTag(entityTag).<Object>body(projection == null ? c : projection.apply(c));
+                })
                 .switchIfEmpty(Mono.just(ResponseEntity.notFound().build()));
     }
 
+    @ApiOperation(value = "Get many cases by id, streaming back one newline delimited JSON result per requested id in request order")
+    @PostMapping(value = "/_mget", consumes = MediaType.APPLICATION_JSON_VALUE, produces = Constants.APPLICATION_NDJSON_VALUE)
+    @CrossOrigin
+    public ResponseEntity<ResponseBodyEmitter> findAllById(@RequestBody final List<String> ids) {
+        final Flux<CaseLookupResult> results = this.caseService.findAllById(ids);
+        final ResponseBodyEmitter emitter = new ResponseBodyEmitter(streamTimeout);
+        results.publishOn(Schedulers.boundedElastic(), streamChunkSize)
+                .subscribe(new ChunkedEmitterSubscriber<>(emitter, APPLICATION_NDJSON, CaseController::toNdjsonLine, streamChunkSize, streamFlushInterval));
+        return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(emitter);
+    }
+
     @ApiOperation(value = "Get case(s) by specific criteria")
     @GetMapping
     @CrossOrigin
     @ResponseStatus(HttpStatus.OK)
-    public Flux<Case> findByCriteria(final CaseCriteria caseCriteria) {
+    public Mono<ResponseEntity<List<?>>> findByCriteria(final CaseCriteria caseCriteria, @RequestParam(required = false) final String fields,
+                                                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) final String ifNoneMatch) {
+        fillMissingRequiredFields(caseCriteria);
+        final CaseProjection projection = CaseProjection.parse(fields);
+        final UriComponentsBuilder nextPageUri = ServletUriComponentsBuilder.fromCurrentRequest().replaceQueryParam("page");
+        return this.caseService.findPageByCriteria(caseCriteria).map(page -> {
+            final String entityTag = EntityTags.of(page.getCases(), page.getNextCursor(), projection);
+            if (EntityTags.matches(ifNoneMatch, entityTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(entityTag).<List<?>>build();
+            }
+
+            final List<?> body = projection == null ? page.getCases() : projection.apply(page.getCases());
+            final ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(entityTag);
+            if (page.getNextCursor() != null) {
+                response.header(HttpHeaders.LINK, String.format("<%s>; rel=\"next\"", nextPageUri.replaceQueryParam("cursor", page.getNextCursor()).toUriString()));
+            }
+            return response.<List<?>>body(body);
+        });
+    }
+
+    @ApiOperation(value = "Stream case(s) by specific criteria as newline delimited JSON, written as they are found")
+    @GetMapping(produces = Constants.APPLICATION_NDJSON_VALUE)
+    @CrossOrigin
+    public ResponseEntity<ResponseBodyEmitter> streamByCriteria(final CaseCriteria caseCriteria, @RequestParam(required = false) final String fields) {
+        final CaseProjection projection = CaseProjection.parse(fields);
+        return stream(caseCriteria, APPLICATION_NDJSON, singleCase -> toNdjsonLine(projection == null ? singleCase : projection.apply(singleCase)));
+    }
+
+    @ApiOperation(value = "Stream case(s) by specific criteria as server-sent events, written as they are found")
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @CrossOrigin
+    public ResponseEntity<ResponseBodyEmitter> streamEventsByCriteria(final CaseCriteria caseCriteria, @RequestParam(required = false) final String fields) {
+        final CaseProjection projection = CaseProjection.parse(fields);
+        return stream(caseCriteria, MediaType.TEXT_EVENT_STREAM, singleCase -> {
+            final ByteArrayOutputStream event = new ByteArrayOutputStream();
+            event.writeBytes(("id:" + singleCase.getId() + "\ndata:").getBytes(StandardCharsets.UTF_8));
+            event.writeBytes(JsonUtil.toBytes(projection == null ? singleCase : projection.apply(singleCase)));
+            event.writeBytes("\n\n".getBytes(StandardCharsets.UTF_8));
+            return event.toByteArray();
+        });
+    }
+
+    @ApiOperation(value = "Count cases created in a date range by customer, label and access type, optionally per day, month or year",
+            notes = "Counts are approximate: cases stored before the counters existed are not counted, and counts not flushed by an instance that crashed are lost.")
+    @GetMapping(value = "/stats")
+    @CrossOrigin
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<CaseStats> countByCriteria(final CaseCriteria caseCriteria, @RequestParam(required = false) final StatsGranularity granularity) {
+        fillMissingRequiredFields(caseCriteria);
+        return this.caseService.countByCriteria(caseCriteria, granularity);
+    }
+
+    @ApiOperation(value = "Explain the plan chosen for a criteria query, with estimated and actual documents read")
+    @GetMapping(params = "explain=true")
+    @CrossOrigin
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<QueryExplanation> explainFindByCriteria(final CaseCriteria caseCriteria) {
+        fillMissingRequiredFields(caseCriteria);
+        return this.caseService.explain(caseCriteria);
+    }
+
+    /**
+     * Results are written on a worker thread as the plan emits them, so the first case goes out before the last
+     * one is read and a slow client never blocks a Firestore thread.
+     */
+    private ResponseEntity<ResponseBodyEmitter> stream(final CaseCriteria caseCriteria, final MediaType mediaType, final Function<Case, byte[]> encoder) {
         fillMissingRequiredFields(caseCriteria);
-        return this.caseService.findByCriteria(caseCriteria);
+        final Flux<Case> cases = this.caseService.streamByCriteria(caseCriteria);
+        final ResponseBodyEmitter emitter = new ResponseBodyEmitter(streamTimeout);
+        cases.publishOn(Schedulers.boundedElastic(), streamChunkSize)
+                .subscribe(new ChunkedEmitterSubscriber<>(emitter, mediaType, encoder, streamChunkSize, streamFlushInterval));
+        return ResponseEntity.ok().contentType(mediaType).body(emitter);
     }
 
     private void fillMissingRequiredFields(final CaseCriteria caseCriteria) {
@@ -104,34 +301,58 @@ public class CaseController {
         caseCriteria.setTo(caseCriteria.getTo() == null ? LocalDate.now().plusMonths(monthsLimit) : caseCriteria.getTo());
     }
 
-    private ResponseEntity<Object> createSingleStatusResponseCreated(UriComponentsBuilder uriBuilder, Flux<Case> createdCases) {
-        final Case singleCase = createdCases.blockFirst();
-        final UriComponents uriComponent = generateUriResource(singleCase.getId(), uriBuilder);
-        return ResponseEntity.created(uriComponent.toUri()).body(
-                ResourceCreatedResponse.builder()
-                        .id(singleCase.getId())
-                        .createdAt(LocalDateTime.now())
-                        .status(HttpStatus.CREATED)
-                        .uri(uriComponent.toUriString())
-                        .build()
-        );
-    }
-
-    private List<ResourceCreatedResponse> createMultipleStatusBody(final Flux<Case> createdCases, final UriComponentsBuilder uriBuilder) {
-        return createdCases.map(singleCase -> {
-            final String uri = generateUriResource(singleCase.getId(), uriBuilder).toUriString();
-            final boolean isIdConflicted = singleCase.getId() == null;
-            return ResourceCreatedResponse.builder()
-                    .id(singleCase.getId())
-                    .createdAt(LocalDateTime.now())
-                    .status(isIdConflicted ? HttpStatus.CONFLICT : HttpStatus.CREATED)
-                    .uri(isIdConflicted ? null : uri)
-                    .build();
-        }).collectList().block();
+    private ResourceCreatedResponse createStatusBody(final Case singleCase, final LocalDateTime createdAt, final boolean returnMinimal,
+                                                     final UriComponentsBuilder uriBuilder) {
+        final boolean isIdConflicted = singleCase.getId() == null;
+        final ResourceCreatedResponse.ResourceCreatedResponseBuilder statusBody = ResourceCreatedResponse.builder()
+                .id(singleCase.getId())
+                .status(isIdConflicted ? HttpStatus.CONFLICT : HttpStatus.CREATED);
+        if (returnMinimal) {
+            return statusBody.build();
+        }
+        return statusBody
+                .createdAt(createdAt)
+                .uri(isIdConflicted ? null : generateUriResource(singleCase.getId(), uriBuilder).toUriString())
+                .build();
+    }
+
+    /**
+     * Writes a whole chunk of results at once, so the response is flushed once per committed chunk.
+     */
+    private void sendLines(final ResponseBodyEmitter emitter, final List<CaseImportResult> results) {
+        final ByteArrayOutputStream lines = new ByteArrayOutputStream();
+        results.forEach(result -> {
+            lines.writeBytes(JsonUtil.toBytes(result));
+            lines.write('\n');
+        });
+
+        try {
+            emitter.send(lines.toByteArray(), APPLICATION_NDJSON);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] toNdjsonLine(final Object value) {
+        final ByteArrayOutputStream line = new ByteArrayOutputStream();
+        line.writeBytes(JsonUtil.toBytes(value));
+        line.write('\n');
+        return line.toByteArray();
+    }
+
+    private boolean isReturnMinimalPreferred(final String prefer) {
+        if (prefer == null) {
+            return false;
+        }
+        return Arrays.stream(prefer.split(",")).map(String::trim).anyMatch(RETURN_MINIMAL::equalsIgnoreCase);
     }
 
     private UriComponents generateUriResource(final String id, final UriComponentsBuilder uriComponentsBuilder) {
         return uriComponentsBuilder.cloneBuilder().path("/v1/cases/{id}").buildAndExpand(id);
     }
 
+    private UriComponents generateJobUriResource(final String id, final UriComponentsBuilder uriComponentsBuilder) {
+        return uriComponentsBuilder.cloneBuilder().path("/v1/cases/jobs/{id}").buildAndExpand(id);
+    }
+
 }
@@ -0,0 +1,119 @@
+package com.aurum.casesintegrator.controller;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.reactivestreams.Subscription;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.SignalType;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Encodes each element as it arrives and writes them to the emitter once per chunk: when a chunk is full, when the
+ * oldest pending element has waited for the flush interval, or when the stream ends. The interval is checked by a
+ * timer, so a query that pauses between results still gets its pending ones out. Only one chunk is requested at a
+ * time, so a slow client holds back the query instead of piling results up in memory. A client that disconnects or
+ * times out cancels the query.
+ */
+class ChunkedEmitterSubscriber<T> extends BaseSubscriber<T> {
+
+    private final ResponseBodyEmitter emitter;
+    private final MediaType mediaType;
+    private final Function<T, byte[]> encoder;
+    private final int chunkSize;
+    private final long flushInterval;
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private int pendingCount;
+    private long oldestPendingAt;
+    private Disposable flushTimer;
+
+    ChunkedEmitterSubscriber(final ResponseBodyEmitter emitter, final MediaType mediaType, final Function<T, byte[]> encoder,
+                             final int chunkSize, final long flushInterval) {
+        this.emitter = emitter;
+        this.mediaType = mediaType;
+        this.encoder = encoder;
+        this.chunkSize = chunkSize;
+        this.flushInterval = flushInterval;
+        emitter.onTimeout(this::dispose);
+        emitter.onError(error -> dispose());
+    }
+
+    @Override
+    protected void hookOnSubscribe(final Subscription subscription) {
+        this.flushTimer = Schedulers.boundedElastic()
+                .schedulePeriodically(this::flushIfDue, this.flushInterval, this.flushInterval, TimeUnit.MILLISECONDS);
+        request(this.chunkSize);
+    }
+
+    @Override
+    protected void hookOnNext(final T element) {
+        final byte[] encoded = this.encoder.apply(element);
+        synchronized (this) {
+            if (this.pendingCount == 0) {
+                this.oldestPendingAt = System.currentTimeMillis();
+            }
+            this.pending.writeBytes(encoded);
+            this.pendingCount++;
+            if (this.pendingCount == this.chunkSize) {
+                flushAndRequest();
+            }
+        }
+    }
+
+    @Override
+    protected synchronized void hookOnComplete() {
+        flush();
+        this.emitter.complete();
+    }
+
+    @Override
+    protected void hookOnError(final Throwable error) {
+        this.emitter.completeWithError(error);
+    }
+
+    @Override
+    protected void hookFinally(final SignalType type) {
+        if (this.flushTimer != null) {
+            this.flushTimer.dispose();
+        }
+    }
+
+    private synchronized void flushIfDue() {
+        if (this.pendingCount > 0 && System.currentTimeMillis() - this.oldestPendingAt >= this.flushInterval && !isDisposed()) {
+            flushAndRequest();
+        }
+    }
+
+    private void flushAndRequest() {
+        final int written = this.pendingCount;
+        if (flush()) {
+            request(written);
+        }
+    }
+
+    /**
+     * A failed write means the client is gone, so the query is cancelled.
+     */
+    private boolean flush() {
+        if (this.pendingCount == 0) {
+            return true;
+        }
+        try {
+            this.emitter.send(this.pending.toByteArray(), this.mediaType);
+            this.pending.reset();
+            this.pendingCount = 0;
+            return true;
+        } catch (IOException e) {
+            dispose();
+            this.emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+}
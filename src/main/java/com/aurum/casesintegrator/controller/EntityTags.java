@@ -0,0 +1,67 @@
+package com.aurum.casesintegrator.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.aurum.casesintegrator.domain.Case;
+import com.aurum.casesintegrator.service.projection.CaseProjection;
+import com.aurum.casesintegrator.util.HashUtil;
+
+/**
+ * Entity tags derived from case versions. A single case gets a strong tag, its version, since the representation is
+ * fully determined by it. A page of cases gets a weak tag over the ids and versions of its members and the next
+ * cursor. Requested fields are part of both, so each projection is tagged apart.
+ */
+class EntityTags {
+
+    private static final String WEAK_PREFIX = "W/";
+    private static final String ANY = "*";
+
+    static String of(final Case singleCase, final CaseProjection projection) {
+        if (projection == null) {
+            return quoted(singleCase.getVersion());
+        }
+
+        final List<String> parts = new ArrayList<>(projection.fields());
+        parts.add(singleCase.getVersion());
+        return quoted(HashUtil.contentHash(parts));
+    }
+
+    static String of(final List<Case> cases, final String nextCursor, final CaseProjection projection) {
+        final List<String> parts = new ArrayList<>(cases.size() * 2 + 2);
+        parts.add(projection == null ? null : String.join(",", projection.fields()));
+        parts.add(nextCursor);
+        cases.forEach(singleCase -> {
+            parts.add(singleCase.getId());
+            parts.add(singleCase.getVersion());
+        });
+        return WEAK_PREFIX + quoted(HashUtil.contentHash(parts));
+    }
+
+    /**
+     * Weak comparison, as If-None-Match calls for.
+     */
+    static boolean matches(final String ifNoneMatch, final String entityTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+
+        final String opaqueTag = withoutWeakPrefix(entityTag);
+        for (final String candidate : ifNoneMatch.split(",")) {
+            final String tag = candidate.trim();
+            if (ANY.equals(tag) || opaqueTag.equals(withoutWeakPrefix(tag))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String quoted(final String value) {
+        return "\"" + value + "\"";
+    }
+
+    private static String withoutWeakPrefix(final String tag) {
+        return tag.startsWith(WEAK_PREFIX) ? tag.substring(WEAK_PREFIX.length()) : tag;
+    }
+
+}
@@ -1,5 +1,7 @@
 package com.aurum.casesintegrator.domain;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import javax.validation.constraints.NotBlank;
@@ -9,12 +11,18 @@ import org.springframework.cloud.gcp.data.firestore.Document;
 
 import com.google.cloud.firestore.annotation.DocumentId;
 
-import lombok.AllArgsConstructor;
+import com.aurum.casesintegrator.util.HashUtil;
+import com.aurum.casesintegrator.util.TextUtil;
+
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 
 @Data
-@AllArgsConstructor
 @NoArgsConstructor
 @Document(collectionName = "cases")
 public class Case {
@@ -43,4 +51,104 @@ public class Case {
 
     private Long createdAtInstant;
 
+    /**
+     * Time of the last write, stamped by the service.
+     */
+    private Long updatedAtInstant;
+
+    /**
+     * Hash of the content, refreshed on every write. Cases stored before it existed get it computed when read, so it
+     * is left out of equals, hashCode and toString, which would otherwise hash the content on every call.
+     */
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private String version;
+
+    /**
+     * Normalized copies of the searchable fields, kept in sync by their setters so text search never normalizes per
+     * query. Transient and without bean accessors, so they are neither stored nor serialized.
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private transient String normalizedFolder;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private transient String normalizedTitle;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private transient String normalizedDescription;
+
+    public Case(final String id, final String folder, final String customer, final String title, final List<String> labels, final String description,
+                final String notes, final String inChargeOf, final AccessType accessType, final Long createdAtInstant) {
+        this.id = id;
+        this.customer = customer;
+        this.labels = labels;
+        this.notes = notes;
+        this.inChargeOf = inChargeOf;
+        this.accessType = accessType;
+        this.createdAtInstant = createdAtInstant;
+        setFolder(folder);
+        setTitle(title);
+        setDescription(description);
+    }
+
+    public void setFolder(final String folder) {
+        this.folder = folder;
+        this.normalizedFolder = TextUtil.normalize(folder);
+    }
+
+    public void setTitle(final String title) {
+        this.title = title;
+        this.normalizedTitle = TextUtil.normalize(title);
+    }
+
+    public void setDescription(final String description) {
+        this.description = description;
+        this.normalizedDescription = TextUtil.normalize(description);
+    }
+
+    public String getVersion() {
+        return this.version == null ? contentVersion() : this.version;
+    }
+
+    public void refreshVersion() {
+        this.version = contentVersion();
+    }
+
+    public String normalizedFolder() {
+        return this.normalizedFolder;
+    }
+
+    public String normalizedTitle() {
+        return this.normalizedTitle;
+    }
+
+    public String normalizedDescription() {
+        return this.normalizedDescription;
+    }
+
+    private String contentVersion() {
+        final List<String> parts = new ArrayList<>(Arrays.asList(
+                this.id,
+                this.folder,
+                this.customer,
+                this.title,
+                this.description,
+                this.notes,
+                this.inChargeOf,
+                this.accessType == null ? null : this.accessType.name(),
+                this.createdAtInstant == null ? null : this.createdAtInstant.toString(),
+                this.labels == null ? null : String.valueOf(this.labels.size())
+        ));
+        if (this.labels != null) {
+            parts.addAll(this.labels);
+        }
+        return HashUtil.contentHash(parts);
+    }
+
 }
@@ -0,0 +1,42 @@
+package com.aurum.casesintegrator.domain;
+
+import org.springframework.cloud.gcp.data.firestore.Document;
+
+import com.google.cloud.firestore.annotation.DocumentId;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Number of cases of a customer, label and access type created on one day, in one of a fixed number of shards.
+ * Flushes pick a shard at random and update it in a transaction, so concurrent flushes seldom contend and never lose
+ * counts, and a total is the sum over shards. A case is counted once per label and once under {@link #ALL_LABELS},
+ * which is what totals without a label filter read.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collectionName = "caseCounters")
+public class CaseCounter {
+
+    public static final String ALL_LABELS = "*";
+
+    @DocumentId
+    private String id;
+
+    private String shard;
+
+    private String customer;
+
+    private String label;
+
+    private String accessType;
+
+    private long epochDay;
+
+    private long count;
+
+}
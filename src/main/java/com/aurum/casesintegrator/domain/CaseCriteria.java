@@ -12,7 +12,7 @@ import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @AllArgsConstructor
 @NoArgsConstructor
 @EqualsAndHashCode
@@ -25,6 +25,11 @@ public class CaseCriteria {
     private String customer;
     private List<String> labels;
 
+    /**
+     * Boolean label filter, such as {@code important AND (red OR blue) AND NOT archived}.
+     */
+    private String labelExpression;
+
     private String accessType;
 
     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
@@ -35,4 +40,9 @@ public class CaseCriteria {
 
     private int page;
     private Integer limit;
+
+    /**
+     * Continuation token returned with the previous page. Takes precedence over {@code page}.
+     */
+    private String cursor;
 }
@@ -0,0 +1,64 @@
+package com.aurum.casesintegrator.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.cloud.gcp.data.firestore.Document;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.google.cloud.firestore.annotation.DocumentId;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Progress of an asynchronous import. It is saved after every committed chunk, so {@code committedLines}, the number of
+ * the last line of that chunk, is the point an interrupted job resumes from, on whichever instance takes it over.
+ */
+@Data
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Document(collectionName = "importJobs")
+public class CaseImportJob {
+
+    @DocumentId
+    private String id;
+
+    private String customer;
+
+    private JobStatus status;
+
+    private long committedChunks;
+
+    private long committedLines;
+
+    private long processedLines;
+
+    private long created;
+
+    private long conflicts;
+
+    private long invalid;
+
+    private double linesPerSecond;
+
+    private List<ImportJobFailure> failures = new ArrayList<>();
+
+    private String error;
+
+    private Long submittedAtInstant;
+
+    private Long startedAtInstant;
+
+    private Long finishedAtInstant;
+
+    /**
+     * Instance holding the lease of the job and when it last renewed it.
+     */
+    @JsonIgnore
+    private String owner;
+
+    private Long heartbeatAtInstant;
+
+}
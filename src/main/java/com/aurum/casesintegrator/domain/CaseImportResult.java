@@ -0,0 +1,20 @@
+package com.aurum.casesintegrator.domain;
+
+import java.util.Set;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CaseImportResult {
+
+    private long line;
+    private String id;
+    private ImportStatus status;
+    private Set<String> messages;
+
+}
@@ -0,0 +1,21 @@
+package com.aurum.casesintegrator.domain;
+
+import org.springframework.http.HttpStatus;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CaseLookupResult {
+
+    private String id;
+    private HttpStatus status;
+    @JsonProperty("case")
+    private Case singleCase;
+
+}
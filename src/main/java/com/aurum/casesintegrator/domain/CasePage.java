@@ -0,0 +1,18 @@
+package com.aurum.casesintegrator.domain;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * One page of a criteria query and the cursor of the page after it, null when there is none.
+ */
+@Data
+@AllArgsConstructor
+public class CasePage {
+
+    private List<Case> cases;
+    private String nextCursor;
+
+}
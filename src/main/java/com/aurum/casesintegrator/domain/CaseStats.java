@@ -0,0 +1,33 @@
+package com.aurum.casesintegrator.domain;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Number of cases created in a date range, in total and per period when a granularity is requested.
+ */
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CaseStats {
+
+    private String customer;
+
+    private String label;
+
+    private String accessType;
+
+    private LocalDate from;
+
+    private LocalDate to;
+
+    private long total;
+
+    private Map<String, Long> buckets;
+
+}
@@ -0,0 +1,40 @@
+package com.aurum.casesintegrator.domain;
+
+import java.util.Map;
+
+import org.springframework.cloud.gcp.data.firestore.Document;
+
+import com.google.cloud.firestore.annotation.DocumentId;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Response produced for an Idempotency-Key, with the fingerprint of the request body that produced it.
+ * An entry that is not completed marks a request still being processed.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collectionName = "idempotentResponses")
+public class IdempotentResponse {
+
+    @DocumentId
+    private String id;
+
+    private boolean completed;
+
+    private String fingerprint;
+
+    private int status;
+
+    private Map<String, String> headers;
+
+    private String body;
+
+    private Long expiresAtInstant;
+
+}
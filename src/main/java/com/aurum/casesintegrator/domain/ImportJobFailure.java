@@ -0,0 +1,22 @@
+package com.aurum.casesintegrator.domain;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ImportJobFailure {
+
+    private long line;
+    private String id;
+    private ImportStatus status;
+    private List<String> messages;
+
+}
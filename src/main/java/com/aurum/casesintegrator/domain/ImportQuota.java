@@ -0,0 +1,27 @@
+package com.aurum.casesintegrator.domain;
+
+import org.springframework.cloud.gcp.data.firestore.Document;
+
+import com.google.cloud.firestore.annotation.DocumentId;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Import jobs of a customer accepted and not finished yet, across all instances. Only changed in transactions.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collectionName = "importQuotas")
+public class ImportQuota {
+
+    @DocumentId
+    private String id;
+
+    private String customer;
+
+    private long activeJobs;
+
+}
@@ -0,0 +1,9 @@
+package com.aurum.casesintegrator.domain;
+
+public enum ImportStatus {
+
+    CREATED,
+    CONFLICT,
+    INVALID
+
+}
@@ -0,0 +1,10 @@
+package com.aurum.casesintegrator.domain;
+
+public enum JobStatus {
+
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+
+}
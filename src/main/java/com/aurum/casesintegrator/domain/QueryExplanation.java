@@ -0,0 +1,29 @@
+package com.aurum.casesintegrator.domain;
+
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Plan chosen for a criteria query, with estimated and actual documents read. Estimates are absent until statistics
+ * have been loaded.
+ */
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class QueryExplanation {
+
+    private String accessPath;
+    private List<String> indexedFilters;
+    private List<String> residualFilters;
+    private Long estimatedMatches;
+    private Long estimatedDocumentsRead;
+    private long documentsRead;
+    private int returned;
+    private Map<String, Long> consideredPaths;
+
+}
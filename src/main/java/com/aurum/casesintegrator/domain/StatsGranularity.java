@@ -0,0 +1,31 @@
+package com.aurum.casesintegrator.domain;
+
+import java.time.LocalDate;
+
+/**
+ * Period case counts are rolled up to.
+ */
+public enum StatsGranularity {
+
+    DAY {
+        @Override
+        public String bucketOf(final LocalDate day) {
+            return day.toString();
+        }
+    },
+    MONTH {
+        @Override
+        public String bucketOf(final LocalDate day) {
+            return day.toString().substring(0, 7);
+        }
+    },
+    YEAR {
+        @Override
+        public String bucketOf(final LocalDate day) {
+            return String.valueOf(day.getYear());
+        }
+    };
+
+    public abstract String bucketOf(LocalDate day);
+
+}
@@ -0,0 +1,17 @@
+package com.aurum.casesintegrator.exception;
+
+import java.util.Set;
+
+import lombok.Getter;
+
+@Getter
+public class CaseValidationException extends RuntimeException {
+
+    private final Set<String> messages;
+
+    public CaseValidationException(final Set<String> messages) {
+        super(String.join(" ", messages));
+        this.messages = messages;
+    }
+
+}
@@ -0,0 +1,9 @@
+package com.aurum.casesintegrator.exception;
+
+public class IdempotencyKeyReusedException extends RuntimeException {
+
+    public IdempotencyKeyReusedException(final String message) {
+        super(message);
+    }
+
+}
@@ -1,6 +1,7 @@
 package com.aurum.casesintegrator.exception;
 
 import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 import javax.management.InstanceAlreadyExistsException;
@@ -56,12 +57,30 @@ public class RestExceptionHandler extends ResponseEntityExceptionHandler {
         return buildResponseEntity(new ApiError(HttpStatus.BAD_REQUEST, errors));
     }
 
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler(CaseValidationException.class)
+    public ResponseEntity<Object> handleCaseValidationException(final CaseValidationException e) {
+        return buildResponseEntity(new ApiError(HttpStatus.BAD_REQUEST, e.getMessages()));
+    }
+
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<Object> handleIllegalArgumentException(final IllegalArgumentException e) {
         return buildResponseEntity(new ApiError(HttpStatus.BAD_REQUEST, Set.of(e.getMessage())));
     }
 
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Object> handleRejectedExecutionException(final RejectedExecutionException e) {
+        return buildResponseEntity(new ApiError(HttpStatus.TOO_MANY_REQUESTS, Set.of(e.getMessage())));
+    }
+
+    @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<Object> handleIdempotencyKeyReusedException(final IdempotencyKeyReusedException e) {
+        return buildResponseEntity(new ApiError(HttpStatus.UNPROCESSABLE_ENTITY, Set.of(e.getMessage())));
+    }
+
     private ResponseEntity<Object> buildResponseEntity(final ApiError apiError) {
         return new ResponseEntity<>(apiError, apiError.getStatus());
     }
@@ -0,0 +1,18 @@
+package com.aurum.casesintegrator.repository;
+
+import org.springframework.cloud.gcp.data.firestore.FirestoreReactiveRepository;
+import org.springframework.stereotype.Repository;
+
+import com.aurum.casesintegrator.domain.CaseCounter;
+
+import reactor.core.publisher.Flux;
+
+@Repository
+public interface CaseCounterRepository extends FirestoreReactiveRepository<CaseCounter> {
+
+    Flux<CaseCounter> findByLabelAndEpochDayGreaterThanEqualAndEpochDayLessThanEqual(final String label, final Long fromEpochDay, final Long toEpochDay);
+
+    Flux<CaseCounter> findByCustomerAndLabelAndEpochDayGreaterThanEqualAndEpochDayLessThanEqual(final String customer, final String label, final Long fromEpochDay,
+                                                                                               final Long toEpochDay);
+
+}
@@ -19,8 +19,14 @@ public interface CaseRepository extends FirestoreReactiveRepository<Case> {
 
     Flux<Case> findByAccessTypeAndCreatedAtInstantGreaterThanEqualAndCreatedAtInstantLessThanEqual(final String accessType, final Long startInstant, final Long endInstant, final Pageable pageable);
 
+    Flux<Case> findByUpdatedAtInstantGreaterThanEqual(final Long updatedAtInstant);
+
     Flux<Case> findByCreatedAtInstantGreaterThanEqualAndCreatedAtInstantLessThanEqualOrderByCreatedAtInstantDesc(final Long startInstant, final Long endInstant, final Pageable pageable);
 
+    Flux<Case> findByCreatedAtInstantGreaterThanEqualAndCreatedAtInstantLessThanOrderByCreatedAtInstantDesc(final Long startInstant, final Long endInstant, final Pageable pageable);
+
+    Flux<Case> findByCreatedAtInstantAndIdLessThanOrderByIdDesc(final Long createdAtInstant, final String id, final Pageable pageable);
+
     Flux<Case> findByCustomerAndLabelsContainingAndAccessTypeAndCreatedAtInstantGreaterThanEqualAndCreatedAtInstantLessThanEqual(final String customer, final List<String> labels, final String accessType,
                                                                                                                                  final Long startInstant, final Long endInstant, final Pageable pageable);
 
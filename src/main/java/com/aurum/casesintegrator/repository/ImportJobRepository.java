@@ -0,0 +1,15 @@
+package com.aurum.casesintegrator.repository;
+
+import org.springframework.cloud.gcp.data.firestore.FirestoreReactiveRepository;
+import org.springframework.stereotype.Repository;
+
+import com.aurum.casesintegrator.domain.CaseImportJob;
+
+import reactor.core.publisher.Flux;
+
+@Repository
+public interface ImportJobRepository extends FirestoreReactiveRepository<CaseImportJob> {
+
+    Flux<CaseImportJob> findByStatus(final String status);
+
+}
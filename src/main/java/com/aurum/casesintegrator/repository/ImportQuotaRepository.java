@@ -0,0 +1,11 @@
+package com.aurum.casesintegrator.repository;
+
+import org.springframework.cloud.gcp.data.firestore.FirestoreReactiveRepository;
+import org.springframework.stereotype.Repository;
+
+import com.aurum.casesintegrator.domain.ImportQuota;
+
+@Repository
+public interface ImportQuotaRepository extends FirestoreReactiveRepository<ImportQuota> {
+
+}
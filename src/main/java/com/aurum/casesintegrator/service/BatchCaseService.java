@@ -4,80 +4,197 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.UUID;
 import java.util.stream.Collectors;
 
 import javax.management.InstanceAlreadyExistsException;
 
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 
 import com.aurum.casesintegrator.domain.Case;
+import com.aurum.casesintegrator.domain.CaseLookupResult;
 import com.aurum.casesintegrator.repository.CaseRepository;
+import com.aurum.casesintegrator.service.cache.CaseEntityCache;
+import com.aurum.casesintegrator.service.event.CasesChangedEvent;
+import com.aurum.casesintegrator.service.id.IdGenerator;
+import com.aurum.casesintegrator.service.lookup.CaseLookupBatcher;
+import com.aurum.casesintegrator.service.range.DateRangeResolver;
 import com.aurum.casesintegrator.util.Constants;
-import com.aurum.casesintegrator.util.DateUtil;
 
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 @Component
 public class BatchCaseService {
 
+    private static final int FIRESTORE_MAX_WRITES_PER_BATCH = 500;
+
     private final CaseRepository caseRepository;
+    private final IdGenerator idGenerator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CaseEntityCache caseEntityCache;
+    private final CaseLookupBatcher caseLookupBatcher;
+    private final DateRangeResolver dateRangeResolver;
+    private final int writeBatchSize;
+    private final int writeConcurrency;
+    private final int readBatchSize;
+    private final int readConcurrency;
+    private final int readIdsLimit;
 
     @Autowired
-    public BatchCaseService(final CaseRepository caseRepository) {
+    public BatchCaseService(final CaseRepository caseRepository,
+                            final IdGenerator idGenerator,
+                            final ApplicationEventPublisher eventPublisher,
+                            final CaseEntityCache caseEntityCache,
+                            final CaseLookupBatcher caseLookupBatcher,
+                            final DateRangeResolver dateRangeResolver,
+                            @Value("${write.batch.size}") final int writeBatchSize,
+                            @Value("${write.batch.concurrency}") final int writeConcurrency,
+                            @Value("${read.batch.size}") final int readBatchSize,
+                            @Value("${read.batch.concurrency}") final int readConcurrency,
+                            @Value("${read.ids.limit}") final int readIdsLimit) {
         this.caseRepository = caseRepository;
+        this.idGenerator = idGenerator;
+        this.eventPublisher = eventPublisher;
+        this.caseEntityCache = caseEntityCache;
+        this.caseLookupBatcher = caseLookupBatcher;
+        this.dateRangeResolver = dateRangeResolver;
+        this.writeBatchSize = Math.min(writeBatchSize, FIRESTORE_MAX_WRITES_PER_BATCH);
+        this.writeConcurrency = writeConcurrency;
+        this.readBatchSize = readBatchSize;
+        this.readConcurrency = readConcurrency;
+        this.readIdsLimit = readIdsLimit;
     }
 
-    public Flux<Case> create(final List<Case> cases) throws InstanceAlreadyExistsException {
+    /**
+     * Creates all cases in a single reactive pipeline: one existence lookup for the ids sent by the client,
+     * conflict marking in memory and chunked batched writes. Cases that could not be created are emitted
+     * without id, in the same position they were sent.
+     */
+    public Flux<Case> create(final List<Case> cases) {
         final Set<String> idsAlreadyFilled = cases.stream().filter(c -> c.getId() != null).map(Case::getId).collect(Collectors.toSet());
+        final List<Case> casesNewIdGenerated = generateValuesForMissingFields(cases);
         if (idsAlreadyFilled.isEmpty()) {
-            return this.caseRepository.saveAll(generateValuesForMissingFields(cases));
+            return this.saveAll(casesNewIdGenerated);
         }
-        final List<Case> casesNewIdGenerated = generateValuesForMissingFields(cases);
-        final List<Case> originalCases = new ArrayList<>(casesNewIdGenerated);
-        this.removeCaseConflicts(casesNewIdGenerated);
-        this.verifyAlreadyExistingCases(casesNewIdGenerated, idsAlreadyFilled);
-        return this.saveAndFetchAll(casesNewIdGenerated, originalCases);
+
+        return this.markAcceptedCases(casesNewIdGenerated, idsAlreadyFilled).flatMapMany(accepted -> {
+            final List<Case> casesToSave = acceptedOnly(casesNewIdGenerated, accepted);
+            if (casesToSave.isEmpty() && idsAlreadyFilled.size() == Constants.SINGLE_CASE) {
+                return Flux.error(new InstanceAlreadyExistsException("Case already exists on database."));
+            }
+            return this.saveAll(casesToSave).thenMany(Flux.range(0, accepted.length)
+                    .map(i -> accepted[i] ? casesNewIdGenerated.get(i) : withoutId(casesNewIdGenerated.get(i))));
+        });
     }
 
-    private List<Case> generateValuesForMissingFields(final List<Case> cases) {
+    /**
+     * Cases sent without createdAt are stamped with the start of the current day of their customer.
+     */
+    List<Case> generateValuesForMissingFields(final List<Case> cases) {
         return cases.stream().map(c -> {
-            c.setId(c.getId() == null ? UUID.randomUUID().toString() : c.getId());
-            c.setCreatedAtInstant(c.getCreatedAtInstant() == null ? DateUtil.getCurrentDateInstantZero() : c.getCreatedAtInstant());
+            c.setId(c.getId() == null ? this.idGenerator.generate() : c.getId());
+            c.setCreatedAtInstant(c.getCreatedAtInstant() == null ? this.dateRangeResolver.startOfToday(c.getCustomer()) : c.getCreatedAtInstant());
             return c;
         }).collect(Collectors.toList());
     }
 
-    private void removeCaseConflicts(final List<Case> cases) {
-        final Set<String> uniqueIds = new HashSet<>();
-        final List<Case> casesToRemove = cases.stream().filter(c -> c.getId() != null && !uniqueIds.add(c.getId())).collect(Collectors.toList());
-        cases.removeAll(casesToRemove);
+    /**
+     * A case is accepted when its id is neither repeated earlier in the same list nor already stored.
+     * Stored ids are looked up once for the whole list.
+     */
+    Mono<boolean[]> markAcceptedCases(final List<Case> cases, final Set<String> idsAlreadyFilled) {
+        final Mono<Set<String>> existingIds = idsAlreadyFilled.isEmpty()
+                ? Mono.just(Set.of())
+                : this.caseRepository.findAllById(idsAlreadyFilled).map(Case::getId).collect(Collectors.toSet());
+
+        return existingIds.map(existing -> {
+            final Set<String> uniqueIds = new HashSet<>();
+            final boolean[] accepted = new boolean[cases.size()];
+            for (int i = 0; i < cases.size(); i++) {
+                final String id = cases.get(i).getId();
+                accepted[i] = uniqueIds.add(id) && !existing.contains(id);
+            }
+            return accepted;
+        });
+    }
+
+    /**
+     * Each chunk goes to Firestore as a single batched commit, so chunks never exceed the 500 writes per batch limit.
+     * Every committed chunk is announced as a {@link CasesChangedEvent}. Versions and update times are refreshed before
+     * writing.
+     */
+    Flux<Case> saveAll(final List<Case> cases) {
+        return Flux.fromIterable(cases)
+                .doOnNext(singleCase -> {
+                    singleCase.setUpdatedAtInstant(System.currentTimeMillis());
+                    singleCase.refreshVersion();
+                })
+                .buffer(this.writeBatchSize)
+                .flatMapSequential(chunk -> this.caseRepository.saveAll(chunk).collectList()
+                        .doOnNext(savedCases -> this.eventPublisher.publishEvent(CasesChangedEvent.created(savedCases)))
+                        .flatMapIterable(savedCases -> savedCases), this.writeConcurrency);
+    }
+
+    /**
+     * Reads every id through the entity cache like a single lookup, so cached cases are served without a read and only
+     * the misses reach the lookup batcher, which reads them in batches and merges ids already in flight. Up to
+     * {@code read.batch.concurrency} batches of {@code read.batch.size} ids are looked up at a time, and one result is
+     * emitted per requested id in the order they were requested.
+     */
+    Flux<CaseLookupResult> findAllById(final List<String> ids) {
+        if (ids == null || ids.isEmpty() || ids.size() > this.readIdsLimit) {
+            throw new IllegalArgumentException(String.format("Between 1 and %d ids must be requested.", this.readIdsLimit));
+        }
+        if (ids.stream().anyMatch(StringUtils::isBlank)) {
+            throw new IllegalArgumentException("Requested ids must not be blank.");
+        }
+
+        return Flux.fromIterable(ids)
+                .flatMapSequential(id -> this.caseEntityCache.get(id, this.caseLookupBatcher::load)
+                        .map(found -> lookupResult(id, found))
+                        .defaultIfEmpty(lookupResult(id, null)),
+                        this.readBatchSize * this.readConcurrency);
+    }
+
+    int getWriteBatchSize() {
+        return this.writeBatchSize;
     }
 
-    private void verifyAlreadyExistingCases(final List<Case> cases, final Set<String> idsAlreadyFilled) throws InstanceAlreadyExistsException {
-        final Flux<Case> foundCases = this.caseRepository.findAllById(idsAlreadyFilled);
-        cases.removeIf(c -> foundCases.any(foundCase -> foundCase.getId().equals(c.getId())).block());
-        if (cases.isEmpty() && idsAlreadyFilled.size() == Constants.SINGLE_CASE) {
-            throw new InstanceAlreadyExistsException("Case already exists on database.");
+    private List<Case> acceptedOnly(final List<Case> cases, final boolean[] accepted) {
+        final List<Case> acceptedCases = new ArrayList<>();
+        for (int i = 0; i < accepted.length; i++) {
+            if (accepted[i]) {
+                acceptedCases.add(cases.get(i));
+            }
         }
+        return acceptedCases;
+    }
+
+    private CaseLookupResult lookupResult(final String id, final Case found) {
+        return CaseLookupResult.builder()
+                .id(id)
+                .status(found == null ? HttpStatus.NOT_FOUND : HttpStatus.OK)
+                .singleCase(found)
+                .build();
     }
 
-    private Flux<Case> saveAndFetchAll(final List<Case> cases, final List<Case> originalCases) {
-        return Flux.fromIterable(
-                originalCases.stream().map(c -> cases.contains(c) ? this.caseRepository.save(c).block() :
-                        new Case(
-                                null,
-                                c.getFolder(),
-                                c.getCustomer(),
-                                c.getTitle(),
-                                c.getLabels(),
-                                c.getDescription(),
-                                c.getNotes(),
-                                c.getInChargeOf(),
-                                c.getAccessType(),
-                                c.getCreatedAtInstant()
-                        )).collect(Collectors.toList())
+    private Case withoutId(final Case c) {
+        return new Case(
+                null,
+                c.getFolder(),
+                c.getCustomer(),
+                c.getTitle(),
+                c.getLabels(),
+                c.getDescription(),
+                c.getNotes(),
+                c.getInChargeOf(),
+                c.getAccessType(),
+                c.getCreatedAtInstant()
         );
     }
 
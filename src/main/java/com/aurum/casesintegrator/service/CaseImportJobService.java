@@ -0,0 +1,280 @@
+package com.aurum.casesintegrator.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.aurum.casesintegrator.domain.CaseImportJob;
+import com.aurum.casesintegrator.domain.CaseImportResult;
+import com.aurum.casesintegrator.domain.ImportJobFailure;
+import com.aurum.casesintegrator.domain.ImportStatus;
+import com.aurum.casesintegrator.domain.JobStatus;
+import com.aurum.casesintegrator.repository.ImportJobRepository;
+import com.aurum.casesintegrator.service.spool.ImportPayloadStore;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.UnicastProcessor;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Runs NDJSON imports as background jobs. The payload is kept in the shared payload store from submission until the
+ * job completes and the job progress is saved after every committed chunk, so a job interrupted by a crash or a
+ * redeploy is taken over by any instance and resumes from its last committed chunk. At most
+ * {@code import.jobs.workers} jobs run at a time on an instance; the others wait queued. Payloads are read on a
+ * scheduler of their own, capped at {@code import.jobs.threads} threads, so long imports do not take the shared
+ * threads that requests block on.
+ */
+@Slf4j
+@Service
+public class CaseImportJobService {
+
+    private final CaseImportService caseImportService;
+    private final ImportJobRepository importJobRepository;
+    private final ImportJobCoordinator importJobCoordinator;
+    private final ImportPayloadStore importPayloadStore;
+    private final int jobsPerCustomer;
+    private final int failuresLimit;
+    private final boolean resumeInterrupted;
+    private final Set<String> localJobs = ConcurrentHashMap.newKeySet();
+    private final FluxSink<CaseImportJob> queue;
+    private final Scheduler scheduler;
+    private final Disposable workers;
+
+    @Autowired
+    public CaseImportJobService(final CaseImportService caseImportService,
+                                final ImportJobRepository importJobRepository,
+                                final ImportJobCoordinator importJobCoordinator,
+                                final ImportPayloadStore importPayloadStore,
+                                @Value("${import.jobs.workers}") final int workers,
+                                @Value("${import.jobs.threads}") final int threads,
+                                @Value("${import.jobs.customer.limit}") final int jobsPerCustomer,
+                                @Value("${import.jobs.failures.limit}") final int failuresLimit,
+                                @Value("${import.jobs.resume-interrupted}") final boolean resumeInterrupted) {
+        this.caseImportService = caseImportService;
+        this.importJobRepository = importJobRepository;
+        this.importJobCoordinator = importJobCoordinator;
+        this.importPayloadStore = importPayloadStore;
+        this.jobsPerCustomer = jobsPerCustomer;
+        this.failuresLimit = failuresLimit;
+        this.resumeInterrupted = resumeInterrupted;
+
+        this.scheduler = Schedulers.newBoundedElastic(threads, Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE, "import-jobs");
+        final UnicastProcessor<CaseImportJob> jobs = UnicastProcessor.create();
+        this.queue = jobs.sink();
+        this.workers = jobs.flatMap(this::run, workers).subscribe();
+    }
+
+    /**
+     * The payload is written to the store before the job is saved, so a saved job always has its payload.
+     */
+    public Mono<CaseImportJob> submit(final String customer, final InputStream ndjson) {
+        return Mono.defer(() -> {
+            final CaseImportJob job = new CaseImportJob();
+            job.setId(UUID.randomUUID().toString());
+            job.setCustomer(customer);
+            job.setStatus(JobStatus.QUEUED);
+            job.setSubmittedAtInstant(System.currentTimeMillis());
+
+            return accept(job, true, () -> blocking(() -> this.importPayloadStore.write(job.getId(), ndjson))
+                    .then(Mono.defer(() -> this.importJobRepository.save(this.importJobCoordinator.leased(job)))));
+        });
+    }
+
+    public Mono<CaseImportJob> findById(final String id) {
+        return this.importJobRepository.findById(id);
+    }
+
+    public Mono<CaseImportJob> resume(final String id) {
+        return this.importJobRepository.findById(id).flatMap(job -> {
+            if (job.getStatus() != JobStatus.FAILED) {
+                return Mono.error(new IllegalStateException("Only failed jobs can be resumed."));
+            }
+
+            return Mono.fromCallable(() -> this.importPayloadStore.exists(id)).subscribeOn(Schedulers.boundedElastic()).flatMap(exists -> exists
+                    ? accept(job, false, () -> this.importJobCoordinator.requeue(id)
+                            .switchIfEmpty(Mono.error(new IllegalStateException("Only failed jobs can be resumed."))))
+                    : Mono.error(new IllegalStateException("Job payload is no longer available.")));
+        });
+    }
+
+    /**
+     * Takes over the jobs whose instance went down: queued or running jobs whose lease has expired. They were
+     * accepted before, so they are not subject to the per customer limit again.
+     */
+    @Scheduled(fixedDelayString = "${import.jobs.lease}")
+    public void resumeInterruptedJobs() {
+        if (!this.resumeInterrupted) {
+            return;
+        }
+
+        Flux.merge(this.importJobRepository.findByStatus(JobStatus.QUEUED.name()), this.importJobRepository.findByStatus(JobStatus.RUNNING.name()))
+                .filter(job -> !this.localJobs.contains(job.getId()) && this.importJobCoordinator.isLeaseExpired(job))
+                .subscribe(this::enqueue, e -> log.error("Could not resume interrupted import jobs.", e));
+    }
+
+    @PreDestroy
+    public void close() {
+        this.workers.dispose();
+        this.scheduler.dispose();
+    }
+
+    /**
+     * Reserves a slot of the customer, then persists the job. The slot is reserved on subscription and given back
+     * when the job does not make it to the queue, whether persisting failed or the caller went away.
+     */
+    private Mono<CaseImportJob> accept(final CaseImportJob job, final boolean ownsPayload, final Supplier<Mono<CaseImportJob>> persist) {
+        return this.importJobCoordinator.reserveSlot(job.getCustomer(), this.jobsPerCustomer).then(Mono.defer(() -> {
+            final AtomicBoolean queued = new AtomicBoolean();
+            return persist.get()
+                    .doOnNext(saved -> {
+                        queued.set(true);
+                        enqueue(saved);
+                    })
+                    .doFinally(signal -> {
+                        if (!queued.get()) {
+                            abandon(job, ownsPayload);
+                        }
+                    });
+        }));
+    }
+
+    private void abandon(final CaseImportJob job, final boolean ownsPayload) {
+        this.importJobCoordinator.releaseSlot(job.getCustomer())
+                .then(ownsPayload ? blocking(() -> this.importPayloadStore.delete(job.getId())) : Mono.empty())
+                .subscribe(null, e -> log.error("Could not clean up import job {}.", job.getId(), e));
+    }
+
+    private void enqueue(final CaseImportJob job) {
+        if (this.localJobs.add(job.getId())) {
+            this.queue.next(job);
+        }
+    }
+
+    /**
+     * Runs the job if this instance gets its lease. The payload is read on a worker thread and progress is saved,
+     * renewing the lease, after every committed chunk.
+     */
+    private Mono<Void> run(final CaseImportJob queued) {
+        return this.importJobCoordinator.claim(queued.getId())
+                .flatMap(job -> {
+                    final long startedAt = System.currentTimeMillis();
+                    final long linesBeforeStart = job.getProcessedLines();
+                    job.setStatus(JobStatus.RUNNING);
+                    job.setStartedAtInstant(job.getStartedAtInstant() == null ? startedAt : job.getStartedAtInstant());
+
+                    return Flux.using(
+                            () -> this.importPayloadStore.open(job.getId()),
+                            payload -> this.importJobRepository.save(job).thenMany(this.caseImportService.importCases(payload, job.getId(), job.getCommittedLines(), this.scheduler)
+                                    .concatMap(results -> this.importJobRepository.save(this.importJobCoordinator.leased(recordChunk(job, results, startedAt, linesBeforeStart))))),
+                            this::close
+                    )
+                            .subscribeOn(this.scheduler)
+                            .then(Mono.defer(() -> {
+                                job.setStatus(JobStatus.COMPLETED);
+                                job.setFinishedAtInstant(System.currentTimeMillis());
+                                return this.importJobRepository.save(job);
+                            }))
+                            .then(blocking(() -> this.importPayloadStore.delete(job.getId()), this.scheduler))
+                            .onErrorResume(e -> {
+                                log.error("Import job {} failed after {} committed chunks.", job.getId(), job.getCommittedChunks(), e);
+                                return markFailed(job, e);
+                            })
+                            .then(Mono.defer(() -> this.importJobCoordinator.releaseSlot(job.getCustomer())))
+                            .onErrorResume(e -> {
+                                log.error("Could not release the slot of import job {}.", job.getId(), e);
+                                return Mono.empty();
+                            });
+                })
+                .onErrorResume(e -> {
+                    log.error("Could not claim import job {}.", queued.getId(), e);
+                    return Mono.empty();
+                })
+                .doFinally(signal -> this.localJobs.remove(queued.getId()));
+    }
+
+    private CaseImportJob recordChunk(final CaseImportJob job, final List<CaseImportResult> results, final long startedAt, final long linesBeforeStart) {
+        job.setCommittedChunks(job.getCommittedChunks() + 1);
+        job.setCommittedLines(results.get(results.size() - 1).getLine());
+        job.setProcessedLines(job.getProcessedLines() + results.size());
+        results.forEach(result -> {
+            if (result.getStatus() == ImportStatus.CREATED) {
+                job.setCreated(job.getCreated() + 1);
+                return;
+            }
+
+            if (result.getStatus() == ImportStatus.CONFLICT) {
+                job.setConflicts(job.getConflicts() + 1);
+            } else {
+                job.setInvalid(job.getInvalid() + 1);
+            }
+            if (job.getFailures().size() < this.failuresLimit) {
+                job.getFailures().add(toFailure(result));
+            }
+        });
+
+        final long elapsedMillis = Math.max(1, System.currentTimeMillis() - startedAt);
+        job.setLinesPerSecond((job.getProcessedLines() - linesBeforeStart) * 1000.0 / elapsedMillis);
+        return job;
+    }
+
+    private ImportJobFailure toFailure(final CaseImportResult result) {
+        final List<String> messages = result.getMessages() == null ? null : result.getMessages().stream().sorted().collect(Collectors.toList());
+        return new ImportJobFailure(result.getLine(), result.getId(), result.getStatus(), messages);
+    }
+
+    private Mono<Void> markFailed(final CaseImportJob job, final Throwable cause) {
+        job.setStatus(JobStatus.FAILED);
+        job.setError(cause.getMessage());
+        return this.importJobRepository.save(job)
+                .onErrorResume(e -> {
+                    log.error("Could not save failure of import job {}.", job.getId(), e);
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private void close(final InputStream payload) {
+        try {
+            payload.close();
+        } catch (IOException e) {
+            log.warn("Could not close import job payload.", e);
+        }
+    }
+
+    private static Mono<Void> blocking(final IoAction action) {
+        return blocking(action, Schedulers.boundedElastic());
+    }
+
+    private static Mono<Void> blocking(final IoAction action, final Scheduler scheduler) {
+        return Mono.fromCallable(() -> {
+            action.run();
+            return Boolean.TRUE;
+        }).subscribeOn(scheduler).then();
+    }
+
+    @FunctionalInterface
+    private interface IoAction {
+
+        void run() throws IOException;
+
+    }
+
+}
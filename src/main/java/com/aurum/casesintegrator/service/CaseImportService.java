@@ -0,0 +1,164 @@
+package com.aurum.casesintegrator.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.aurum.casesintegrator.domain.Case;
+import com.aurum.casesintegrator.domain.CaseImportResult;
+import com.aurum.casesintegrator.domain.ImportStatus;
+import com.aurum.casesintegrator.util.JsonUtil;
+import com.aurum.casesintegrator.validation.validator.CaseValidator;
+import com.fasterxml.jackson.core.type.TypeReference;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Imports newline delimited JSON cases without holding the payload in memory: lines are pulled from the stream
+ * on demand, grouped into write chunks and written one chunk at a time. Chunks are requested one at a time and
+ * {@code buffer} only pulls the lines of the chunks requested, so at most one chunk is buffered while another is
+ * being written.
+ */
+@Slf4j
+@Component
+public class CaseImportService {
+
+    private final BatchCaseService batchCaseService;
+    private final CaseValidator caseValidator;
+
+    @Autowired
+    public CaseImportService(final BatchCaseService batchCaseService, final CaseValidator caseValidator) {
+        this.batchCaseService = batchCaseService;
+        this.caseValidator = caseValidator;
+    }
+
+    /**
+     * Emits the results of each chunk, in line order, as soon as the chunk has been committed.
+     */
+    public Flux<List<CaseImportResult>> importCases(final InputStream ndjson) {
+        return this.importCases(ndjson, null, 0, Schedulers.boundedElastic());
+    }
+
+    /**
+     * Imports on behalf of a job, reading the payload on the given scheduler and skipping the lines up to
+     * {@code committedLines}, the last line the job has committed. Skipping by line number keeps the resume point
+     * right whatever the chunk size of the instance that committed it. Cases without id get one derived from the job
+     * and the line, so a chunk replayed after a crash is reported as conflicts instead of being written twice.
+     */
+    public Flux<List<CaseImportResult>> importCases(final InputStream ndjson, final String jobId, final long committedLines, final Scheduler scheduler) {
+        return Flux.using(
+                () -> new BufferedReader(new InputStreamReader(ndjson, StandardCharsets.UTF_8)),
+                this::readLines,
+                this::close
+        )
+                .subscribeOn(scheduler)
+                .filter(line -> line.number > committedLines && StringUtils.isNotBlank(line.content))
+                .buffer(this.batchCaseService.getWriteBatchSize())
+                .concatMap(lines -> this.importChunk(lines.stream().map(line -> this.parse(line, jobId)).collect(Collectors.toList())), 1);
+    }
+
+    private Flux<ImportLine> readLines(final BufferedReader reader) {
+        return Flux.generate(() -> 0L, (lineNumber, sink) -> {
+            try {
+                final String content = reader.readLine();
+                if (content == null) {
+                    sink.complete();
+                } else {
+                    sink.next(new ImportLine(lineNumber + 1, content, null, null));
+                }
+            } catch (IOException e) {
+                sink.error(new UncheckedIOException(e));
+            }
+            return lineNumber + 1;
+        });
+    }
+
+    private ImportLine parse(final ImportLine line, final String jobId) {
+        final Case singleCase = JsonUtil.fromString(line.content, new TypeReference<Case>() {});
+        if (singleCase == null) {
+            return new ImportLine(line.number, null, null, Set.of("Line does not contain a valid JSON case."));
+        }
+
+        final Set<String> violations = this.caseValidator.violationsOf(singleCase);
+        if (!violations.isEmpty()) {
+            return new ImportLine(line.number, null, null, violations);
+        }
+
+        if (jobId != null && singleCase.getId() == null) {
+            singleCase.setId(UUID.nameUUIDFromBytes((jobId + ":" + line.number).getBytes(StandardCharsets.UTF_8)).toString());
+        }
+        return new ImportLine(line.number, null, singleCase, null);
+    }
+
+    /**
+     * Applies the same id generation and conflict rules as a batch create. Chunks are imported one after the other,
+     * so an id repeated across chunks is caught by the existence lookup of the later chunk.
+     */
+    private Flux<List<CaseImportResult>> importChunk(final List<ImportLine> chunk) {
+        final List<Case> validCases = chunk.stream().filter(line -> line.singleCase != null).map(line -> line.singleCase).collect(Collectors.toList());
+        final Set<String> idsAlreadyFilled = validCases.stream().filter(c -> c.getId() != null).map(Case::getId).collect(Collectors.toSet());
+        final List<Case> casesNewIdGenerated = this.batchCaseService.generateValuesForMissingFields(validCases);
+
+        return this.batchCaseService.markAcceptedCases(casesNewIdGenerated, idsAlreadyFilled).flatMapMany(accepted -> {
+            final List<Case> casesToSave = new ArrayList<>();
+            for (int i = 0; i < accepted.length; i++) {
+                if (accepted[i]) {
+                    casesToSave.add(casesNewIdGenerated.get(i));
+                }
+            }
+            return this.batchCaseService.saveAll(casesToSave).then().thenReturn(toResults(chunk, accepted)).flux();
+        });
+    }
+
+    private List<CaseImportResult> toResults(final List<ImportLine> chunk, final boolean[] accepted) {
+        final List<CaseImportResult> results = new ArrayList<>(chunk.size());
+        int validIndex = 0;
+        for (final ImportLine line : chunk) {
+            if (line.singleCase == null) {
+                results.add(CaseImportResult.builder().line(line.number).status(ImportStatus.INVALID).messages(line.errors).build());
+                continue;
+            }
+            results.add(CaseImportResult.builder()
+                    .line(line.number)
+                    .id(line.singleCase.getId())
+                    .status(accepted[validIndex++] ? ImportStatus.CREATED : ImportStatus.CONFLICT)
+                    .build());
+        }
+        return results;
+    }
+
+    private void close(final BufferedReader reader) {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            log.warn("Could not close import stream.", e);
+        }
+    }
+
+    @AllArgsConstructor
+    private static class ImportLine {
+
+        private final long number;
+        private final String content;
+        private final Case singleCase;
+        private final Set<String> errors;
+
+    }
+
+}
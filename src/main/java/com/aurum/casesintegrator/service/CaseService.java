@@ -1,22 +1,34 @@
 package com.aurum.casesintegrator.service;
 
+import java.io.InputStream;
 import java.util.List;
 
-import javax.management.InstanceAlreadyExistsException;
-
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import com.aurum.casesintegrator.domain.AccessType;
 import com.aurum.casesintegrator.domain.Case;
 import com.aurum.casesintegrator.domain.CaseCriteria;
+import com.aurum.casesintegrator.domain.CaseImportJob;
+import com.aurum.casesintegrator.domain.CaseImportResult;
+import com.aurum.casesintegrator.domain.CaseLookupResult;
+import com.aurum.casesintegrator.domain.CasePage;
+import com.aurum.casesintegrator.domain.CaseStats;
+import com.aurum.casesintegrator.domain.QueryExplanation;
+import com.aurum.casesintegrator.domain.StatsGranularity;
 import com.aurum.casesintegrator.repository.CaseRepository;
-import com.aurum.casesintegrator.service.strategy.Criteria;
-import com.aurum.casesintegrator.service.strategy.factory.FilterCriteria;
-import com.aurum.casesintegrator.service.strategy.factory.FilterCriteriaFactory;
-import com.aurum.casesintegrator.util.JsonUtil;
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.aurum.casesintegrator.service.cache.CaseEntityCache;
+import com.aurum.casesintegrator.service.cache.CriteriaCacheKey;
+import com.aurum.casesintegrator.service.cache.CriteriaResultCache;
+import com.aurum.casesintegrator.service.event.CasesChangedEvent;
+import com.aurum.casesintegrator.service.lookup.CaseLookupBatcher;
+import com.aurum.casesintegrator.service.plan.QueryPlan;
+import com.aurum.casesintegrator.service.plan.QueryPlanner;
+import com.aurum.casesintegrator.service.range.DateRangeResolver;
+import com.aurum.casesintegrator.service.stats.CaseCounters;
+import com.aurum.casesintegrator.service.strategy.PageCursor;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -26,52 +38,180 @@ public class CaseService {
 
     private final CaseRepository caseRepository;
     private final BatchCaseService batchCaseService;
+    private final CaseImportService caseImportService;
+    private final CaseImportJobService caseImportJobService;
+    private final DateRangeResolver dateRangeResolver;
+    private final CriteriaResultCache criteriaResultCache;
+    private final CaseEntityCache caseEntityCache;
+    private final QueryPlanner queryPlanner;
+    private final CaseCounters caseCounters;
+    private final CaseLookupBatcher caseLookupBatcher;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public CaseService(final CaseRepository caseRepository, final BatchCaseService batchCaseService) {
+    public CaseService(final CaseRepository caseRepository, final BatchCaseService batchCaseService, final CaseImportService caseImportService,
+                       final CaseImportJobService caseImportJobService, final DateRangeResolver dateRangeResolver,
+                       final CriteriaResultCache criteriaResultCache, final CaseEntityCache caseEntityCache,
+                       final QueryPlanner queryPlanner, final CaseCounters caseCounters, final CaseLookupBatcher caseLookupBatcher,
+                       final ApplicationEventPublisher eventPublisher) {
         this.caseRepository = caseRepository;
         this.batchCaseService = batchCaseService;
+        this.caseImportService = caseImportService;
+        this.caseImportJobService = caseImportJobService;
+        this.dateRangeResolver = dateRangeResolver;
+        this.criteriaResultCache = criteriaResultCache;
+        this.caseEntityCache = caseEntityCache;
+        this.queryPlanner = queryPlanner;
+        this.caseCounters = caseCounters;
+        this.caseLookupBatcher = caseLookupBatcher;
+        this.eventPublisher = eventPublisher;
     }
 
-    public Flux<Case> create(final List<Case> cases) throws InstanceAlreadyExistsException {
-        return this.batchCaseService.create(cases);
+    /**
+     * Write results are replayed to late subscribers, so consuming the returned Flux more than once never repeats the writes.
+     */
+    public Flux<Case> create(final List<Case> cases) {
+        return this.batchCaseService.create(cases).cache();
     }
 
-    public List<Case> getExtractedCasesFrom(final String singleOrMultiple) {
-        final List<Case> multipleCases = JsonUtil.fromString(singleOrMultiple, new TypeReference<>() {});
-        if (multipleCases != null) {
-            return multipleCases;
-        }
-        final Case singleCase = JsonUtil.fromString(singleOrMultiple, new TypeReference<>() {});
-        return singleCase != null ? List.of(singleCase) : List.of();
+    public Flux<List<CaseImportResult>> importCases(final InputStream ndjson) {
+        return this.caseImportService.importCases(ndjson);
+    }
+
+    public Mono<CaseImportJob> submitImportJob(final String customer, final InputStream ndjson) {
+        return this.caseImportJobService.submit(customer, ndjson);
+    }
+
+    public Mono<CaseImportJob> findImportJobById(final String id) {
+        return this.caseImportJobService.findById(id);
+    }
+
+    public Mono<CaseImportJob> resumeImportJob(final String id) {
+        return this.caseImportJobService.resume(id);
     }
 
-    public void updateAllFields(final Case newCaseData) {
+    public Mono<Void> updateAllFields(final Case newCaseData) {
         if (StringUtils.isBlank(newCaseData.getId())) {
-            throw new IllegalArgumentException("Field id must be filled.");
+            return Mono.error(new IllegalArgumentException("Field id must be filled."));
         }
 
-        if (this.findById(newCaseData.getId()).block() == null) {
-            throw new IllegalArgumentException("Case not found on database.");
-        }
+        return this.findStoredById(newCaseData.getId())
+                .switchIfEmpty(Mono.error(new IllegalArgumentException("Case not found on database.")))
+                .doOnNext(existingCase -> {
+                    newCaseData.setUpdatedAtInstant(System.currentTimeMillis());
+                    newCaseData.refreshVersion();
+                })
+                .flatMap(existingCase -> this.caseRepository.save(newCaseData)
+                        .doOnNext(updatedCase -> this.eventPublisher.publishEvent(CasesChangedEvent.updated(existingCase, updatedCase))))
+                .then();
+    }
+
+    /**
+     * One result per requested id, in request order, telling whether the case was found.
+     */
+    public Flux<CaseLookupResult> findAllById(final List<String> ids) {
+        return this.batchCaseService.findAllById(ids);
+    }
+
+    /**
+     * Always reads storage, for answers that must not come from a cached case written elsewhere since, and refreshes
+     * the entity cache with what was read.
+     */
+    public Mono<Case> findStoredById(final String id) {
+        return this.caseEntityCache.reload(id, this.caseLookupBatcher::load);
+    }
 
-        this.caseRepository.save(newCaseData).block();
+    /**
+     * For conditional reads: the cached case while storage confirmed it recently, otherwise {@link #findStoredById}.
+     * A write made by another instance may go unseen for at most {@code entity.cache.revalidate.ttl}.
+     */
+    public Mono<Case> findRevalidatedById(final String id) {
+        final Case confirmedCase = this.caseEntityCache.getIfConfirmed(id);
+        return confirmedCase != null ? Mono.just(confirmedCase) : this.findStoredById(id);
     }
 
+    /**
+     * Read-through the entity cache; ids that were not found are also remembered for a short while. Cache misses
+     * arriving together are read in one batch.
+     */
     public Mono<Case> findById(final String id) {
-        return this.caseRepository.findById(id);
+        return this.caseEntityCache.get(id, this.caseLookupBatcher::load);
     }
 
+    /**
+     * Results are served from the criteria cache; a miss executes the plan chosen for the criteria.
+     */
     public Flux<Case> findByCriteria(final CaseCriteria caseCriteria) {
+        return this.findPageByCriteria(caseCriteria).flatMapIterable(CasePage::getCases);
+    }
+
+    /**
+     * Cases of the criteria as the plan emits them, bypassing the criteria cache so nothing is collected before the
+     * first case goes out.
+     */
+    public Flux<Case> streamByCriteria(final CaseCriteria caseCriteria) {
+        validateParams(caseCriteria);
+
+        final CaseCriteria criteria = CriteriaCacheKey.normalize(caseCriteria);
+        final CriteriaCacheKey key = CriteriaCacheKey.of(criteria, this.dateRangeResolver.resolve(criteria));
+        return this.queryPlanner.plan(criteria, key).execute();
+    }
+
+    /**
+     * Executes the plan chosen for the criteria, bypassing the criteria cache, and reports it with the documents
+     * it actually read.
+     */
+    public Mono<QueryExplanation> explain(final CaseCriteria caseCriteria) {
+        validateParams(caseCriteria);
+
+        final CaseCriteria criteria = CriteriaCacheKey.normalize(caseCriteria);
+        final CriteriaCacheKey key = CriteriaCacheKey.of(criteria, this.dateRangeResolver.resolve(criteria));
+        return this.queryPlanner.planWithEstimates(criteria, key).flatMap(plan -> plan.execute().count().map(plan::explain));
+    }
+
+    /**
+     * A page of {@link #findByCriteria(CaseCriteria)} and the cursor of the next one, given whenever the query stopped
+     * reading before the end of its range, even when text filters left the page short. Served from the criteria cache
+     * like {@link #findByCriteria(CaseCriteria)}.
+     */
+    public Mono<CasePage> findPageByCriteria(final CaseCriteria caseCriteria) {
         validateParams(caseCriteria);
 
-        final FilterCriteriaFactory criteriaFactory = new FilterCriteriaFactory(this.caseRepository);
-        final FilterCriteria criteria = criteriaFactory.getCriteria(caseCriteria);
+        final CaseCriteria criteria = CriteriaCacheKey.normalize(caseCriteria);
+        final CriteriaCacheKey key = CriteriaCacheKey.of(criteria, this.dateRangeResolver.resolve(criteria));
+        return this.criteriaResultCache.get(key, () -> {
+            final QueryPlan plan = this.queryPlanner.plan(criteria, key);
+            return plan.execute().collectList().map(cases -> {
+                final PageCursor nextCursor = plan.nextCursor();
+                return new CasePage(cases, nextCursor == null ? null : nextCursor.encode());
+            });
+        });
+    }
+
+    /**
+     * Counts cases created in the criteria dates from the aggregate counters, without reading any case. Only the
+     * customer, a single label and the access type can be filtered on.
+     */
+    public Mono<CaseStats> countByCriteria(final CaseCriteria caseCriteria, final StatsGranularity granularity) {
+        validateParams(caseCriteria);
+        final List<String> labels = caseCriteria.getLabels() == null ? List.of() : caseCriteria.getLabels();
+        if (labels.size() > 1 || caseCriteria.getLabelExpression() != null || caseCriteria.getTitle() != null
+                || caseCriteria.getDescription() != null || caseCriteria.getFolder() != null) {
+            throw new IllegalArgumentException("Case counts can only be filtered by customer, a single label and access type.");
+        }
 
-        return new Criteria(criteria).filter();
+        return this.caseCounters.count(
+                StringUtils.trimToNull(caseCriteria.getCustomer()),
+                labels.isEmpty() ? null : labels.get(0).trim(),
+                caseCriteria.getAccessType(),
+                caseCriteria.getFrom(),
+                caseCriteria.getTo(),
+                granularity
+        );
     }
 
     private void validateParams(CaseCriteria caseCriteria) {
+        PageCursor.decode(caseCriteria.getCursor());
         try {
             if (caseCriteria.getAccessType() != null) {
                 AccessType.valueOf(caseCriteria.getAccessType());
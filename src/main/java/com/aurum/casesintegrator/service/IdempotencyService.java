@@ -0,0 +1,139 @@
+package com.aurum.casesintegrator.service;
+
+import javax.management.InstanceAlreadyExistsException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import com.aurum.casesintegrator.domain.IdempotentResponse;
+import com.aurum.casesintegrator.exception.IdempotencyKeyReusedException;
+import com.aurum.casesintegrator.repository.IdempotentResponseRepository;
+import com.aurum.casesintegrator.util.ExpiringLruCache;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Keeps the responses produced for each Idempotency-Key in a bounded in memory store, optionally backed by Firestore
+ * so a retry reaching another instance is replayed as well. Keys still being processed are only known to the
+ * instance processing them. Lookups never block, so they run in the create pipeline once the body is parsed.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
+    private static final String IN_PROGRESS = "A request with this Idempotency-Key is still in progress.";
+
+    private final IdempotentResponseRepository idempotentResponseRepository;
+    private final ObjectMapper objectMapper;
+    private final ExpiringLruCache<String, IdempotentResponse> responses;
+    private final long ttlMillis;
+    private final boolean firestoreEnabled;
+
+    @Autowired
+    public IdempotencyService(final IdempotentResponseRepository idempotentResponseRepository,
+                              final ObjectMapper objectMapper,
+                              @Value("${idempotency.cache.size}") final int cacheSize,
+                              @Value("${idempotency.ttl}") final long ttlMillis,
+                              @Value("${idempotency.firestore.enabled}") final boolean firestoreEnabled) {
+        this.idempotentResponseRepository = idempotentResponseRepository;
+        this.objectMapper = objectMapper;
+        this.responses = new ExpiringLruCache<>(cacheSize, ttlMillis);
+        this.ttlMillis = ttlMillis;
+        this.firestoreEnabled = firestoreEnabled;
+    }
+
+    /**
+     * The response stored for the key, ready to be replayed. When the key is unknown nothing is emitted and the key is
+     * reserved for the caller, who must {@link #complete} or {@link #releaseIfPending release} it. Fails when the key
+     * is still being processed or was used with a different request body.
+     */
+    public Mono<ResponseEntity<Object>> replayOrReserve(final String key, final String fingerprint) {
+        return find(key)
+                .flatMap(stored -> {
+                    if (!stored.isCompleted()) {
+                        return Mono.<ResponseEntity<Object>>error(new InstanceAlreadyExistsException(IN_PROGRESS));
+                    }
+                    verifyFingerprint(stored, fingerprint);
+                    return Mono.just(toResponseEntity(stored));
+                })
+                .switchIfEmpty(Mono.defer(() -> reserve(key) ? Mono.empty() : Mono.error(new InstanceAlreadyExistsException(IN_PROGRESS))));
+    }
+
+    /**
+     * Looks the key up in memory first and in Firestore only on a memory miss. Empty when the key is unknown. A key
+     * reserved meanwhile by a request of this instance keeps its reservation.
+     */
+    public Mono<IdempotentResponse> find(final String key) {
+        final IdempotentResponse cached = this.responses.get(key);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        if (!this.firestoreEnabled) {
+            return Mono.empty();
+        }
+
+        return this.idempotentResponseRepository.findById(key)
+                .filter(response -> response.getExpiresAtInstant() > System.currentTimeMillis())
+                .doOnNext(stored -> this.responses.putIfAbsent(key, stored));
+    }
+
+    public void verifyFingerprint(final IdempotentResponse stored, final String fingerprint) {
+        if (!stored.getFingerprint().equals(fingerprint)) {
+            throw new IdempotencyKeyReusedException("Idempotency-Key was already used with a different request body.");
+        }
+    }
+
+    /**
+     * Marks the key as being processed. Returns false when another request holds it already.
+     */
+    public boolean reserve(final String key) {
+        return this.responses.putIfAbsent(key, IdempotentResponse.builder().id(key).build()) == null;
+    }
+
+    public Mono<Void> complete(final String key, final String fingerprint, final ResponseEntity<?> response) {
+        final IdempotentResponse completed = IdempotentResponse.builder()
+                .id(key)
+                .completed(true)
+                .fingerprint(fingerprint)
+                .status(response.getStatusCodeValue())
+                .headers(response.getHeaders().toSingleValueMap())
+                .body(toJson(response.getBody()))
+                .expiresAtInstant(System.currentTimeMillis() + this.ttlMillis)
+                .build();
+        this.responses.put(key, completed);
+        return this.firestoreEnabled ? this.idempotentResponseRepository.save(completed).then() : Mono.empty();
+    }
+
+    /**
+     * Frees a key whose request failed before producing a response, so the client can retry it.
+     */
+    public void releaseIfPending(final String key) {
+        final IdempotentResponse current = this.responses.get(key);
+        if (current != null && !current.isCompleted()) {
+            this.responses.remove(key);
+        }
+    }
+
+    private ResponseEntity<Object> toResponseEntity(final IdempotentResponse stored) {
+        final ResponseEntity.BodyBuilder response = ResponseEntity.status(stored.getStatus()).contentType(MediaType.APPLICATION_JSON);
+        if (stored.getHeaders() != null) {
+            stored.getHeaders().forEach((name, value) -> response.header(name, value));
+        }
+        return response.header(IDEMPOTENT_REPLAYED, Boolean.TRUE.toString()).body(stored.getBody());
+    }
+
+    private String toJson(final Object body) {
+        try {
+            return this.objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not convert response to JSON.", e);
+        }
+    }
+
+}
@@ -0,0 +1,120 @@
+package com.aurum.casesintegrator.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import com.aurum.casesintegrator.domain.CaseImportJob;
+import com.aurum.casesintegrator.domain.ImportQuota;
+import com.aurum.casesintegrator.domain.JobStatus;
+import com.aurum.casesintegrator.repository.ImportJobRepository;
+import com.aurum.casesintegrator.repository.ImportQuotaRepository;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Coordinates import jobs between instances through Firestore transactions. The per customer limit is kept in one
+ * quota document per customer. A job is run by the instance holding its lease, renewed with every progress save; a
+ * lease older than {@code import.jobs.lease} belongs to an instance that went down, so another one may take the job
+ * over. The lease must outlast the time a chunk takes to commit.
+ */
+@Component
+public class ImportJobCoordinator {
+
+    private final ImportQuotaRepository importQuotaRepository;
+    private final ImportJobRepository importJobRepository;
+    private final TransactionalOperator transactionalOperator;
+    private final long leaseMillis;
+    private final String owner = UUID.randomUUID().toString();
+
+    @Autowired
+    public ImportJobCoordinator(final ImportQuotaRepository importQuotaRepository, final ImportJobRepository importJobRepository,
+                                final ReactiveTransactionManager transactionManager, @Value("${import.jobs.lease}") final long leaseMillis) {
+        this.importQuotaRepository = importQuotaRepository;
+        this.importJobRepository = importJobRepository;
+        this.transactionalOperator = TransactionalOperator.create(transactionManager);
+        this.leaseMillis = leaseMillis;
+    }
+
+    /**
+     * Fails with a {@link RejectedExecutionException} when the customer already has the given number of jobs.
+     */
+    public Mono<Void> reserveSlot(final String customer, final int limit) {
+        final String id = quotaIdOf(customer);
+        return this.importQuotaRepository.findById(id)
+                .defaultIfEmpty(new ImportQuota(id, customer, 0))
+                .flatMap(quota -> {
+                    if (quota.getActiveJobs() >= limit) {
+                        return Mono.error(new RejectedExecutionException(String.format("Customer %s already has %d import jobs in progress.", customer, limit)));
+                    }
+                    quota.setActiveJobs(quota.getActiveJobs() + 1);
+                    return this.importQuotaRepository.save(quota);
+                })
+                .as(this.transactionalOperator::transactional)
+                .then();
+    }
+
+    public Mono<Void> releaseSlot(final String customer) {
+        return this.importQuotaRepository.findById(quotaIdOf(customer))
+                .flatMap(quota -> {
+                    quota.setActiveJobs(Math.max(0, quota.getActiveJobs() - 1));
+                    return this.importQuotaRepository.save(quota);
+                })
+                .as(this.transactionalOperator::transactional)
+                .then();
+    }
+
+    /**
+     * Takes the lease of a queued or running job held by this instance or by none alive. Empty when another instance
+     * holds it or the job is over.
+     */
+    public Mono<CaseImportJob> claim(final String jobId) {
+        return this.importJobRepository.findById(jobId)
+                .filter(job -> (job.getStatus() == JobStatus.QUEUED || job.getStatus() == JobStatus.RUNNING)
+                        && (this.owner.equals(job.getOwner()) || isLeaseExpired(job)))
+                .flatMap(job -> this.importJobRepository.save(leased(job)))
+                .as(this.transactionalOperator::transactional);
+    }
+
+    /**
+     * Queues a failed job again under this instance's lease. Empty when the job is no longer failed, so concurrent
+     * resumes of the same job let only one through.
+     */
+    public Mono<CaseImportJob> requeue(final String jobId) {
+        return this.importJobRepository.findById(jobId)
+                .filter(job -> job.getStatus() == JobStatus.FAILED)
+                .flatMap(job -> {
+                    job.setStatus(JobStatus.QUEUED);
+                    job.setError(null);
+                    return this.importJobRepository.save(leased(job));
+                })
+                .as(this.transactionalOperator::transactional);
+    }
+
+    /**
+     * Stamps the job as held by this instance from now on.
+     */
+    public CaseImportJob leased(final CaseImportJob job) {
+        job.setOwner(this.owner);
+        job.setHeartbeatAtInstant(System.currentTimeMillis());
+        return job;
+    }
+
+    public boolean isLeaseExpired(final CaseImportJob job) {
+        return job.getHeartbeatAtInstant() == null || System.currentTimeMillis() - job.getHeartbeatAtInstant() > this.leaseMillis;
+    }
+
+    /**
+     * Customers are free text, so the document id is derived from them rather than made of them.
+     */
+    private String quotaIdOf(final String customer) {
+        return UUID.nameUUIDFromBytes(customer.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+}
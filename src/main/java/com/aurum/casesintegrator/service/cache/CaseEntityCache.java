@@ -0,0 +1,215 @@
+package com.aurum.casesintegrator.service.cache;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.function.Function;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.aurum.casesintegrator.domain.Case;
+import com.aurum.casesintegrator.service.event.CasesChangedEvent;
+import com.aurum.casesintegrator.util.ExpiringLruCache;
+import com.aurum.casesintegrator.util.JsonUtil;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Read-through cache of cases by id: a bounded on-heap hot tier, an optional memory mapped warm tier sized for
+ * millions of cases, and short lived entries for ids that were not found. Written cases are put in both tiers as
+ * soon as they are committed. Writes made by other instances are only seen once the cached entries expire, so
+ * answers that must be current only take cases confirmed by storage or written here in the last
+ * {@code entity.cache.revalidate.ttl} milliseconds.
+ * <p>
+ * Ids are spread over write stripes whose stamp moves with every write. A read-through result is only stored when
+ * the stamp of its stripe did not move during the read, so it never replaces a case written meanwhile.
+ */
+@Slf4j
+@Component
+public class CaseEntityCache {
+
+    private static final int WRITE_STRIPES = 1024;
+
+    private final ExpiringLruCache<String, Case> hot;
+    private final ExpiringLruCache<String, Boolean> missing;
+    private final ExpiringLruCache<String, Case> confirmed;
+    private final MappedEntityStore warm;
+    private final long warmTtlMillis;
+    private final long[] writeStamps = new long[WRITE_STRIPES];
+    private final Object[] writeLocks = new Object[WRITE_STRIPES];
+
+    @Autowired
+    public CaseEntityCache(@Value("${entity.cache.size}") final int size,
+                           @Value("${entity.cache.ttl}") final long ttlMillis,
+                           @Value("${entity.cache.negative.ttl}") final long negativeTtlMillis,
+                           @Value("${entity.cache.warm.enabled}") final boolean warmEnabled,
+                           @Value("${entity.cache.warm.file}") final String warmFile,
+                           @Value("${entity.cache.warm.entries}") final long warmEntries,
+                           @Value("${entity.cache.warm.slot.bytes}") final int warmSlotBytes,
+                           @Value("${entity.cache.warm.ttl}") final long warmTtlMillis,
+                           @Value("${entity.cache.revalidate.ttl}") final long revalidateTtlMillis) throws IOException {
+        this.hot = new ExpiringLruCache<>(size, ttlMillis);
+        this.missing = new ExpiringLruCache<>(size, negativeTtlMillis);
+        this.confirmed = new ExpiringLruCache<>(size, revalidateTtlMillis);
+        if (warmEnabled && StringUtils.isBlank(warmFile)) {
+            throw new IllegalStateException("entity.cache.warm.file must be set when the warm tier is enabled.");
+        }
+        this.warm = warmEnabled ? new MappedEntityStore(Paths.get(warmFile), warmEntries, warmSlotBytes) : null;
+        this.warmTtlMillis = warmTtlMillis;
+        for (int i = 0; i < WRITE_STRIPES; i++) {
+            this.writeLocks[i] = new Object();
+        }
+    }
+
+    public Mono<Case> get(final String id, final Function<String, Mono<Case>> loader) {
+        final Case cachedCase = getIfPresent(id);
+        if (cachedCase != null) {
+            return Mono.just(cachedCase);
+        }
+        if (this.missing.get(id) != null) {
+            return Mono.empty();
+        }
+        return reload(id, loader);
+    }
+
+    /**
+     * Loads the case even when it is cached and replaces the cached entry with what was loaded, unless the case was
+     * written meanwhile.
+     */
+    public Mono<Case> reload(final String id, final Function<String, Mono<Case>> loader) {
+        final int stripe = stripeOf(id);
+        final long stamp = stampOf(stripe);
+        return loader.apply(id)
+                .doOnNext(loaded -> storeIfUnchanged(stripe, stamp, () -> store(loaded)))
+                .switchIfEmpty(Mono.fromRunnable(() -> storeIfUnchanged(stripe, stamp, () -> storeMissing(id))));
+    }
+
+    /**
+     * The cached case when it was loaded from storage or written here within the revalidation time to live; null
+     * otherwise. Never reads storage.
+     */
+    public Case getIfConfirmed(final String id) {
+        return this.confirmed.get(id);
+    }
+
+    /**
+     * Looks in the hot and warm tiers only; null when the case is in neither.
+     */
+    public Case getIfPresent(final String id) {
+        final Case hotCase = this.hot.get(id);
+        if (hotCase != null) {
+            return hotCase;
+        }
+
+        final int stripe = stripeOf(id);
+        final long stamp = stampOf(stripe);
+        final Case warmCase = fromWarmTier(id);
+        if (warmCase != null) {
+            storeIfUnchanged(stripe, stamp, () -> this.hot.put(id, warmCase));
+        }
+        return warmCase;
+    }
+
+    /**
+     * Puts a case just written, replacing whatever is cached for its id.
+     */
+    public void put(final Case singleCase) {
+        final int stripe = stripeOf(singleCase.getId());
+        synchronized (this.writeLocks[stripe]) {
+            this.writeStamps[stripe]++;
+            store(singleCase);
+        }
+    }
+
+    @EventListener
+    public void onCasesChanged(final CasesChangedEvent event) {
+        event.getChanges().forEach(change -> put(change.getCurrent()));
+    }
+
+    public void invalidate(final String id) {
+        final int stripe = stripeOf(id);
+        synchronized (this.writeLocks[stripe]) {
+            this.writeStamps[stripe]++;
+            this.hot.remove(id);
+            this.missing.remove(id);
+            this.confirmed.remove(id);
+            if (this.warm != null) {
+                this.warm.remove(id);
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        for (int stripe = 0; stripe < WRITE_STRIPES; stripe++) {
+            synchronized (this.writeLocks[stripe]) {
+                this.writeStamps[stripe]++;
+            }
+        }
+        this.hot.clear();
+        this.missing.clear();
+        this.confirmed.clear();
+        if (this.warm != null) {
+            this.warm.clear();
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (this.warm != null) {
+            this.warm.close();
+        }
+    }
+
+    private void store(final Case singleCase) {
+        this.hot.put(singleCase.getId(), singleCase);
+        this.confirmed.put(singleCase.getId(), singleCase);
+        this.missing.remove(singleCase.getId());
+        if (this.warm != null) {
+            this.warm.put(singleCase.getId(), JsonUtil.toBytes(singleCase), System.currentTimeMillis() + this.warmTtlMillis);
+        }
+    }
+
+    private void storeMissing(final String id) {
+        this.hot.remove(id);
+        this.confirmed.remove(id);
+        if (this.warm != null) {
+            this.warm.remove(id);
+        }
+        this.missing.put(id, Boolean.TRUE);
+    }
+
+    private void storeIfUnchanged(final int stripe, final long stamp, final Runnable store) {
+        synchronized (this.writeLocks[stripe]) {
+            if (this.writeStamps[stripe] == stamp) {
+                store.run();
+            }
+        }
+    }
+
+    private long stampOf(final int stripe) {
+        synchronized (this.writeLocks[stripe]) {
+            return this.writeStamps[stripe];
+        }
+    }
+
+    private static int stripeOf(final String id) {
+        return Math.floorMod(id.hashCode(), WRITE_STRIPES);
+    }
+
+    private Case fromWarmTier(final String id) {
+        if (this.warm == null) {
+            return null;
+        }
+
+        final byte[] json = this.warm.get(id);
+        final Case warmCase = json == null ? null : JsonUtil.fromBytes(json, Case.class);
+        return warmCase != null && id.equals(warmCase.getId()) ? warmCase : null;
+    }
+
+}
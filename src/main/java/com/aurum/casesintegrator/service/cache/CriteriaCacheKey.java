@@ -0,0 +1,93 @@
+package com.aurum.casesintegrator.service.cache;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.aurum.casesintegrator.domain.Case;
+import com.aurum.casesintegrator.domain.CaseCriteria;
+import com.aurum.casesintegrator.service.index.LabelExpression;
+import com.aurum.casesintegrator.service.range.DateRange;
+import com.aurum.casesintegrator.util.TextUtil;
+
+import lombok.Value;
+
+/**
+ * Canonical form of a criteria query: blank filters are dropped, labels are sorted and deduplicated, full text filters
+ * are normalized and dates are snapped to a whole day range, so equivalent queries share one cache entry. The key must
+ * be built from criteria passed through {@link #normalize(CaseCriteria)}, and the query run with those same criteria,
+ * so that every query sharing an entry would have read the same cases.
+ */
+@Value
+public class CriteriaCacheKey {
+
+    String customer;
+    List<String> labels;
+    LabelExpression labelExpression;
+    String accessType;
+    String folder;
+    String title;
+    String description;
+    DateRange range;
+    int page;
+    Integer limit;
+    String cursor;
+
+    public static CriteriaCacheKey of(final CaseCriteria criteria, final DateRange range) {
+        return new CriteriaCacheKey(
+                criteria.getCustomer(),
+                criteria.getLabels() == null ? List.of() : criteria.getLabels(),
+                LabelExpression.parse(criteria.getLabelExpression()),
+                criteria.getAccessType(),
+                normalizedOrNull(criteria.getFolder()),
+                normalizedOrNull(criteria.getTitle()),
+                normalizedOrNull(criteria.getDescription()),
+                range,
+                criteria.getPage(),
+                criteria.getLimit(),
+                criteria.getCursor()
+        );
+    }
+
+    /**
+     * A copy of the criteria with blank filters dropped, filters trimmed and labels sorted and deduplicated.
+     */
+    public static CaseCriteria normalize(final CaseCriteria criteria) {
+        final List<String> labels = criteria.getLabels() == null ? List.of() : criteria.getLabels().stream()
+                .map(StringUtils::trimToNull)
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted()
+                .collect(Collectors.toList());
+        return criteria.toBuilder()
+                .customer(StringUtils.trimToNull(criteria.getCustomer()))
+                .labels(labels.isEmpty() ? null : labels)
+                .labelExpression(StringUtils.trimToNull(criteria.getLabelExpression()))
+                .accessType(StringUtils.trimToNull(criteria.getAccessType()))
+                .folder(StringUtils.trimToNull(criteria.getFolder()))
+                .title(StringUtils.trimToNull(criteria.getTitle()))
+                .description(StringUtils.trimToNull(criteria.getDescription()))
+                .cursor(StringUtils.trimToNull(criteria.getCursor()))
+                .build();
+    }
+
+    /**
+     * Whether the case matches the indexed filters of this query, so writing it may change the cached result.
+     * Full text filters are left out on purpose, which errs on the side of invalidating.
+     */
+    public boolean mayContain(final Case singleCase) {
+        return (this.customer == null || this.customer.equals(singleCase.getCustomer()))
+                && (this.labels.isEmpty() || singleCase.getLabels() != null && singleCase.getLabels().stream().anyMatch(this.labels::contains))
+                && (this.labelExpression == null || this.labelExpression.matches(singleCase.getLabels()))
+                && (this.accessType == null || singleCase.getAccessType() != null && this.accessType.equals(singleCase.getAccessType().name()))
+                && (singleCase.getCreatedAtInstant() == null
+                        || singleCase.getCreatedAtInstant() >= this.range.getStartsAt() && singleCase.getCreatedAtInstant() <= this.range.getEndsAt());
+    }
+
+    private static String normalizedOrNull(final String value) {
+        return value == null ? null : TextUtil.normalize(value);
+    }
+
+}
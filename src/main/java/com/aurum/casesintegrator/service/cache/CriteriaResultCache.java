@@ -0,0 +1,121 @@
+package com.aurum.casesintegrator.service.cache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.aurum.casesintegrator.domain.CasePage;
+import com.aurum.casesintegrator.service.event.CasesChangedEvent;
+import com.aurum.casesintegrator.util.ExpiringLruCache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Mono;
+
+/**
+ * Caches criteria query pages, with the cursor of the page after them, by canonical key. Concurrent misses on the same key share a single Firestore query,
+ * and written cases drop every entry whose filters they match. A load in flight for a key a write matches is detached:
+ * its result is not stored and later misses start a new load.
+ */
+@Component
+public class CriteriaResultCache {
+
+    private static final String METRIC_PREFIX = "cases.criteria.cache";
+
+    private final MeterRegistry meterRegistry;
+    private final ExpiringLruCache<CriteriaCacheKey, CasePage> results;
+    private final Map<CriteriaCacheKey, Load> loading = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+    private final Timer loadTimer;
+
+    @Autowired
+    public CriteriaResultCache(final MeterRegistry meterRegistry,
+                               @Value("${criteria.cache.size}") final int size,
+                               @Value("${criteria.cache.ttl}") final long ttlMillis) {
+        this.meterRegistry = meterRegistry;
+        this.results = new ExpiringLruCache<>(size, ttlMillis);
+        this.hits = Counter.builder(METRIC_PREFIX + ".gets").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder(METRIC_PREFIX + ".gets").tag("result", "miss").register(meterRegistry);
+        this.loadTimer = Timer.builder(METRIC_PREFIX + ".loads").register(meterRegistry);
+        FunctionCounter.builder(METRIC_PREFIX + ".evictions", this.results, ExpiringLruCache::evictionCount).register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".size", this.results, ExpiringLruCache::size).register(meterRegistry);
+    }
+
+    public Mono<CasePage> get(final CriteriaCacheKey key, final Supplier<Mono<CasePage>> loader) {
+        final CasePage cached = this.results.get(key);
+        if (cached != null) {
+            this.hits.increment();
+            return Mono.just(cached);
+        }
+
+        this.misses.increment();
+        return this.loading.computeIfAbsent(key, k -> load(k, loader)).result;
+    }
+
+    /**
+     * Loads are detached before entries are dropped, so a load either stores its result before the drop or not at all.
+     */
+    @EventListener
+    public void onCasesChanged(final CasesChangedEvent event) {
+        final Predicate<CriteriaCacheKey> affected = key -> event.getChanges().stream().anyMatch(change ->
+                change.getPrevious() != null && key.mayContain(change.getPrevious()) || key.mayContain(change.getCurrent()));
+        this.loading.forEach((key, load) -> {
+            if (affected.test(key)) {
+                load.detach();
+                this.loading.remove(key, load);
+            }
+        });
+        this.results.removeIf(affected);
+    }
+
+    public void invalidateAll() {
+        this.loading.forEach((key, load) -> {
+            load.detach();
+            this.loading.remove(key, load);
+        });
+        this.results.clear();
+    }
+
+    private Load load(final CriteriaCacheKey key, final Supplier<Mono<CasePage>> loader) {
+        final Load load = new Load();
+        final Mono<CasePage> query = loader.get();
+        load.result = Mono.defer(() -> {
+            final Timer.Sample sample = Timer.start(this.meterRegistry);
+            return query.doOnSuccess(page -> {
+                sample.stop(this.loadTimer);
+                load.store(() -> this.results.put(key, page));
+            });
+        })
+                .doFinally(signal -> this.loading.remove(key, load))
+                .cache();
+        return load;
+    }
+
+    private static class Load {
+
+        private Mono<CasePage> result;
+        private boolean detached;
+
+        private synchronized void store(final Runnable put) {
+            if (!this.detached) {
+                put.run();
+            }
+        }
+
+        private synchronized void detach() {
+            this.detached = true;
+        }
+
+    }
+
+}
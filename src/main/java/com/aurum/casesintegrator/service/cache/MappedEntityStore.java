@@ -0,0 +1,142 @@
+package com.aurum.casesintegrator.service.cache;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Direct mapped store of byte values kept in a memory mapped file, outside the heap. Every key maps to a single
+ * fixed size slot, so a colliding key simply replaces the previous entry, and values larger than a slot are not kept:
+ * putting one empties the slot of its key instead. The file is recreated on startup, nothing survives a restart.
+ */
+public class MappedEntityStore implements Closeable {
+
+    private static final int HASH_OFFSET = 0;
+    private static final int EXPIRES_AT_OFFSET = Long.BYTES;
+    private static final int LENGTH_OFFSET = 2 * Long.BYTES;
+    private static final int HEADER_BYTES = 2 * Long.BYTES + Integer.BYTES;
+    private static final int LOCK_STRIPES = 64;
+
+    private final FileChannel channel;
+    private final long slots;
+    private final int slotBytes;
+    private final int slotsPerSegment;
+    private final MappedByteBuffer[] segments;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    public MappedEntityStore(final Path file, final long slots, final int slotBytes) throws IOException {
+        Files.deleteIfExists(file);
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.slots = slots;
+        this.slotBytes = slotBytes;
+        this.slotsPerSegment = Integer.MAX_VALUE / slotBytes;
+        this.segments = new MappedByteBuffer[(int) ((slots + this.slotsPerSegment - 1) / this.slotsPerSegment)];
+        for (int i = 0; i < this.segments.length; i++) {
+            final long firstSlot = (long) i * this.slotsPerSegment;
+            final long segmentSlots = Math.min(this.slotsPerSegment, slots - firstSlot);
+            this.segments[i] = this.channel.map(FileChannel.MapMode.READ_WRITE, firstSlot * slotBytes, segmentSlots * slotBytes);
+        }
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            this.locks[i] = new Object();
+        }
+    }
+
+    public void put(final String key, final byte[] value, final long expiresAt) {
+        if (value.length > this.slotBytes - HEADER_BYTES) {
+            remove(key);
+            return;
+        }
+
+        final long hash = hash(key);
+        final long slot = Math.floorMod(hash, this.slots);
+        final ByteBuffer segment = segmentOf(slot);
+        final int offset = offsetOf(slot);
+        synchronized (lockOf(slot)) {
+            segment.putLong(offset + HASH_OFFSET, hash);
+            segment.putLong(offset + EXPIRES_AT_OFFSET, expiresAt);
+            segment.putInt(offset + LENGTH_OFFSET, value.length);
+            segment.position(offset + HEADER_BYTES);
+            segment.put(value);
+        }
+    }
+
+    /**
+     * Returns null when the slot holds another key or an expired value. Different keys may share a 64 bit hash,
+     * so callers must check the key of the value they get back.
+     */
+    public byte[] get(final String key) {
+        final long hash = hash(key);
+        final long slot = Math.floorMod(hash, this.slots);
+        final ByteBuffer segment = segmentOf(slot);
+        final int offset = offsetOf(slot);
+        synchronized (lockOf(slot)) {
+            if (segment.getLong(offset + HASH_OFFSET) != hash || segment.getLong(offset + EXPIRES_AT_OFFSET) < System.currentTimeMillis()) {
+                return null;
+            }
+            final byte[] value = new byte[segment.getInt(offset + LENGTH_OFFSET)];
+            segment.position(offset + HEADER_BYTES);
+            segment.get(value);
+            return value;
+        }
+    }
+
+    public void remove(final String key) {
+        final long hash = hash(key);
+        final long slot = Math.floorMod(hash, this.slots);
+        final ByteBuffer segment = segmentOf(slot);
+        final int offset = offsetOf(slot);
+        synchronized (lockOf(slot)) {
+            if (segment.getLong(offset + HASH_OFFSET) == hash) {
+                segment.putLong(offset + EXPIRES_AT_OFFSET, 0);
+            }
+        }
+    }
+
+    public void clear() {
+        for (long slot = 0; slot < this.slots; slot++) {
+            final ByteBuffer segment = segmentOf(slot);
+            final int offset = offsetOf(slot);
+            synchronized (lockOf(slot)) {
+                segment.putLong(offset + EXPIRES_AT_OFFSET, 0);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+    /**
+     * Each call gets its own view, so concurrent readers of different stripes do not share a buffer position.
+     */
+    private ByteBuffer segmentOf(final long slot) {
+        return this.segments[(int) (slot / this.slotsPerSegment)].duplicate();
+    }
+
+    private int offsetOf(final long slot) {
+        return (int) (slot % this.slotsPerSegment) * this.slotBytes;
+    }
+
+    private Object lockOf(final long slot) {
+        return this.locks[(int) (slot % LOCK_STRIPES)];
+    }
+
+    /**
+     * 64 bit FNV-1a. Zero marks an empty slot, so it is never returned.
+     */
+    private static long hash(final String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash == 0 ? 1 : hash;
+    }
+
+}
@@ -0,0 +1,35 @@
+package com.aurum.casesintegrator.service.event;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.aurum.casesintegrator.domain.Case;
+
+import lombok.Value;
+
+/**
+ * Published once cases have been written. An update carries the stored version it replaced, a creation has no previous
+ * version.
+ */
+@Value
+public class CasesChangedEvent {
+
+    List<Change> changes;
+
+    public static CasesChangedEvent created(final List<Case> cases) {
+        return new CasesChangedEvent(cases.stream().map(c -> new Change(null, c)).collect(Collectors.toList()));
+    }
+
+    public static CasesChangedEvent updated(final Case previous, final Case current) {
+        return new CasesChangedEvent(List.of(new Change(previous, current)));
+    }
+
+    @Value
+    public static class Change {
+
+        Case previous;
+        Case current;
+
+    }
+
+}
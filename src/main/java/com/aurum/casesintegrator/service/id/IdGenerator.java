@@ -0,0 +1,10 @@
+package com.aurum.casesintegrator.service.id;
+
+/**
+ * Generates the ids of cases created without one. The implementation is selected by the {@code id.generator} property.
+ */
+public interface IdGenerator {
+
+    String generate();
+
+}
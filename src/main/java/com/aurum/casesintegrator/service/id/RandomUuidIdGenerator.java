@@ -0,0 +1,17 @@
+package com.aurum.casesintegrator.service.id;
+
+import java.util.UUID;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(name = "id.generator", havingValue = "uuid", matchIfMissing = true)
+public class RandomUuidIdGenerator implements IdGenerator {
+
+    @Override
+    public String generate() {
+        return UUID.randomUUID().toString();
+    }
+
+}
@@ -0,0 +1,82 @@
+package com.aurum.casesintegrator.service.id;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Generates ULIDs: 48 bits of epoch milliseconds followed by 80 random bits, as 26 Crockford base32 characters, so ids
+ * sort by creation time. Each thread keeps its own state, without any shared lock, and ids generated by the same
+ * thread within the same millisecond increment the random part, so they are strictly increasing per thread.
+ */
+@Component
+@ConditionalOnProperty(name = "id.generator", havingValue = "ulid")
+public class UlidIdGenerator implements IdGenerator {
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int RANDOM_HIGH_MASK = 0xFFFF;
+
+    private final ThreadLocal<State> state = ThreadLocal.withInitial(State::new);
+
+    @Override
+    public String generate() {
+        final State current = this.state.get();
+        current.next(System.currentTimeMillis());
+        return encode(current.timestamp, current.randomHigh, current.randomLow);
+    }
+
+    private static String encode(final long timestamp, final long randomHigh, final long randomLow) {
+        final char[] ulid = new char[26];
+        long time = timestamp;
+        for (int i = 9; i >= 0; i--) {
+            ulid[i] = ALPHABET[(int) (time & 31)];
+            time >>>= 5;
+        }
+
+        long high = randomHigh;
+        long low = randomLow;
+        for (int i = 25; i >= 10; i--) {
+            ulid[i] = ALPHABET[(int) (low & 31)];
+            low = (low >>> 5) | ((high & 31) << 59);
+            high >>>= 5;
+        }
+        return new String(ulid);
+    }
+
+    private static class State {
+
+        private long timestamp = -1;
+        private long randomHigh;
+        private long randomLow;
+
+        /**
+         * A clock going backwards keeps the last timestamp, so the sequence never decreases. When the random part
+         * overflows within a millisecond the timestamp moves one millisecond ahead.
+         */
+        private void next(final long now) {
+            if (now > this.timestamp) {
+                this.timestamp = now;
+                randomize();
+                return;
+            }
+
+            this.randomLow++;
+            if (this.randomLow == 0) {
+                this.randomHigh = (this.randomHigh + 1) & RANDOM_HIGH_MASK;
+                if (this.randomHigh == 0) {
+                    this.timestamp++;
+                    randomize();
+                }
+            }
+        }
+
+        private void randomize() {
+            final ThreadLocalRandom random = ThreadLocalRandom.current();
+            this.randomHigh = random.nextInt() & RANDOM_HIGH_MASK;
+            this.randomLow = random.nextLong();
+        }
+
+    }
+
+}
@@ -0,0 +1,28 @@
+package com.aurum.casesintegrator.service.index;
+
+import com.aurum.casesintegrator.domain.Case;
+
+/**
+ * In memory index fed by {@link CaseIndexFeed}: loaded once from every stored case, then kept up to date with the
+ * cases written since.
+ */
+public interface CaseIndex {
+
+    boolean isEnabled();
+
+    /**
+     * A case read while loading. Cases already indexed by a write are newer and stay as they are.
+     */
+    void load(Case singleCase);
+
+    /**
+     * Every stored case has been loaded, so the index can answer queries.
+     */
+    void loaded();
+
+    /**
+     * A written case, with the stored version it replaced when known.
+     */
+    void apply(Case previous, Case current);
+
+}
@@ -0,0 +1,85 @@
+package com.aurum.casesintegrator.service.index;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.aurum.casesintegrator.repository.CaseRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Feeds the in memory indexes: every stored case is read once at startup, for all indexes together, and from then on
+ * only the cases written since the previous catch up, which brings in the writes of other instances. Writes of this
+ * instance reach the indexes right away through their {@code CasesChangedEvent} listeners. Each catch up reaches one
+ * interval further back than the previous one started, to cover commits in flight and clock drift between instances.
+ */
+@Slf4j
+@Component
+public class CaseIndexFeed {
+
+    private final CaseRepository caseRepository;
+    private final List<CaseIndex> indexes;
+    private final long catchUpIntervalMillis;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile boolean loaded;
+    private volatile long caughtUpTo;
+
+    @Autowired
+    public CaseIndexFeed(final CaseRepository caseRepository, final List<CaseIndex> indexes,
+                         @Value("${index.catch-up.interval}") final long catchUpIntervalMillis) {
+        this.caseRepository = caseRepository;
+        this.indexes = indexes.stream().filter(CaseIndex::isEnabled).collect(Collectors.toList());
+        this.catchUpIntervalMillis = catchUpIntervalMillis;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrap() {
+        if (this.indexes.isEmpty() || !this.running.compareAndSet(false, true)) {
+            return;
+        }
+
+        final long startedAt = System.currentTimeMillis();
+        this.caseRepository.findAll()
+                .doFinally(signal -> this.running.set(false))
+                .subscribe(
+                        singleCase -> this.indexes.forEach(index -> index.load(singleCase)),
+                        error -> log.error("Could not load the case indexes.", error),
+                        () -> {
+                            this.caughtUpTo = startedAt;
+                            this.loaded = true;
+                            this.indexes.forEach(CaseIndex::loaded);
+                            log.info("Case indexes loaded.");
+                        });
+    }
+
+    /**
+     * Loads the indexes again when the startup load failed.
+     */
+    @Scheduled(fixedDelayString = "${index.catch-up.interval}", initialDelayString = "${index.catch-up.interval}")
+    public void catchUp() {
+        if (!this.loaded) {
+            bootstrap();
+            return;
+        }
+        if (!this.running.compareAndSet(false, true)) {
+            return;
+        }
+
+        final long startedAt = System.currentTimeMillis();
+        this.caseRepository.findByUpdatedAtInstantGreaterThanEqual(this.caughtUpTo - this.catchUpIntervalMillis)
+                .doFinally(signal -> this.running.set(false))
+                .subscribe(
+                        singleCase -> this.indexes.forEach(index -> index.apply(null, singleCase)),
+                        error -> log.error("Could not catch up the case indexes.", error),
+                        () -> this.caughtUpTo = startedAt);
+    }
+
+}
@@ -0,0 +1,328 @@
+package com.aurum.casesintegrator.service.index;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.aurum.casesintegrator.domain.Case;
+import com.aurum.casesintegrator.repository.CaseRepository;
+import com.aurum.casesintegrator.service.cache.CriteriaCacheKey;
+import com.aurum.casesintegrator.service.event.CasesChangedEvent;
+import com.aurum.casesintegrator.service.strategy.PageCursor;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+
+/**
+ * Compressed bitmaps of the cases holding each label, customer and access type, over ordinals assigned to case ids.
+ * A label expression is answered with bitmap AND, OR and ANDNOT before anything is read. The cases are also kept
+ * newest first, and that order is walked from the cursor, keeping the ids in the matching bitmap. Ids are read in
+ * batches only as far as the page needs, and the cases read are checked again, so a page is only cut once it holds
+ * cases that still match as stored. Fed like the text index.
+ */
+@Slf4j
+@Component
+public class CaseLabelIndex implements CaseIndex {
+
+    private final CaseRepository caseRepository;
+    private final boolean enabled;
+    private final int fetchBatchSize;
+    private final Bitmaps bitmaps = new Bitmaps();
+    private volatile boolean ready;
+
+    @Autowired
+    public CaseLabelIndex(final CaseRepository caseRepository, @Value("${label.index.enabled}") final boolean enabled,
+                          @Value("${read.batch.size}") final int fetchBatchSize) {
+        this.caseRepository = caseRepository;
+        this.enabled = enabled;
+        this.fetchBatchSize = fetchBatchSize;
+    }
+
+    /**
+     * Whether the query has a label expression and no full text filters, which are left to the text index or a scan.
+     */
+    public boolean canSearch(final CriteriaCacheKey key) {
+        return this.ready && key.getLabelExpression() != null
+                && Stream.of(TextField.values()).allMatch(field -> field.queryOf(key) == null);
+    }
+
+    /**
+     * Cases matching the structured filters, over all dates.
+     */
+    public long count(final CriteriaCacheKey key) {
+        return this.bitmaps.matching(key).getLongCardinality();
+    }
+
+    /**
+     * Cases of the customer, holding any of the labels and of the access type, over all dates. Null or empty filters
+     * match every case. Kept up to date by writes, so the planner weighs finders without reading anything.
+     */
+    public long count(final String customer, final List<String> labels, final String accessType) {
+        return this.bitmaps.matching(null, customer, labels, accessType).getLongCardinality();
+    }
+
+    public boolean isReady() {
+        return this.ready;
+    }
+
+    /**
+     * Drops the ids of cases that do not match the structured filters of the query. Ids the index does not hold are
+     * kept, since the cases read are checked anyway, and nothing is dropped until the index is loaded.
+     */
+    public void retainMatching(final Collection<String> ids, final CriteriaCacheKey key) {
+        if (this.ready && (key.getCustomer() != null || key.getAccessType() != null || key.getLabelExpression() != null
+                || !key.getLabels().isEmpty())) {
+            this.bitmaps.retainMatching(ids, key);
+        }
+    }
+
+    /**
+     * Matching cases, newest first and then by id descending like the text index, paged over the cases that still
+     * match once read. Every case read is reported to {@code documentsRead}.
+     */
+    public Flux<Case> search(final CriteriaCacheKey key, final LongConsumer documentsRead) {
+        final PageCursor cursor = PageCursor.decode(key.getCursor());
+        final Flux<Case> matches = Flux.defer(() -> Flux.fromStream(candidatesOf(key, cursor)))
+                .buffer(this.fetchBatchSize)
+                .concatMap(ids -> fetch(ids).doOnNext(singleCase -> documentsRead.accept(1)), 1)
+                .filter(singleCase -> key.mayContain(singleCase) && (cursor == null || cursor.precedes(singleCase, true)));
+
+        if (key.getLimit() == null) {
+            return matches;
+        }
+        final long skipped = cursor == null ? (long) key.getPage() * key.getLimit() : 0;
+        return matches.skip(skipped).take(key.getLimit());
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    @Override
+    public void load(final Case singleCase) {
+        this.bitmaps.indexIfAbsent(singleCase);
+    }
+
+    @Override
+    public void loaded() {
+        this.ready = true;
+        log.info("Label index loaded with {} cases.", this.bitmaps.entries.size());
+    }
+
+    @Override
+    public void apply(final Case previous, final Case current) {
+        this.bitmaps.index(current);
+    }
+
+    /**
+     * Runs before the criteria cache is invalidated, so a reload never reads the index before the write.
+     */
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onCasesChanged(final CasesChangedEvent event) {
+        if (!this.enabled) {
+            return;
+        }
+        event.getChanges().forEach(change -> apply(change.getPrevious(), change.getCurrent()));
+    }
+
+    /**
+     * Ids of the matches in the query dates and after the cursor, newest first. The stream is lazy, so only the
+     * entries the page pulls are walked.
+     */
+    private Stream<String> candidatesOf(final CriteriaCacheKey key, final PageCursor cursor) {
+        final RoaringBitmap matches = this.bitmaps.matching(key);
+        return this.bitmaps.newestFirst(key.getRange().getStartsAt(), key.getRange().getEndsAt(), cursor)
+                .filter(entry -> matches.contains(entry.ordinal))
+                .map(entry -> entry.id)
+                .distinct();
+    }
+
+    /**
+     * Reads the ids and emits the cases found in the order of the ids.
+     */
+    private Flux<Case> fetch(final List<String> ids) {
+        return this.caseRepository.findAllById(ids)
+                .collectMap(Case::getId)
+                .flatMapIterable(found -> ids.stream().map(found::get).filter(Objects::nonNull).collect(Collectors.toList()));
+    }
+
+    @AllArgsConstructor
+    private static class Entry {
+
+        private final int ordinal;
+        private final String id;
+        private final String customer;
+        private final String accessType;
+        private final List<String> labels;
+        private final Long createdAt;
+
+    }
+
+    private static class Bitmaps {
+
+        private static final RoaringBitmap NONE = new RoaringBitmap();
+        private static final Comparator<Entry> NEWEST_FIRST = Comparator
+                .comparing((Entry entry) -> entry.createdAt, Comparator.nullsLast(Comparator.reverseOrder()))
+                .thenComparing(entry -> entry.id, Comparator.nullsFirst(Comparator.reverseOrder()));
+
+        private final Map<String, Integer> ordinals = new HashMap<>();
+        private final List<Entry> entries = new ArrayList<>();
+        private final NavigableSet<Entry> newestFirst = new ConcurrentSkipListSet<>(NEWEST_FIRST);
+        private final Map<String, RoaringBitmap> byLabel = new HashMap<>();
+        private final Map<String, RoaringBitmap> byCustomer = new HashMap<>();
+        private final Map<String, RoaringBitmap> byAccessType = new HashMap<>();
+        private final RoaringBitmap all = new RoaringBitmap();
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+        private void indexIfAbsent(final Case singleCase) {
+            this.lock.writeLock().lock();
+            try {
+                if (!this.ordinals.containsKey(singleCase.getId())) {
+                    add(singleCase);
+                }
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+        }
+
+        private void index(final Case singleCase) {
+            this.lock.writeLock().lock();
+            try {
+                add(singleCase);
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+        }
+
+        /**
+         * An updated case keeps its ordinal and leaves the bitmaps of the values it no longer has.
+         */
+        private void add(final Case singleCase) {
+            final Integer existing = this.ordinals.get(singleCase.getId());
+            final int ordinal = existing == null ? this.entries.size() : existing;
+            final Entry entry = new Entry(
+                    ordinal,
+                    singleCase.getId(),
+                    singleCase.getCustomer(),
+                    singleCase.getAccessType() == null ? null : singleCase.getAccessType().name(),
+                    singleCase.getLabels() == null ? List.of() : List.copyOf(singleCase.getLabels()),
+                    singleCase.getCreatedAtInstant()
+            );
+
+            if (existing == null) {
+                this.ordinals.put(entry.id, ordinal);
+                this.entries.add(entry);
+                this.all.add(ordinal);
+            } else {
+                final Entry previous = this.entries.set(ordinal, entry);
+                this.newestFirst.remove(previous);
+                remove(this.byCustomer, previous.customer, ordinal);
+                remove(this.byAccessType, previous.accessType, ordinal);
+                previous.labels.forEach(label -> remove(this.byLabel, label, ordinal));
+            }
+            this.newestFirst.add(entry);
+            add(this.byCustomer, entry.customer, ordinal);
+            add(this.byAccessType, entry.accessType, ordinal);
+            entry.labels.forEach(label -> add(this.byLabel, label, ordinal));
+        }
+
+        /**
+         * Every operation returns a new bitmap, so the stored ones are only read and the result can be used after
+         * the lock is released.
+         */
+        private RoaringBitmap matching(final CriteriaCacheKey key) {
+            return matching(key.getLabelExpression(), key.getCustomer(), key.getLabels(), key.getAccessType());
+        }
+
+        private RoaringBitmap matching(final LabelExpression labelExpression, final String customer, final List<String> labels, final String accessType) {
+            this.lock.readLock().lock();
+            try {
+                final Function<String, RoaringBitmap> casesWithLabel = label -> this.byLabel.getOrDefault(label, NONE);
+                RoaringBitmap matches = labelExpression == null ? this.all : labelExpression.evaluate(casesWithLabel, this.all);
+                if (customer != null) {
+                    matches = RoaringBitmap.and(matches, this.byCustomer.getOrDefault(customer, NONE));
+                }
+                if (accessType != null) {
+                    matches = RoaringBitmap.and(matches, this.byAccessType.getOrDefault(accessType, NONE));
+                }
+                if (labels != null && !labels.isEmpty()) {
+                    matches = RoaringBitmap.and(matches, RoaringBitmap.or(labels.stream().map(casesWithLabel).iterator()));
+                }
+                return RoaringBitmap.and(matches, this.all);
+            } finally {
+                this.lock.readLock().unlock();
+            }
+        }
+
+        private void retainMatching(final Collection<String> ids, final CriteriaCacheKey key) {
+            final RoaringBitmap matches = matching(key);
+            this.lock.readLock().lock();
+            try {
+                ids.removeIf(id -> {
+                    final Integer ordinal = this.ordinals.get(id);
+                    return ordinal != null && !matches.contains(ordinal);
+                });
+            } finally {
+                this.lock.readLock().unlock();
+            }
+        }
+
+        /**
+         * Entries created between the dates and after the cursor, newest first, then those without createdAt, which
+         * sort last. The walk takes no lock and is weakly consistent, like any read racing a write.
+         */
+        private Stream<Entry> newestFirst(final long startsAt, final long endsAt, final PageCursor cursor) {
+            final NavigableSet<Entry> after = cursor == null || cursor.getCreatedAt() > endsAt
+                    ? this.newestFirst.tailSet(probe(endsAt, null), true)
+                    : this.newestFirst.tailSet(probe(cursor.getCreatedAt(), cursor.getLastId()), false);
+            return Stream.concat(
+                    after.stream().takeWhile(entry -> entry.createdAt != null && entry.createdAt >= startsAt),
+                    this.newestFirst.tailSet(probe(null, null), true).stream());
+        }
+
+        /**
+         * Position before every entry created at the given time when the id is null, or of the given entry otherwise.
+         */
+        private static Entry probe(final Long createdAt, final String id) {
+            return new Entry(-1, id, null, null, List.of(), createdAt);
+        }
+
+        private static void add(final Map<String, RoaringBitmap> bitmaps, final String value, final int ordinal) {
+            if (value != null) {
+                bitmaps.computeIfAbsent(value, v -> new RoaringBitmap()).add(ordinal);
+            }
+        }
+
+        private static void remove(final Map<String, RoaringBitmap> bitmaps, final String value, final int ordinal) {
+            final RoaringBitmap bitmap = value == null ? null : bitmaps.get(value);
+            if (bitmap != null) {
+                bitmap.remove(ordinal);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,232 @@
+package com.aurum.casesintegrator.service.index;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.aurum.casesintegrator.domain.Case;
+import com.aurum.casesintegrator.repository.CaseRepository;
+import com.aurum.casesintegrator.service.cache.CriteriaCacheKey;
+import com.aurum.casesintegrator.service.event.CasesChangedEvent;
+import com.aurum.casesintegrator.service.strategy.PageCursor;
+import com.aurum.casesintegrator.util.TextPattern;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+
+/**
+ * Inverted trigram index over the title, description and folder of every case. Only ids are kept: the posting lists
+ * and the createdAt of each id, which orders the matches. A substring query is resolved to the ids holding all of its
+ * trigrams, those are read from Firestore in batches, newest first, and the cases read are checked against the text
+ * and the structured filters, so results cover every stored case and are never older than storage. A posting left
+ * behind by a write of another instance only costs a read. Once the label index is loaded, the ids are narrowed by
+ * its customer, access type and label bitmaps before anything is read.
+ */
+@Slf4j
+@Component
+public class CaseTextIndex implements CaseIndex {
+
+    private static final int GRAM_LENGTH = 3;
+    private static final long NO_CREATED_AT = Long.MIN_VALUE;
+
+    private final CaseRepository caseRepository;
+    private final CaseLabelIndex caseLabelIndex;
+    private final boolean enabled;
+    private final int fetchBatchSize;
+    private final Map<String, Long> createdAtById = new ConcurrentHashMap<>();
+    private final Map<TextField, Map<String, Set<String>>> postings = new EnumMap<>(TextField.class);
+    private volatile boolean ready;
+
+    @Autowired
+    public CaseTextIndex(final CaseRepository caseRepository, final CaseLabelIndex caseLabelIndex,
+                         @Value("${text.index.enabled}") final boolean enabled, @Value("${read.batch.size}") final int fetchBatchSize) {
+        this.caseRepository = caseRepository;
+        this.caseLabelIndex = caseLabelIndex;
+        this.enabled = enabled;
+        this.fetchBatchSize = fetchBatchSize;
+        for (final TextField field : TextField.values()) {
+            this.postings.put(field, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * Whether the query has a full text filter of at least a trigram and can be answered from a complete index.
+     * Shorter filters cannot narrow the ids, so they are left to a scan within the read budget.
+     */
+    public boolean canSearch(final CriteriaCacheKey key) {
+        return this.ready && Stream.of(TextField.values()).anyMatch(field -> !gramsOf(field.queryOf(key)).isEmpty());
+    }
+
+    /**
+     * Ids in the query dates that hold every trigram of the query, an upper bound of the matches.
+     */
+    public long count(final CriteriaCacheKey key) {
+        return candidatesOf(key, null).size();
+    }
+
+    /**
+     * Matching cases, newest first and then by id descending like the createdAt finder, paged over the whole match
+     * set or resumed after a page cursor. Every case read is reported to {@code documentsRead}.
+     */
+    public Flux<Case> search(final CriteriaCacheKey key, final LongConsumer documentsRead) {
+        final PageCursor cursor = PageCursor.decode(key.getCursor());
+        final TextPattern[] patterns = Stream.of(TextField.values()).map(field -> TextPattern.compile(field.queryOf(key))).toArray(TextPattern[]::new);
+        final Flux<Case> matches = Flux.defer(() -> Flux.fromIterable(candidatesOf(key, cursor)))
+                .buffer(this.fetchBatchSize)
+                .concatMap(ids -> fetch(ids).doOnNext(singleCase -> documentsRead.accept(1)))
+                .filter(singleCase -> matchesText(singleCase, patterns) && key.mayContain(singleCase)
+                        && (cursor == null || cursor.precedes(singleCase, true)));
+
+        if (key.getLimit() == null) {
+            return matches;
+        }
+        final long skipped = cursor == null ? (long) key.getPage() * key.getLimit() : 0;
+        return matches.skip(skipped).take(key.getLimit());
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    @Override
+    public synchronized void load(final Case singleCase) {
+        if (!this.createdAtById.containsKey(singleCase.getId())) {
+            index(null, singleCase);
+        }
+    }
+
+    @Override
+    public void loaded() {
+        this.ready = true;
+        log.info("Text index loaded with {} cases.", this.createdAtById.size());
+    }
+
+    @Override
+    public synchronized void apply(final Case previous, final Case current) {
+        index(previous, current);
+    }
+
+    /**
+     * Runs before the criteria cache is invalidated, so a reload never reads the index before the write.
+     */
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onCasesChanged(final CasesChangedEvent event) {
+        if (!this.enabled) {
+            return;
+        }
+        event.getChanges().forEach(change -> apply(change.getPrevious(), change.getCurrent()));
+    }
+
+    /**
+     * Reads the ids and emits the cases found in the order of the ids.
+     */
+    private Flux<Case> fetch(final List<String> ids) {
+        return this.caseRepository.findAllById(ids)
+                .collectMap(Case::getId)
+                .flatMapIterable(found -> ids.stream().map(found::get).filter(Objects::nonNull).collect(Collectors.toList()));
+    }
+
+    private void index(final Case previous, final Case current) {
+        final String id = current.getId();
+        this.createdAtById.put(id, current.getCreatedAtInstant() == null ? NO_CREATED_AT : current.getCreatedAtInstant());
+        for (final TextField field : TextField.values()) {
+            final Map<String, Set<String>> fieldPostings = this.postings.get(field);
+            final Set<String> grams = gramsOf(field.valueOf(current));
+            if (previous != null) {
+                for (final String gram : gramsOf(field.valueOf(previous))) {
+                    final Set<String> ids = grams.contains(gram) ? null : fieldPostings.get(gram);
+                    if (ids != null) {
+                        ids.remove(id);
+                    }
+                }
+            }
+            for (final String gram : grams) {
+                fieldPostings.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(id);
+            }
+        }
+    }
+
+    /**
+     * Intersects the posting lists of every query trigram, smallest first, and the structured filter bitmaps of the
+     * label index, then keeps the ids in the query dates and after the cursor, newest first. Queries without a trigram
+     * have no candidates; {@link #canSearch} keeps them away from the index.
+     */
+    private List<String> candidatesOf(final CriteriaCacheKey key, final PageCursor cursor) {
+        final List<Set<String>> lists = new ArrayList<>();
+        for (final TextField field : TextField.values()) {
+            for (final String gram : gramsOf(field.queryOf(key))) {
+                lists.add(this.postings.get(field).getOrDefault(gram, Set.of()));
+            }
+        }
+
+        if (lists.isEmpty()) {
+            return List.of();
+        }
+
+        lists.sort(Comparator.comparingInt(Set::size));
+        final Set<String> candidates = new HashSet<>(lists.get(0));
+        for (int i = 1; i < lists.size() && !candidates.isEmpty(); i++) {
+            candidates.retainAll(lists.get(i));
+        }
+        this.caseLabelIndex.retainMatching(candidates, key);
+
+        final Comparator<String> newestFirst = Comparator.comparing((String id) -> this.createdAtById.getOrDefault(id, NO_CREATED_AT))
+                .thenComparing(Comparator.naturalOrder());
+        return candidates.stream()
+                .filter(id -> {
+                    final Long createdAt = createdAtOf(id);
+                    return (createdAt == null || createdAt >= key.getRange().getStartsAt() && createdAt <= key.getRange().getEndsAt())
+                            && (cursor == null || cursor.precedes(createdAt, id, true));
+                })
+                .sorted(newestFirst.reversed())
+                .collect(Collectors.toList());
+    }
+
+    private Long createdAtOf(final String id) {
+        final long createdAt = this.createdAtById.getOrDefault(id, NO_CREATED_AT);
+        return createdAt == NO_CREATED_AT ? null : createdAt;
+    }
+
+    private static boolean matchesText(final Case singleCase, final TextPattern[] patterns) {
+        for (final TextField field : TextField.values()) {
+            final TextPattern pattern = patterns[field.ordinal()];
+            if (pattern != null && !pattern.foundIn(field.valueOf(singleCase))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Trigrams of already normalized text.
+     */
+    private static Set<String> gramsOf(final String text) {
+        final Set<String> grams = new HashSet<>();
+        if (text == null) {
+            return grams;
+        }
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+}
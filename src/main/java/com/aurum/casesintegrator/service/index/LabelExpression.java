@@ -0,0 +1,223 @@
+package com.aurum.casesintegrator.service.index;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+import org.apache.commons.lang3.StringUtils;
+import org.roaringbitmap.RoaringBitmap;
+
+import lombok.EqualsAndHashCode;
+
+/**
+ * Boolean expression over labels, such as {@code important AND (red OR "on hold") AND NOT archived}. NOT binds
+ * tighter than AND, which binds tighter than OR. Labels with spaces or parentheses are double quoted.
+ */
+public abstract class LabelExpression {
+
+    /**
+     * Null for a blank expression.
+     */
+    public static LabelExpression parse(final String expression) {
+        if (StringUtils.isBlank(expression)) {
+            return null;
+        }
+
+        final Parser parser = new Parser(tokenize(expression));
+        final LabelExpression parsed = parser.or();
+        if (parser.position != parser.tokens.size()) {
+            throw invalid(expression);
+        }
+        return parsed;
+    }
+
+    public abstract boolean matches(Collection<String> labels);
+
+    /**
+     * Cases matching the expression, given the bitmap of each label and the bitmap of every case.
+     */
+    abstract RoaringBitmap evaluate(Function<String, RoaringBitmap> casesWithLabel, RoaringBitmap allCases);
+
+    private static List<String> tokenize(final String expression) {
+        final List<String> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < expression.length()) {
+            final char c = expression.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '(' || c == ')') {
+                tokens.add(String.valueOf(c));
+                i++;
+            } else if (c == '"') {
+                final int end = expression.indexOf('"', i + 1);
+                if (end < 0) {
+                    throw invalid(expression);
+                }
+                tokens.add(expression.substring(i, end + 1));
+                i = end + 1;
+            } else {
+                int end = i;
+                while (end < expression.length() && !Character.isWhitespace(expression.charAt(end))
+                        && expression.charAt(end) != '(' && expression.charAt(end) != ')') {
+                    end++;
+                }
+                tokens.add(expression.substring(i, end));
+                i = end;
+            }
+        }
+        return tokens;
+    }
+
+    private static IllegalArgumentException invalid(final String expression) {
+        return new IllegalArgumentException(String.format("Invalid label expression: %s", expression));
+    }
+
+    private static class Parser {
+
+        private final List<String> tokens;
+        private int position;
+
+        private Parser(final List<String> tokens) {
+            this.tokens = tokens;
+        }
+
+        private LabelExpression or() {
+            LabelExpression left = and();
+            while (accept("OR")) {
+                left = new Or(left, and());
+            }
+            return left;
+        }
+
+        private LabelExpression and() {
+            LabelExpression left = not();
+            while (accept("AND")) {
+                left = new And(left, not());
+            }
+            return left;
+        }
+
+        private LabelExpression not() {
+            if (accept("NOT")) {
+                return new Not(not());
+            }
+            if (accept("(")) {
+                final LabelExpression inner = or();
+                if (!accept(")")) {
+                    throw invalid(String.join(" ", this.tokens));
+                }
+                return inner;
+            }
+            if (this.position == this.tokens.size() || isKeyword(this.tokens.get(this.position))) {
+                throw invalid(String.join(" ", this.tokens));
+            }
+            final String token = this.tokens.get(this.position++);
+            return new Label(token.startsWith("\"") ? token.substring(1, token.length() - 1) : token);
+        }
+
+        private boolean accept(final String keyword) {
+            if (this.position < this.tokens.size() && this.tokens.get(this.position).toUpperCase(Locale.ROOT).equals(keyword)) {
+                this.position++;
+                return true;
+            }
+            return false;
+        }
+
+        private static boolean isKeyword(final String token) {
+            final String upperCased = token.toUpperCase(Locale.ROOT);
+            return upperCased.equals("AND") || upperCased.equals("OR") || upperCased.equals("NOT") || token.equals(")");
+        }
+
+    }
+
+    @EqualsAndHashCode(callSuper = false)
+    private static class Label extends LabelExpression {
+
+        private final String name;
+
+        private Label(final String name) {
+            this.name = name;
+        }
+
+        @Override
+        public boolean matches(final Collection<String> labels) {
+            return labels != null && labels.contains(this.name);
+        }
+
+        @Override
+        RoaringBitmap evaluate(final Function<String, RoaringBitmap> casesWithLabel, final RoaringBitmap allCases) {
+            return casesWithLabel.apply(this.name);
+        }
+
+    }
+
+    @EqualsAndHashCode(callSuper = false)
+    private static class And extends LabelExpression {
+
+        private final LabelExpression left;
+        private final LabelExpression right;
+
+        private And(final LabelExpression left, final LabelExpression right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public boolean matches(final Collection<String> labels) {
+            return this.left.matches(labels) && this.right.matches(labels);
+        }
+
+        @Override
+        RoaringBitmap evaluate(final Function<String, RoaringBitmap> casesWithLabel, final RoaringBitmap allCases) {
+            return RoaringBitmap.and(this.left.evaluate(casesWithLabel, allCases), this.right.evaluate(casesWithLabel, allCases));
+        }
+
+    }
+
+    @EqualsAndHashCode(callSuper = false)
+    private static class Or extends LabelExpression {
+
+        private final LabelExpression left;
+        private final LabelExpression right;
+
+        private Or(final LabelExpression left, final LabelExpression right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public boolean matches(final Collection<String> labels) {
+            return this.left.matches(labels) || this.right.matches(labels);
+        }
+
+        @Override
+        RoaringBitmap evaluate(final Function<String, RoaringBitmap> casesWithLabel, final RoaringBitmap allCases) {
+            return RoaringBitmap.or(this.left.evaluate(casesWithLabel, allCases), this.right.evaluate(casesWithLabel, allCases));
+        }
+
+    }
+
+    @EqualsAndHashCode(callSuper = false)
+    private static class Not extends LabelExpression {
+
+        private final LabelExpression operand;
+
+        private Not(final LabelExpression operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        public boolean matches(final Collection<String> labels) {
+            return !this.operand.matches(labels);
+        }
+
+        @Override
+        RoaringBitmap evaluate(final Function<String, RoaringBitmap> casesWithLabel, final RoaringBitmap allCases) {
+            return RoaringBitmap.andNot(allCases, this.operand.evaluate(casesWithLabel, allCases));
+        }
+
+    }
+
+}
@@ -0,0 +1,37 @@
+package com.aurum.casesintegrator.service.index;
+
+import java.util.function.Function;
+
+import com.aurum.casesintegrator.domain.Case;
+import com.aurum.casesintegrator.service.cache.CriteriaCacheKey;
+
+import lombok.AllArgsConstructor;
+
+/**
+ * Case fields covered by full text search, with the criteria filter that searches each of them.
+ */
+@AllArgsConstructor
+enum TextField {
+
+    TITLE(Case::normalizedTitle, CriteriaCacheKey::getTitle),
+    DESCRIPTION(Case::normalizedDescription, CriteriaCacheKey::getDescription),
+    FOLDER(Case::normalizedFolder, CriteriaCacheKey::getFolder);
+
+    private final Function<Case, String> caseValue;
+    private final Function<CriteriaCacheKey, String> queryValue;
+
+    /**
+     * Normalized value of the field.
+     */
+    String valueOf(final Case singleCase) {
+        return this.caseValue.apply(singleCase);
+    }
+
+    /**
+     * Normalized by the key, like the indexed values.
+     */
+    String queryOf(final CriteriaCacheKey key) {
+        return this.queryValue.apply(key);
+    }
+
+}
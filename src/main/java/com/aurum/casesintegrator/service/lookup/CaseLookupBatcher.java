@@ -0,0 +1,100 @@
+package com.aurum.casesintegrator.service.lookup;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.aurum.casesintegrator.domain.Case;
+import com.aurum.casesintegrator.repository.CaseRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Collects the ids looked up within a short window, or until a batch is full, and reads them with a single
+ * {@code findAllById}, completing every waiting lookup from the result. A lookup for an id already being read joins
+ * the read in flight instead of issuing another one. A batch of one id is read with {@code findById}.
+ */
+@Component
+public class CaseLookupBatcher {
+
+    private final CaseRepository caseRepository;
+    private final long windowMillis;
+    private final int maxBatchSize;
+    private final Map<String, CompletableFuture<Case>> inFlight = new ConcurrentHashMap<>();
+    private final Object lock = new Object();
+    private Map<String, CompletableFuture<Case>> pending = new LinkedHashMap<>();
+
+    @Autowired
+    public CaseLookupBatcher(final CaseRepository caseRepository,
+                             @Value("${lookup.batch.window}") final long windowMillis,
+                             @Value("${lookup.batch.size}") final int maxBatchSize) {
+        this.caseRepository = caseRepository;
+        this.windowMillis = windowMillis;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Empty when the case does not exist.
+     */
+    public Mono<Case> load(final String id) {
+        return Mono.defer(() -> Mono.fromFuture(enqueue(id)));
+    }
+
+    private CompletableFuture<Case> enqueue(final String id) {
+        final CompletableFuture<Case> lookup = new CompletableFuture<>();
+        final CompletableFuture<Case> joined = this.inFlight.putIfAbsent(id, lookup);
+        if (joined != null) {
+            return joined;
+        }
+        lookup.whenComplete((singleCase, error) -> this.inFlight.remove(id, lookup));
+
+        Map<String, CompletableFuture<Case>> full = null;
+        synchronized (this.lock) {
+            this.pending.put(id, lookup);
+            if (this.pending.size() >= this.maxBatchSize || this.windowMillis <= 0) {
+                full = takePending();
+            } else if (this.pending.size() == 1) {
+                Schedulers.parallel().schedule(this::dispatchPending, this.windowMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (full != null) {
+            dispatch(full);
+        }
+        return lookup;
+    }
+
+    private void dispatchPending() {
+        final Map<String, CompletableFuture<Case>> batch;
+        synchronized (this.lock) {
+            batch = takePending();
+        }
+        if (!batch.isEmpty()) {
+            dispatch(batch);
+        }
+    }
+
+    private Map<String, CompletableFuture<Case>> takePending() {
+        final Map<String, CompletableFuture<Case>> batch = this.pending;
+        this.pending = new LinkedHashMap<>();
+        return batch;
+    }
+
+    private void dispatch(final Map<String, CompletableFuture<Case>> batch) {
+        final List<String> ids = List.copyOf(batch.keySet());
+        Flux.defer(() -> ids.size() == 1 ? this.caseRepository.findById(ids.get(0)).flux() : this.caseRepository.findAllById(ids))
+                .collectMap(Case::getId)
+                .subscribe(
+                        found -> batch.forEach((id, lookup) -> lookup.complete(found.get(id))),
+                        error -> batch.values().forEach(lookup -> lookup.completeExceptionally(error)));
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.aurum.casesintegrator.service.plan;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import com.aurum.casesintegrator.domain.CaseCriteria;
+import com.aurum.casesintegrator.repository.CaseRepository;
+import com.aurum.casesintegrator.service.range.DateRange;
+import com.aurum.casesintegrator.service.strategy.AccessTypeCriteriaStrategy;
+import com.aurum.casesintegrator.service.strategy.CreationDateCriteriaStrategy;
+import com.aurum.casesintegrator.service.strategy.CustomerAndAccessTypeCriteriaStrategy;
+import com.aurum.casesintegrator.service.strategy.CustomerAndLabelsCriteriaStrategy;
+import com.aurum.casesintegrator.service.strategy.CustomerCriteriaStrategy;
+import com.aurum.casesintegrator.service.strategy.FullIndexCriteriaStrategy;
+import com.aurum.casesintegrator.service.strategy.LabelsAndAccessTypeCriteriaStrategy;
+import com.aurum.casesintegrator.service.strategy.LabelsCriteriaStrategy;
+import com.aurum.casesintegrator.service.strategy.factory.FilterCriteria;
+
+/**
+ * Ways to answer a criteria query: the in-memory text or label index, or one of the repository finders and the
+ * structured filters its composite index covers.
+ */
+public enum AccessPath {
+
+    TEXT_INDEX(EnumSet.noneOf(IndexedField.class), null),
+    LABEL_INDEX(EnumSet.allOf(IndexedField.class), null),
+    FULL_INDEX(EnumSet.allOf(IndexedField.class), (c, r, repository, budget, batch) -> new FullIndexCriteriaStrategy(c, r, repository)),
+    CUSTOMER_AND_LABELS(EnumSet.of(IndexedField.CUSTOMER, IndexedField.LABELS), (c, r, repository, budget, batch) -> new CustomerAndLabelsCriteriaStrategy(c, r, repository)),
+    CUSTOMER_AND_ACCESS_TYPE(EnumSet.of(IndexedField.CUSTOMER, IndexedField.ACCESS_TYPE),
+            (c, r, repository, budget, batch) -> new CustomerAndAccessTypeCriteriaStrategy(c, r, repository)),
+    CUSTOMER(EnumSet.of(IndexedField.CUSTOMER), (c, r, repository, budget, batch) -> new CustomerCriteriaStrategy(c, r, repository)),
+    LABELS_AND_ACCESS_TYPE(EnumSet.of(IndexedField.LABELS, IndexedField.ACCESS_TYPE),
+            (c, r, repository, budget, batch) -> new LabelsAndAccessTypeCriteriaStrategy(c, r, repository)),
+    LABELS(EnumSet.of(IndexedField.LABELS), (c, r, repository, budget, batch) -> new LabelsCriteriaStrategy(c, r, repository)),
+    ACCESS_TYPE(EnumSet.of(IndexedField.ACCESS_TYPE), (c, r, repository, budget, batch) -> new AccessTypeCriteriaStrategy(c, r, repository)),
+    CREATION_DATE(EnumSet.noneOf(IndexedField.class), CreationDateCriteriaStrategy::new);
+
+    private final Set<IndexedField> fields;
+    private final StrategyFactory factory;
+
+    AccessPath(final Set<IndexedField> fields, final StrategyFactory factory) {
+        this.fields = fields;
+        this.factory = factory;
+    }
+
+    public Set<IndexedField> getFields() {
+        return this.fields;
+    }
+
+    boolean isFinder() {
+        return this.factory != null;
+    }
+
+    FilterCriteria strategyFor(final CaseCriteria criteria, final DateRange range, final CaseRepository repository, final long scanReadBudget,
+                               final int scanBatchSize) {
+        return this.factory.create(criteria, range, repository, scanReadBudget, scanBatchSize);
+    }
+
+    @FunctionalInterface
+    private interface StrategyFactory {
+
+        FilterCriteria create(CaseCriteria criteria, DateRange range, CaseRepository repository, long scanReadBudget, int scanBatchSize);
+
+    }
+
+}
@@ -0,0 +1,88 @@
+package com.aurum.casesintegrator.service.plan;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.aurum.casesintegrator.domain.CaseCriteria;
+import com.aurum.casesintegrator.domain.CaseStats;
+import com.aurum.casesintegrator.service.stats.CaseCounters;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Case counts for the filters of a criteria query over its dates, read from the aggregate counters when a query is
+ * explained. Nothing is loaded or kept in memory, and plans that are not explained read nothing.
+ */
+@Component
+public class CaseStatistics {
+
+    private final CaseCounters caseCounters;
+    private final boolean enabled;
+
+    @Autowired
+    public CaseStatistics(final CaseCounters caseCounters, @Value("${planner.statistics.enabled}") final boolean enabled) {
+        this.caseCounters = caseCounters;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Empty when statistics are disabled. Labels match when any of them is present.
+     */
+    public Mono<Counts> countsOf(final CaseCriteria criteria) {
+        if (!this.enabled) {
+            return Mono.empty();
+        }
+
+        final List<String> labels = criteria.getLabels() == null ? List.of() : criteria.getLabels();
+        return Mono.zip(
+                total(criteria, null, null, null),
+                criteria.getCustomer() == null ? Mono.just(0L) : total(criteria, criteria.getCustomer(), null, null),
+                Flux.fromIterable(labels).distinct().concatMap(label -> total(criteria, null, label, null)).reduce(0L, Long::sum),
+                criteria.getAccessType() == null ? Mono.just(0L) : total(criteria, null, null, criteria.getAccessType())
+        ).map(totals -> new Counts(totals.getT1(), totals.getT2(), totals.getT3(), totals.getT4()));
+    }
+
+    private Mono<Long> total(final CaseCriteria criteria, final String customer, final String label, final String accessType) {
+        return this.caseCounters.count(customer, label, accessType, criteria.getFrom(), criteria.getTo(), null).map(CaseStats::getTotal);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Counts {
+
+        private final long total;
+        private final long customer;
+        private final long labels;
+        private final long accessType;
+
+        /**
+         * Cases matching the given filters, assuming the filters are independent.
+         */
+        public long estimate(final Iterable<IndexedField> fields) {
+            double rows = this.total;
+            for (final IndexedField field : fields) {
+                rows *= this.total == 0 ? 0 : Math.min(1, (double) countOf(field) / this.total);
+            }
+            return Math.round(rows);
+        }
+
+        private long countOf(final IndexedField field) {
+            switch (field) {
+                case CUSTOMER:
+                    return this.customer;
+                case LABELS:
+                    return this.labels;
+                default:
+                    return this.accessType;
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,27 @@
+package com.aurum.casesintegrator.service.plan;
+
+import org.springframework.util.CollectionUtils;
+
+import com.aurum.casesintegrator.domain.CaseCriteria;
+
+/**
+ * Structured filters that Firestore composite indexes can serve, besides the createdAt range.
+ */
+public enum IndexedField {
+
+    CUSTOMER,
+    LABELS,
+    ACCESS_TYPE;
+
+    boolean isFilteredBy(final CaseCriteria criteria) {
+        switch (this) {
+            case CUSTOMER:
+                return criteria.getCustomer() != null;
+            case LABELS:
+                return !CollectionUtils.isEmpty(criteria.getLabels());
+            default:
+                return criteria.getAccessType() != null;
+        }
+    }
+
+}
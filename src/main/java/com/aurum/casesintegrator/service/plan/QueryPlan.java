@@ -0,0 +1,129 @@
+package com.aurum.casesintegrator.service.plan;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.aurum.casesintegrator.domain.Case;
+import com.aurum.casesintegrator.domain.QueryExplanation;
+import com.aurum.casesintegrator.service.cache.CriteriaCacheKey;
+import com.aurum.casesintegrator.service.strategy.Criteria;
+import com.aurum.casesintegrator.service.strategy.PageCursor;
+import com.aurum.casesintegrator.service.strategy.factory.FilterCriteria;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import reactor.core.publisher.Flux;
+
+/**
+ * Access path picked for a query, its estimates and the costs of the other paths considered.
+ */
+@Getter
+public class QueryPlan {
+
+    private final AccessPath accessPath;
+    private final Long estimatedMatches;
+    private final Long estimatedDocumentsRead;
+    private final Map<AccessPath, Long> consideredPaths;
+    private final CriteriaCacheKey key;
+    @Getter(AccessLevel.NONE)
+    private final Supplier<Flux<Case>> execution;
+    @Getter(AccessLevel.NONE)
+    private final LongSupplier documentsRead;
+    @Getter(AccessLevel.NONE)
+    private final Supplier<PageCursor> nextCursor;
+
+    private QueryPlan(final AccessPath accessPath, final Long estimatedMatches, final Long estimatedDocumentsRead, final Map<AccessPath, Long> consideredPaths,
+                      final CriteriaCacheKey key, final Supplier<Flux<Case>> execution, final LongSupplier documentsRead,
+                      final Supplier<PageCursor> nextCursor) {
+        this.accessPath = accessPath;
+        this.estimatedMatches = estimatedMatches;
+        this.estimatedDocumentsRead = estimatedDocumentsRead;
+        this.consideredPaths = consideredPaths;
+        this.key = key;
+        this.execution = execution;
+        this.documentsRead = documentsRead;
+        this.nextCursor = nextCursor;
+    }
+
+    static QueryPlan ofStrategy(final AccessPath accessPath, final Long estimatedMatches, final Long estimatedDocumentsRead,
+                                final Map<AccessPath, Long> consideredPaths, final CriteriaCacheKey key, final FilterCriteria strategy) {
+        return new QueryPlan(accessPath, estimatedMatches, estimatedDocumentsRead, consideredPaths, key,
+                () -> new Criteria(strategy).filter(), strategy::getDocumentsRead, strategy::nextCursor);
+    }
+
+    /**
+     * The indexes keep reading until the page is full, so only a full page has cases after it.
+     */
+    static QueryPlan ofIndex(final AccessPath accessPath, final Long estimatedMatches, final Long estimatedDocumentsRead,
+                             final Map<AccessPath, Long> consideredPaths, final CriteriaCacheKey key, final Supplier<Flux<Case>> search,
+                             final LongSupplier documentsRead) {
+        final AtomicReference<Case> last = new AtomicReference<>();
+        final AtomicLong returned = new AtomicLong();
+        return new QueryPlan(accessPath, estimatedMatches, estimatedDocumentsRead, consideredPaths, key,
+                () -> search.get().doOnNext(singleCase -> {
+                    last.set(singleCase);
+                    returned.incrementAndGet();
+                }),
+                documentsRead,
+                () -> key.getLimit() != null && returned.get() == key.getLimit() ? PageCursor.after(null, last.get()) : null);
+    }
+
+    public Flux<Case> execute() {
+        return this.execution.get();
+    }
+
+    /**
+     * Cursor of the page after the one returned by the execution, null when there is none.
+     */
+    public PageCursor nextCursor() {
+        return this.nextCursor.get();
+    }
+
+    /**
+     * Reports the plan once it has been executed and returned the given number of cases.
+     */
+    public QueryExplanation explain(final long returned) {
+        return QueryExplanation.builder()
+                .accessPath(this.accessPath.name())
+                .indexedFilters(this.accessPath.getFields().stream().map(Enum::name).collect(Collectors.toList()))
+                .residualFilters(residualFilters())
+                .estimatedMatches(this.estimatedMatches)
+                .estimatedDocumentsRead(this.estimatedDocumentsRead)
+                .documentsRead(getDocumentsRead())
+                .returned((int) returned)
+                .consideredPaths(this.consideredPaths.isEmpty() ? null : this.consideredPaths.entrySet().stream()
+                        .collect(Collectors.toMap(entry -> entry.getKey().name(), Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new)))
+                .build();
+    }
+
+    /**
+     * Documents read from Firestore so far by the execution of this plan.
+     */
+    public long getDocumentsRead() {
+        return this.documentsRead.getAsLong();
+    }
+
+    /**
+     * Text filters and label expressions are applied in memory on finder results; the indexes apply them themselves.
+     */
+    private List<String> residualFilters() {
+        if (!this.accessPath.isFinder()) {
+            return List.of();
+        }
+        return Stream.of(
+                this.key.getTitle() == null ? null : "TITLE",
+                this.key.getDescription() == null ? null : "DESCRIPTION",
+                this.key.getFolder() == null ? null : "FOLDER",
+                this.key.getLabelExpression() == null ? null : "LABEL_EXPRESSION"
+        ).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+}
@@ -0,0 +1,184 @@
+package com.aurum.casesintegrator.service.plan;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.aurum.casesintegrator.domain.CaseCriteria;
+import com.aurum.casesintegrator.repository.CaseRepository;
+import com.aurum.casesintegrator.service.cache.CriteriaCacheKey;
+import com.aurum.casesintegrator.service.index.CaseLabelIndex;
+import com.aurum.casesintegrator.service.index.CaseTextIndex;
+import com.aurum.casesintegrator.service.strategy.factory.FilterCriteria;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Costs the ways to answer a criteria query in documents read from Firestore to fill a page: every finder whose
+ * composite index covers a subset of the structured filters, with the uncovered filters applied in memory, and the
+ * text and label indexes, which read the ids they match until the page is filled. The cheapest of the usable indexes
+ * and the finder covering every structured filter, which never reads more than a wider one, is chosen. Estimates
+ * come from the label index bitmaps, which are kept in memory and follow every write, and from the candidates the text
+ * index holds, so planning reads nothing. Without the label index the indexes go first. Explain also costs the wider
+ * finders, and falls back to the case counters over the query dates when the label index is off.
+ */
+@Component
+public class QueryPlanner {
+
+    private final CaseRepository caseRepository;
+    private final CaseStatistics caseStatistics;
+    private final CaseTextIndex caseTextIndex;
+    private final CaseLabelIndex caseLabelIndex;
+    private final long scanReadBudget;
+    private final int scanBatchSize;
+    private final long rangeSplitDays;
+    private final int rangeSplitParallelism;
+
+    @Autowired
+    public QueryPlanner(final CaseRepository caseRepository, final CaseStatistics caseStatistics, final CaseTextIndex caseTextIndex,
+                        final CaseLabelIndex caseLabelIndex, @Value("${scan.read.budget}") final long scanReadBudget,
+                        @Value("${scan.batch.size}") final int scanBatchSize, @Value("${range.split.days}") final long rangeSplitDays,
+                        @Value("${range.split.parallelism}") final int rangeSplitParallelism) {
+        this.caseRepository = caseRepository;
+        this.caseStatistics = caseStatistics;
+        this.caseTextIndex = caseTextIndex;
+        this.caseLabelIndex = caseLabelIndex;
+        this.scanReadBudget = scanReadBudget;
+        this.scanBatchSize = scanBatchSize;
+        this.rangeSplitDays = rangeSplitDays;
+        this.rangeSplitParallelism = rangeSplitParallelism;
+    }
+
+    /**
+     * Plans from the in memory estimates, reading nothing.
+     */
+    public QueryPlan plan(final CaseCriteria criteria, final CriteriaCacheKey key) {
+        return plan(criteria, key, countsInMemory(key), true);
+    }
+
+    /**
+     * Plans like {@link #plan}, costing every finder for explain. Without the label index, finder estimates come from
+     * the case counters but do not change the plan, so explain shows the plan a query actually runs.
+     */
+    public Mono<QueryPlan> planWithEstimates(final CaseCriteria criteria, final CriteriaCacheKey key) {
+        final CaseStatistics.Counts counts = countsInMemory(key);
+        if (counts != null) {
+            return Mono.just(plan(criteria, key, counts, true));
+        }
+        return this.caseStatistics.countsOf(criteria)
+                .map(stored -> plan(criteria, key, stored, false))
+                .switchIfEmpty(Mono.fromSupplier(() -> plan(criteria, key)));
+    }
+
+    private QueryPlan plan(final CaseCriteria criteria, final CriteriaCacheKey key, final CaseStatistics.Counts counts, final boolean costBased) {
+        final Set<IndexedField> filtered = Stream.of(IndexedField.values()).filter(field -> field.isFilteredBy(criteria))
+                .collect(Collectors.toCollection(() -> EnumSet.noneOf(IndexedField.class)));
+        final AccessPath exactFinder = Stream.of(AccessPath.values())
+                .filter(path -> path.isFinder() && path.getFields().equals(filtered))
+                .findFirst()
+                .orElseThrow();
+        final boolean textIndexUsable = this.caseTextIndex.canSearch(key);
+        final boolean labelIndexUsable = !textIndexUsable && this.caseLabelIndex.canSearch(key);
+        final long textCandidates = textIndexUsable ? this.caseTextIndex.count(key) : 0;
+
+        final Map<AccessPath, Long> considered = new EnumMap<>(AccessPath.class);
+        Long estimatedMatches = null;
+        if (counts != null) {
+            if (textIndexUsable && this.caseLabelIndex.isReady()) {
+                // the text candidates are already narrowed by the structured filters
+                estimatedMatches = textCandidates;
+            } else {
+                final double textSelectivity = textIndexUsable && counts.getTotal() > 0 ? Math.min(1, (double) textCandidates / counts.getTotal()) : 1;
+                estimatedMatches = Math.round(counts.estimate(filtered) * textSelectivity);
+            }
+            for (final AccessPath path : AccessPath.values()) {
+                if (path.isFinder() && filtered.containsAll(path.getFields())) {
+                    considered.put(path, estimateReads(criteria, key, counts, path, estimatedMatches));
+                }
+            }
+        }
+        if (textIndexUsable) {
+            considered.put(AccessPath.TEXT_INDEX, pageReads(criteria, textCandidates, estimatedMatches == null ? textCandidates : estimatedMatches));
+        }
+        if (labelIndexUsable) {
+            final long labelMatches = this.caseLabelIndex.count(key);
+            estimatedMatches = labelMatches;
+            considered.put(AccessPath.LABEL_INDEX, pageReads(criteria, labelMatches, labelMatches));
+        }
+
+        final List<AccessPath> candidates = new ArrayList<>();
+        if (textIndexUsable) {
+            candidates.add(AccessPath.TEXT_INDEX);
+        }
+        if (labelIndexUsable) {
+            candidates.add(AccessPath.LABEL_INDEX);
+        }
+        candidates.add(exactFinder);
+        final AccessPath chosen = costBased && counts != null
+                ? candidates.stream().min(Comparator.comparingLong(considered::get)).orElseThrow()
+                : candidates.get(0);
+
+        if (chosen == AccessPath.TEXT_INDEX) {
+            final AtomicLong documentsRead = new AtomicLong();
+            return QueryPlan.ofIndex(chosen, estimatedMatches, considered.get(chosen), considered, key,
+                    () -> this.caseTextIndex.search(key, documentsRead::addAndGet), documentsRead::get);
+        }
+        if (chosen == AccessPath.LABEL_INDEX) {
+            final AtomicLong documentsRead = new AtomicLong();
+            return QueryPlan.ofIndex(chosen, estimatedMatches, considered.get(chosen), considered, key,
+                    () -> this.caseLabelIndex.search(key, documentsRead::addAndGet), documentsRead::get);
+        }
+        final FilterCriteria strategy = chosen.strategyFor(criteria, key.getRange(), this.caseRepository, this.scanReadBudget, this.scanBatchSize);
+        strategy.splitRanges(this.rangeSplitDays, this.rangeSplitParallelism);
+        return QueryPlan.ofStrategy(chosen, estimatedMatches, considered.get(chosen), considered, key, strategy);
+    }
+
+    /**
+     * Counts of every case and of the cases with each structured filter, over all dates, from the label index. Null
+     * while the label index is off or loading.
+     */
+    private CaseStatistics.Counts countsInMemory(final CriteriaCacheKey key) {
+        if (!this.caseLabelIndex.isReady()) {
+            return null;
+        }
+        return new CaseStatistics.Counts(
+                this.caseLabelIndex.count(null, null, null),
+                key.getCustomer() == null ? 0 : this.caseLabelIndex.count(key.getCustomer(), null, null),
+                key.getLabels().isEmpty() ? 0 : this.caseLabelIndex.count(null, key.getLabels(), null),
+                key.getAccessType() == null ? 0 : this.caseLabelIndex.count(null, null, key.getAccessType()));
+    }
+
+    /**
+     * Reads a finder needs for a page of matches: filters its index does not cover thin out the rows read, so more
+     * rows are read per match, up to everything the index holds for the query. The creation date finder stops at the
+     * read budget when it scans for text matches.
+     */
+    private long estimateReads(final CaseCriteria criteria, final CriteriaCacheKey key, final CaseStatistics.Counts counts, final AccessPath path,
+                               final long estimatedMatches) {
+        final long reads = pageReads(criteria, counts.estimate(path.getFields()), estimatedMatches);
+        final boolean hasTextFilters = key.getTitle() != null || key.getDescription() != null || key.getFolder() != null;
+        return path == AccessPath.CREATION_DATE && hasTextFilters ? Math.min(reads, this.scanReadBudget) : reads;
+    }
+
+    /**
+     * Rows read until a page of matches is found, reading rows in an order unrelated to whether they match.
+     */
+    private static long pageReads(final CaseCriteria criteria, final long rows, final long matches) {
+        if (criteria.getLimit() == null || matches <= 0) {
+            return rows;
+        }
+        return Math.min(rows, (long) Math.ceil((double) criteria.getLimit() * rows / matches));
+    }
+
+}
@@ -0,0 +1,78 @@
+package com.aurum.casesintegrator.service.projection;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.aurum.casesintegrator.domain.Case;
+
+/**
+ * Subset of case properties requested with {@code fields=}. The getters of every property are resolved once, so
+ * projecting a case only calls the requested ones and the serializer never sees the others.
+ */
+public class CaseProjection {
+
+    private static final Map<String, Function<Case, Object>> GETTERS = getters();
+
+    private final Map<String, Function<Case, Object>> selected;
+
+    private CaseProjection(final Map<String, Function<Case, Object>> selected) {
+        this.selected = selected;
+    }
+
+    /**
+     * Null when no fields are given, meaning the whole case. Properties keep the order they were requested in.
+     */
+    public static CaseProjection parse(final String fields) {
+        if (StringUtils.isBlank(fields)) {
+            return null;
+        }
+
+        final Map<String, Function<Case, Object>> selected = new LinkedHashMap<>();
+        for (final String field : fields.split(",")) {
+            final String name = field.trim();
+            final Function<Case, Object> getter = GETTERS.get(name);
+            if (getter == null) {
+                throw new IllegalArgumentException(String.format("Invalid fields param. Available options are [%s]", String.join(", ", GETTERS.keySet())));
+            }
+            selected.put(name, getter);
+        }
+        return new CaseProjection(selected);
+    }
+
+    public List<String> fields() {
+        return List.copyOf(this.selected.keySet());
+    }
+
+    public Map<String, Object> apply(final Case singleCase) {
+        final Map<String, Object> projected = new LinkedHashMap<>(this.selected.size() * 2);
+        this.selected.forEach((name, getter) -> projected.put(name, getter.apply(singleCase)));
+        return projected;
+    }
+
+    public List<Map<String, Object>> apply(final List<Case> cases) {
+        return cases.stream().map(this::apply).collect(Collectors.toList());
+    }
+
+    private static Map<String, Function<Case, Object>> getters() {
+        final Map<String, Function<Case, Object>> getters = new LinkedHashMap<>();
+        getters.put("id", Case::getId);
+        getters.put("folder", Case::getFolder);
+        getters.put("customer", Case::getCustomer);
+        getters.put("title", Case::getTitle);
+        getters.put("labels", Case::getLabels);
+        getters.put("description", Case::getDescription);
+        getters.put("notes", Case::getNotes);
+        getters.put("inChargeOf", Case::getInChargeOf);
+        getters.put("accessType", Case::getAccessType);
+        getters.put("createdAtInstant", Case::getCreatedAtInstant);
+        getters.put("updatedAtInstant", Case::getUpdatedAtInstant);
+        getters.put("version", Case::getVersion);
+        return getters;
+    }
+
+}
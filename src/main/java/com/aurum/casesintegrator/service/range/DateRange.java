@@ -0,0 +1,14 @@
+package com.aurum.casesintegrator.service.range;
+
+import lombok.Value;
+
+/**
+ * Inclusive epoch millisecond range covering whole days, so equal date criteria always resolve to equal ranges.
+ */
+@Value
+public class DateRange {
+
+    long startsAt;
+    long endsAt;
+
+}
@@ -0,0 +1,113 @@
+package com.aurum.casesintegrator.service.range;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.aurum.casesintegrator.domain.CaseCriteria;
+
+/**
+ * Resolves the date criteria of a query into epoch millisecond ranges. Day boundaries around today are precomputed
+ * once per time zone and shifted at midnight, so queries do not go through the zone rules. Customers may have their
+ * own time zone, configured as {@code customer=Zone/Id} pairs separated by semicolons.
+ */
+@Component
+public class DateRangeResolver {
+
+    private final ZoneId defaultZone;
+    private final Map<String, ZoneId> customerZones;
+    private final int windowDays;
+    private final Map<ZoneId, DayBoundaries> boundariesByZone = new ConcurrentHashMap<>();
+
+    @Autowired
+    public DateRangeResolver(@Value("${time.zone.default}") final String defaultZone,
+                             @Value("${time.zone.customers}") final String customerZones,
+                             @Value("${time.boundaries.days}") final int windowDays) {
+        this.defaultZone = StringUtils.isBlank(defaultZone) ? ZoneId.systemDefault() : ZoneId.of(defaultZone);
+        this.customerZones = Arrays.stream(customerZones.split(";"))
+                .filter(StringUtils::isNotBlank)
+                .map(pair -> pair.split("=", 2))
+                .collect(Collectors.toMap(pair -> pair[0].trim(), pair -> ZoneId.of(pair[1].trim())));
+        this.windowDays = windowDays;
+    }
+
+    public DateRange resolve(final CaseCriteria criteria) {
+        final DayBoundaries boundaries = boundariesOf(criteria.getCustomer());
+        return new DateRange(
+                boundaries.startOf(criteria.getFrom().toEpochDay()),
+                boundaries.startOf(criteria.getTo().toEpochDay() + 1) - 1
+        );
+    }
+
+    /**
+     * Start of the current day of the customer, found among the precomputed boundaries.
+     */
+    public long startOfToday(final String customer) {
+        return boundariesOf(customer).startOfDayHolding(System.currentTimeMillis());
+    }
+
+    public ZoneId zoneOf(final String customer) {
+        return customer == null ? this.defaultZone : this.customerZones.getOrDefault(customer, this.defaultZone);
+    }
+
+    @Scheduled(cron = "0 0 0 * * *")
+    public void refresh() {
+        this.boundariesByZone.replaceAll((zone, boundaries) -> newBoundaries(zone));
+    }
+
+    private DayBoundaries boundariesOf(final String customer) {
+        return this.boundariesByZone.computeIfAbsent(zoneOf(customer), this::newBoundaries);
+    }
+
+    private DayBoundaries newBoundaries(final ZoneId zone) {
+        return new DayBoundaries(zone, LocalDate.now(zone).toEpochDay() - this.windowDays, 2 * this.windowDays + 2);
+    }
+
+    /**
+     * Start of day instants of a window of epoch days. Days outside the window are computed on demand.
+     */
+    private static class DayBoundaries {
+
+        private final ZoneId zone;
+        private final long firstEpochDay;
+        private final long[] startsAt;
+
+        private DayBoundaries(final ZoneId zone, final long firstEpochDay, final int days) {
+            this.zone = zone;
+            this.firstEpochDay = firstEpochDay;
+            this.startsAt = new long[days];
+            for (int i = 0; i < days; i++) {
+                this.startsAt[i] = computeStartOf(firstEpochDay + i);
+            }
+        }
+
+        private long startOf(final long epochDay) {
+            final long index = epochDay - this.firstEpochDay;
+            return index >= 0 && index < this.startsAt.length ? this.startsAt[(int) index] : computeStartOf(epochDay);
+        }
+
+        private long startOfDayHolding(final long instant) {
+            final int found = Arrays.binarySearch(this.startsAt, instant);
+            final int index = found >= 0 ? found : -found - 2;
+            return index >= 0 && index < this.startsAt.length - 1
+                    ? this.startsAt[index]
+                    : computeStartOf(Instant.ofEpochMilli(instant).atZone(this.zone).toLocalDate().toEpochDay());
+        }
+
+        private long computeStartOf(final long epochDay) {
+            return LocalDate.ofEpochDay(epochDay).atStartOfDay(this.zone).toInstant().toEpochMilli();
+        }
+
+    }
+
+}
@@ -0,0 +1,52 @@
+package com.aurum.casesintegrator.service.spool;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Payloads are files of a directory. Only as durable and as shared as that directory, so meant for local runs.
+ */
+@Component
+@ConditionalOnProperty(name = "import.jobs.payload.store", havingValue = "file")
+public class FileImportPayloadStore implements ImportPayloadStore {
+
+    private final Path directory;
+
+    public FileImportPayloadStore(@Value("${import.jobs.directory}") final String directory) {
+        this.directory = Paths.get(directory);
+    }
+
+    @Override
+    public void write(final String jobId, final InputStream payload) throws IOException {
+        Files.createDirectories(this.directory);
+        Files.copy(payload, pathOf(jobId), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @Override
+    public InputStream open(final String jobId) throws IOException {
+        return Files.newInputStream(pathOf(jobId));
+    }
+
+    @Override
+    public boolean exists(final String jobId) {
+        return Files.exists(pathOf(jobId));
+    }
+
+    @Override
+    public void delete(final String jobId) throws IOException {
+        Files.deleteIfExists(pathOf(jobId));
+    }
+
+    private Path pathOf(final String jobId) {
+        return this.directory.resolve(jobId + ".ndjson");
+    }
+
+}
@@ -0,0 +1,64 @@
+package com.aurum.casesintegrator.service.spool;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.aurum.casesintegrator.util.Constants;
+import com.google.cloud.WriteChannel;
+import com.google.cloud.storage.BlobId;
+import com.google.cloud.storage.BlobInfo;
+import com.google.cloud.storage.Storage;
+
+/**
+ * Payloads are Cloud Storage objects, streamed in and out without being held in memory.
+ */
+@Component
+@ConditionalOnProperty(name = "import.jobs.payload.store", havingValue = "gcs", matchIfMissing = true)
+public class GcsImportPayloadStore implements ImportPayloadStore {
+
+    private static final String PREFIX = "import-jobs/";
+
+    private final Storage storage;
+    private final String bucket;
+
+    @Autowired
+    public GcsImportPayloadStore(final Storage storage, @Value("${import.jobs.bucket}") final String bucket) {
+        this.storage = storage;
+        this.bucket = bucket;
+    }
+
+    @Override
+    public void write(final String jobId, final InputStream payload) throws IOException {
+        final BlobInfo blob = BlobInfo.newBuilder(blobOf(jobId)).setContentType(Constants.APPLICATION_NDJSON_VALUE).build();
+        try (WriteChannel writer = this.storage.writer(blob); OutputStream out = Channels.newOutputStream(writer)) {
+            payload.transferTo(out);
+        }
+    }
+
+    @Override
+    public InputStream open(final String jobId) {
+        return Channels.newInputStream(this.storage.reader(blobOf(jobId)));
+    }
+
+    @Override
+    public boolean exists(final String jobId) {
+        return this.storage.get(blobOf(jobId)) != null;
+    }
+
+    @Override
+    public void delete(final String jobId) {
+        this.storage.delete(blobOf(jobId));
+    }
+
+    private BlobId blobOf(final String jobId) {
+        return BlobId.of(this.bucket, PREFIX + jobId + ".ndjson");
+    }
+
+}
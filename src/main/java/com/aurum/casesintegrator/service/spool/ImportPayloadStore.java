@@ -0,0 +1,20 @@
+package com.aurum.casesintegrator.service.spool;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Keeps the NDJSON payload of an import job until the job completes, so any instance can run or resume it. Calls
+ * block on I/O. The implementation is selected by the {@code import.jobs.payload.store} property.
+ */
+public interface ImportPayloadStore {
+
+    void write(String jobId, InputStream payload) throws IOException;
+
+    InputStream open(String jobId) throws IOException;
+
+    boolean exists(String jobId);
+
+    void delete(String jobId) throws IOException;
+
+}
@@ -0,0 +1,224 @@
+package com.aurum.casesintegrator.service.stats;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import com.aurum.casesintegrator.domain.Case;
+import com.aurum.casesintegrator.domain.CaseCounter;
+import com.aurum.casesintegrator.domain.CaseStats;
+import com.aurum.casesintegrator.domain.StatsGranularity;
+import com.aurum.casesintegrator.repository.CaseCounterRepository;
+import com.aurum.casesintegrator.service.event.CasesChangedEvent;
+import com.aurum.casesintegrator.service.range.DateRangeResolver;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Case counts per customer, label, access type and creation day. Committed writes are counted in memory and flushed
+ * periodically into one of {@code stats.shards} counter shards, picked at random per flush, so a burst of writes costs
+ * one counter update per bucket and instances rarely contend for the same documents. Counts over a range read one
+ * document per bucket and shard instead of the cases themselves. Days follow the time zone of the customer, like
+ * criteria queries.
+ * <p>
+ * Totals are approximate and never reconciled with the cases: counts not flushed yet are lost when an instance dies
+ * without shutting down, cases stored before the counters existed are not counted, and an update racing a write of
+ * the same case on another instance may take the case out of the buckets of a version it did not replace.
+ */
+@Slf4j
+@Component
+public class CaseCounters {
+
+    private static final int FIRESTORE_MAX_WRITES_PER_TRANSACTION = 500;
+
+    private final CaseCounterRepository caseCounterRepository;
+    private final DateRangeResolver dateRangeResolver;
+    private final TransactionalOperator transactionalOperator;
+    private final int shards;
+    private final Map<Bucket, Long> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushing = new AtomicBoolean();
+
+    @Autowired
+    public CaseCounters(final CaseCounterRepository caseCounterRepository, final DateRangeResolver dateRangeResolver,
+                        final ReactiveTransactionManager transactionManager, @Value("${stats.shards}") final int shards) {
+        this.caseCounterRepository = caseCounterRepository;
+        this.dateRangeResolver = dateRangeResolver;
+        this.transactionalOperator = TransactionalOperator.create(transactionManager);
+        this.shards = shards;
+    }
+
+    /**
+     * An update moves the case out of the buckets of its previous version.
+     */
+    @EventListener
+    public void onCasesChanged(final CasesChangedEvent event) {
+        for (final CasesChangedEvent.Change change : event.getChanges()) {
+            if (change.getPrevious() != null) {
+                count(change.getPrevious(), -1);
+            }
+            count(change.getCurrent(), 1);
+        }
+    }
+
+    /**
+     * Cases created from one day to another, inclusive, with optional customer, label and access type filters.
+     * Counts not flushed yet by this instance are included.
+     */
+    public Mono<CaseStats> count(final String customer, final String label, final String accessType, final LocalDate from, final LocalDate to,
+                                 final StatsGranularity granularity) {
+        final String counterLabel = label == null ? CaseCounter.ALL_LABELS : label;
+        final Flux<CaseCounter> stored = customer == null
+                ? this.caseCounterRepository.findByLabelAndEpochDayGreaterThanEqualAndEpochDayLessThanEqual(counterLabel, from.toEpochDay(), to.toEpochDay())
+                : this.caseCounterRepository.findByCustomerAndLabelAndEpochDayGreaterThanEqualAndEpochDayLessThanEqual(
+                        customer, counterLabel, from.toEpochDay(), to.toEpochDay());
+        final Flux<CaseCounter> unflushed = Flux.fromIterable(this.pending.entrySet())
+                .map(entry -> entry.getKey().toCounter(null, entry.getValue()))
+                .filter(counter -> counterLabel.equals(counter.getLabel())
+                        && (customer == null || customer.equals(counter.getCustomer()))
+                        && counter.getEpochDay() >= from.toEpochDay() && counter.getEpochDay() <= to.toEpochDay());
+
+        return Flux.concat(stored, unflushed)
+                .filter(counter -> accessType == null || accessType.equals(counter.getAccessType()))
+                .collect(() -> new TreeMap<Long, Long>(), (days, counter) -> days.merge(counter.getEpochDay(), counter.getCount(), Long::sum))
+                .map(days -> CaseStats.builder()
+                        .customer(customer)
+                        .label(label)
+                        .accessType(accessType)
+                        .from(from)
+                        .to(to)
+                        .total(days.values().stream().mapToLong(Long::longValue).sum())
+                        .buckets(granularity == null ? null : days.entrySet().stream().collect(Collectors.toMap(
+                                day -> granularity.bucketOf(LocalDate.ofEpochDay(day.getKey())), Map.Entry::getValue, Long::sum, TreeMap::new)))
+                        .build());
+    }
+
+    @Scheduled(fixedDelayString = "${stats.flush.interval}", initialDelayString = "${stats.flush.interval}")
+    public void scheduledFlush() {
+        flush().subscribe(null, error -> log.error("Could not flush case counters.", error));
+    }
+
+    @PreDestroy
+    public void close() {
+        flush().onErrorResume(error -> {
+            log.error("Could not flush case counters on shutdown.", error);
+            return Mono.empty();
+        }).block();
+    }
+
+    /**
+     * Adds the pending counts to the stored counters of a random shard. Each chunk of buckets is read and written back
+     * in one transaction, so an instance flushing into the same shard at the same time makes it retry instead of
+     * losing its update. Only the counts of a chunk that failed are put back for the next flush; the others are
+     * committed.
+     */
+    public Mono<Void> flush() {
+        if (!this.flushing.compareAndSet(false, true)) {
+            return Mono.empty();
+        }
+
+        final Map<Bucket, Long> deltas = new LinkedHashMap<>();
+        for (final Bucket bucket : this.pending.keySet()) {
+            final Long delta = this.pending.remove(bucket);
+            if (delta != null && delta != 0) {
+                deltas.put(bucket, delta);
+            }
+        }
+        if (deltas.isEmpty()) {
+            this.flushing.set(false);
+            return Mono.empty();
+        }
+
+        final String shard = String.valueOf(ThreadLocalRandom.current().nextInt(this.shards));
+        return Flux.fromIterable(deltas.entrySet())
+                .buffer(FIRESTORE_MAX_WRITES_PER_TRANSACTION)
+                .concatMapDelayError(chunk -> Mono.defer(() -> flush(shard, chunk))
+                        .doOnError(error -> chunk.forEach(entry -> this.pending.merge(entry.getKey(), entry.getValue(), Long::sum))))
+                .then()
+                .doFinally(signal -> this.flushing.set(false));
+    }
+
+    private Mono<Void> flush(final String shard, final List<Map.Entry<Bucket, Long>> chunk) {
+        final Map<String, Map.Entry<Bucket, Long>> deltasById = new LinkedHashMap<>();
+        chunk.forEach(entry -> deltasById.put(entry.getKey().idIn(shard), entry));
+        return this.caseCounterRepository.findAllById(deltasById.keySet())
+                .collectMap(CaseCounter::getId, CaseCounter::getCount)
+                .flatMapMany(stored -> {
+                    final List<CaseCounter> counters = new ArrayList<>(deltasById.size());
+                    deltasById.forEach((id, entry) -> counters.add(entry.getKey().toCounter(shard, stored.getOrDefault(id, 0L) + entry.getValue())));
+                    return this.caseCounterRepository.saveAll(counters);
+                })
+                .then()
+                .as(this.transactionalOperator::transactional);
+    }
+
+    private void count(final Case singleCase, final int delta) {
+        if (singleCase.getCreatedAtInstant() == null) {
+            return;
+        }
+
+        final long epochDay = Instant.ofEpochMilli(singleCase.getCreatedAtInstant())
+                .atZone(this.dateRangeResolver.zoneOf(singleCase.getCustomer()))
+                .toLocalDate()
+                .toEpochDay();
+        final String accessType = singleCase.getAccessType() == null ? null : singleCase.getAccessType().name();
+        add(new Bucket(singleCase.getCustomer(), CaseCounter.ALL_LABELS, accessType, epochDay), delta);
+        if (singleCase.getLabels() != null) {
+            singleCase.getLabels().stream().distinct().forEach(label -> add(new Bucket(singleCase.getCustomer(), label, accessType, epochDay), delta));
+        }
+    }
+
+    /**
+     * Merged atomically with the removal of a flush, so a count is either taken by the flush or left for the next one.
+     */
+    private void add(final Bucket bucket, final int delta) {
+        this.pending.merge(bucket, (long) delta, Long::sum);
+    }
+
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static class Bucket {
+
+        private final String customer;
+        private final String label;
+        private final String accessType;
+        private final long epochDay;
+
+        /**
+         * Customers and labels are free text, so the document id is derived from them rather than made of them.
+         */
+        private String idIn(final String shard) {
+            final String key = String.join("\u0000", shard, this.customer, this.label, String.valueOf(this.accessType), String.valueOf(this.epochDay));
+            return UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8)).toString();
+        }
+
+        private CaseCounter toCounter(final String shard, final long count) {
+            return new CaseCounter(idIn(shard), shard, this.customer, this.label, this.accessType, this.epochDay, count);
+        }
+
+    }
+
+}
@@ -1,50 +1,123 @@
 package com.aurum.casesintegrator.service.strategy;
 
-import java.time.LocalTime;
-import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 
 import com.aurum.casesintegrator.domain.Case;
 import com.aurum.casesintegrator.domain.CaseCriteria;
 import com.aurum.casesintegrator.repository.CaseRepository;
+import com.aurum.casesintegrator.service.range.DateRange;
 import com.aurum.casesintegrator.service.strategy.factory.FilterCriteria;
 
+import lombok.AllArgsConstructor;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 public class CreationDateCriteriaStrategy extends FilterCriteria implements CriteriaStrategy {
 
-    public CreationDateCriteriaStrategy(final CaseCriteria criteria, final CaseRepository repository) {
+    private final long readBudget;
+    private final int batchSize;
+
+    public CreationDateCriteriaStrategy(final CaseCriteria criteria, final DateRange range, final CaseRepository repository, final long readBudget,
+                                        final int batchSize) {
         super.criteria = criteria;
+        super.range = range;
         super.repository = repository;
+        this.readBudget = readBudget;
+        this.batchSize = batchSize;
     }
 
     @Override
     public Flux<Case> filter() {
-        final Pageable pageable = PageRequest.of(super.criteria.getPage(), super.criteria.getLimit());
-        final Long startsAt = super.criteria.getFrom().atStartOfDay().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
-        final Long endsAt = super.criteria.getTo().atTime(LocalTime.MAX).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
         return isFullTextSearch()
-                ? filter(Flux.empty(), startsAt, endsAt, pageable)
-                : super.repository.findByCreatedAtInstantGreaterThanEqualAndCreatedAtInstantLessThanEqualOrderByCreatedAtInstantDesc(startsAt, endsAt, pageable);
+                ? scan()
+                : super.afterCursor(super.findInRange((startsAt, endsAt, pageable) ->
+                        super.repository.findByCreatedAtInstantGreaterThanEqualAndCreatedAtInstantLessThanEqualOrderByCreatedAtInstantDesc(startsAt, endsAt, pageable)));
+    }
+
+    @Override
+    protected boolean isNewestFirst() {
+        return true;
     }
 
-    private Flux<Case> filter(final Flux<Case> current, final Long startsAt, final Long endsAt, final Pageable pageable) {
-        if (pageable.getPageNumber() == super.criteria.getLimit()) {
-            return current;
+    /**
+     * Walks the createdAt index newest first, a fixed size batch at a time, until the requested page of matches is
+     * filled, the range is exhausted or the read budget is spent. Each batch resumes right after the last case read,
+     * by createdAt and then id, so no document is read twice however many cases share a createdAt. The next page
+     * resumes after the last case the text filters went through, so cases read past the last match are read again
+     * rather than skipped.
+     */
+    private Flux<Case> scan() {
+        final int pageSize = super.criteria.getLimit();
+        final PageCursor cursor = super.cursor();
+        final ScanBatch start = cursor == null
+                ? new ScanBatch(List.of(), null, null, 0, false)
+                : new ScanBatch(List.of(), cursor.getCreatedAt(), cursor.getLastId(), 0, false);
+        final AtomicReference<ScanBatch> last = new AtomicReference<>(start);
+        return super.filterByFullTextSearching(super.positioned(
+                fetch(start)
+                        .expand(batch -> batch.exhausted || batch.documentsRead >= this.readBudget ? Mono.empty() : Mono.defer(() -> fetch(batch)))
+                        .doOnNext(last::set)
+                        .flatMapIterable(batch -> batch.cases),
+                () -> last.get().exhausted
+        ))
+                .skip(cursor == null ? (long) super.criteria.getPage() * pageSize : 0)
+                .take(pageSize);
+    }
+
+    /**
+     * Reads the batch after the given one, never past the read budget: the cases sharing its last createdAt with a
+     * lower id, then the older ones.
+     */
+    private Mono<ScanBatch> fetch(final ScanBatch previous) {
+        final int size = (int) Math.min(this.batchSize, this.readBudget - previous.documentsRead);
+        if (previous.createdAt == null) {
+            return read(super.repository.findByCreatedAtInstantGreaterThanEqualAndCreatedAtInstantLessThanEqualOrderByCreatedAtInstantDesc(
+                    super.range.getStartsAt(), super.range.getEndsAt(), PageRequest.of(0, size)))
+                    .collectList()
+                    .map(read -> previous.next(read, size));
         }
 
-        final Flux<Case> foundCases = super.filterByFullTextSearching(
-                super.repository.findByCreatedAtInstantGreaterThanEqualAndCreatedAtInstantLessThanEqualOrderByCreatedAtInstantDesc(startsAt, endsAt, pageable)
-        );
+        return read(super.repository.findByCreatedAtInstantAndIdLessThanOrderByIdDesc(previous.createdAt, previous.lastId, PageRequest.of(0, size)))
+                .collectList()
+                .flatMap(ties -> ties.size() == size
+                        ? Mono.just(ties)
+                        : read(super.repository.findByCreatedAtInstantGreaterThanEqualAndCreatedAtInstantLessThanOrderByCreatedAtInstantDesc(
+                                super.range.getStartsAt(), previous.createdAt, PageRequest.of(0, size - ties.size())))
+                                .collectList()
+                                .map(older -> Stream.concat(ties.stream(), older.stream()).collect(Collectors.toList())))
+                .map(read -> previous.next(read, size));
+    }
+
+    private Flux<Case> read(final Flux<Case> cases) {
+        return cases == null ? Flux.empty() : super.counted(cases);
+    }
+
+    @AllArgsConstructor
+    private static class ScanBatch {
+
+        private final List<Case> cases;
+        private final Long createdAt;
+        private final String lastId;
+        private final long documentsRead;
+        private final boolean exhausted;
+
+        /**
+         * Position after the given cases, read from a batch of the given size. A short batch ends the range.
+         */
+        private ScanBatch next(final List<Case> read, final int size) {
+            if (read.isEmpty()) {
+                return new ScanBatch(read, this.createdAt, this.lastId, this.documentsRead, true);
+            }
+
+            final Case last = read.get(read.size() - 1);
+            return new ScanBatch(read, last.getCreatedAtInstant(), last.getId(), this.documentsRead + read.size(), read.size() < size);
+        }
 
-        return filter(
-                current.mergeWith(foundCases).distinct(),
-                startsAt,
-                endsAt,
-                pageable.next()
-        );
     }
 
 }
@@ -1,35 +1,32 @@
 package com.aurum.casesintegrator.service.strategy;
 
-import java.time.LocalTime;
-import java.time.ZoneId;
-
-import org.springframework.data.domain.PageRequest;
-
 import com.aurum.casesintegrator.domain.Case;
 import com.aurum.casesintegrator.domain.CaseCriteria;
 import com.aurum.casesintegrator.repository.CaseRepository;
+import com.aurum.casesintegrator.service.range.DateRange;
 import com.aurum.casesintegrator.service.strategy.factory.FilterCriteria;
 
 import reactor.core.publisher.Flux;
 
 public class FullIndexCriteriaStrategy extends FilterCriteria implements CriteriaStrategy {
 
-    public FullIndexCriteriaStrategy(final CaseCriteria criteria, final CaseRepository repository) {
+    public FullIndexCriteriaStrategy(final CaseCriteria criteria, final DateRange range, final CaseRepository repository) {
         super.criteria = criteria;
+        super.range = range;
         super.repository = repository;
     }
 
     @Override
     public Flux<Case> filter() {
-        return super.filterByFullTextSearching(
+        return super.filterByFullTextSearching(super.findInRange((startsAt, endsAt, pageable) ->
                 super.repository.findByCustomerAndLabelsContainingAndAccessTypeAndCreatedAtInstantGreaterThanEqualAndCreatedAtInstantLessThanEqual(
-                        super.criteria.getCustomer(),
-                        super.criteria.getLabels(),
-                        super.criteria.getAccessType(),
-                        super.criteria.getFrom().atStartOfDay().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(),
-                        super.criteria.getTo().atTime(LocalTime.MAX).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(),
-                        PageRequest.of(super.criteria.getPage(), super.criteria.getLimit())
-                )
-        );
+                                super.criteria.getCustomer(),
+                                super.criteria.getLabels(),
+                                super.criteria.getAccessType(),
+                                startsAt,
+                                endsAt,
+                                pageable
+                        )
+        ));
     }
 }
@@ -0,0 +1,62 @@
+package com.aurum.casesintegrator.service.strategy;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import lombok.EqualsAndHashCode;
+
+/**
+ * Page of a given size starting at any offset, not only at multiples of the page size.
+ */
+@EqualsAndHashCode
+public class OffsetPageRequest implements Pageable {
+
+    private final long offset;
+    private final int size;
+
+    public OffsetPageRequest(final long offset, final int size) {
+        this.offset = offset;
+        this.size = size;
+    }
+
+    @Override
+    public int getPageNumber() {
+        return (int) (this.offset / this.size);
+    }
+
+    @Override
+    public int getPageSize() {
+        return this.size;
+    }
+
+    @Override
+    public long getOffset() {
+        return this.offset;
+    }
+
+    @Override
+    public Sort getSort() {
+        return Sort.unsorted();
+    }
+
+    @Override
+    public Pageable next() {
+        return new OffsetPageRequest(this.offset + this.size, this.size);
+    }
+
+    @Override
+    public Pageable previousOrFirst() {
+        return hasPrevious() ? new OffsetPageRequest(Math.max(0, this.offset - this.size), this.size) : first();
+    }
+
+    @Override
+    public Pageable first() {
+        return new OffsetPageRequest(0, this.size);
+    }
+
+    @Override
+    public boolean hasPrevious() {
+        return this.offset > 0;
+    }
+
+}
@@ -0,0 +1,82 @@
+package com.aurum.casesintegrator.service.strategy;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.aurum.casesintegrator.domain.Case;
+
+import lombok.Value;
+
+/**
+ * Position after the last case a query read from storage: its createdAt and id, plus how many cases with that same
+ * createdAt were read up to it, returned or not. Queries resume at that createdAt, skipping the ties already read, and
+ * drop any tie that does not sort after the last id, which keeps pages exact when the ties count falls short. Clients
+ * get it as an opaque token.
+ */
+@Value
+public class PageCursor {
+
+    private static final String SEPARATOR = ":";
+
+    long createdAt;
+    long ties;
+    String lastId;
+
+    /**
+     * Null for a null token.
+     */
+    public static PageCursor decode(final String token) {
+        if (token == null) {
+            return null;
+        }
+
+        try {
+            final String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(SEPARATOR, 3);
+            return new PageCursor(Long.parseLong(parts[0]), Long.parseLong(parts[1]), parts[2]);
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor.");
+        }
+    }
+
+    /**
+     * Position after one more case read from storage. Ties carry over from the previous position while createdAt
+     * stays the same. Null when the case has no createdAt, as nothing can be read after it.
+     */
+    public static PageCursor after(final PageCursor previous, final Case read) {
+        if (read.getCreatedAtInstant() == null) {
+            return null;
+        }
+
+        final long createdAt = read.getCreatedAtInstant();
+        return new PageCursor(createdAt, (previous != null && previous.createdAt == createdAt ? previous.ties : 0) + 1, read.getId());
+    }
+
+    /**
+     * Position after a case read again that the cursor already passed: the ties grow, the last id stays.
+     */
+    public PageCursor skipping() {
+        return new PageCursor(this.createdAt, this.ties + 1, this.lastId);
+    }
+
+    public String encode() {
+        final String position = this.createdAt + SEPARATOR + this.ties + SEPARATOR + this.lastId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Whether the case comes after this cursor, for results ordered by createdAt and then id, both ascending or both
+     * descending.
+     */
+    public boolean precedes(final Case singleCase, final boolean newestFirst) {
+        return precedes(singleCase.getCreatedAtInstant(), singleCase.getId(), newestFirst);
+    }
+
+    public boolean precedes(final Long createdAt, final String id, final boolean newestFirst) {
+        if (createdAt == null || createdAt != this.createdAt) {
+            return createdAt == null || (newestFirst ? createdAt < this.createdAt : createdAt > this.createdAt);
+        }
+        final int byId = id.compareTo(this.lastId);
+        return newestFirst ? byId < 0 : byId > 0;
+    }
+
+}
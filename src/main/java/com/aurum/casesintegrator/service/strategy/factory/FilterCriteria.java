@@ -1,43 +1,185 @@
 package com.aurum.casesintegrator.service.strategy.factory;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.util.StringUtils;
 
 import com.aurum.casesintegrator.domain.Case;
 import com.aurum.casesintegrator.domain.CaseCriteria;
 import com.aurum.casesintegrator.repository.CaseRepository;
+import com.aurum.casesintegrator.service.index.LabelExpression;
+import com.aurum.casesintegrator.service.range.DateRange;
 import com.aurum.casesintegrator.service.strategy.CriteriaStrategy;
+import com.aurum.casesintegrator.service.strategy.OffsetPageRequest;
+import com.aurum.casesintegrator.service.strategy.PageCursor;
+import com.aurum.casesintegrator.util.TextPattern;
 
 import reactor.core.publisher.Flux;
 
 public abstract class FilterCriteria implements CriteriaStrategy {
 
     protected CaseCriteria criteria;
+    protected DateRange range;
     protected CaseRepository repository;
+    private final AtomicLong documentsRead = new AtomicLong();
+    private final AtomicReference<PageCursor> position = new AtomicReference<>();
+    private volatile boolean exhausted;
+    private long splitSpan;
+    private int splitParallelism;
 
-    private Flux<Case> fullTextFilterByDescription(final Flux<Case> cases) {
-        if (this.criteria.getDescription() == null) {
-            return cases;
-        }
-        return cases.filter(c -> c.getDescription() != null && c.getDescription().toLowerCase().contains(this.criteria.getDescription().toLowerCase()));
-    }
-
+    /**
+     * Patterns are compiled once per query and matched against the normalized fields of each case. A label
+     * expression no finder can express is applied here as well.
+     */
     protected Flux<Case> filterByFullTextSearching(final Flux<Case> cases) {
         if (cases == null) {
             return Flux.empty();
         }
-        return fullTextFilterByDescription(cases)
-                .filter(c -> this.criteria.getTitle() == null || c.getTitle() != null
-                        && c.getTitle().toLowerCase().contains(this.criteria.getTitle().toLowerCase())
-                )
-                .filter(c -> this.criteria.getFolder() == null || c.getFolder() != null
-                        && c.getFolder().toLowerCase().contains(this.criteria.getFolder().toLowerCase()
-                ));
+        final TextPattern title = TextPattern.compile(this.criteria.getTitle());
+        final TextPattern description = TextPattern.compile(this.criteria.getDescription());
+        final TextPattern folder = TextPattern.compile(this.criteria.getFolder());
+        final LabelExpression labelExpression = LabelExpression.parse(this.criteria.getLabelExpression());
+        return afterCursor(cases).filter(c -> (title == null || title.foundIn(c.normalizedTitle()))
+                && (description == null || description.foundIn(c.normalizedDescription()))
+                && (folder == null || folder.foundIn(c.normalizedFolder()))
+                && (labelExpression == null || labelExpression.matches(c.getLabels())));
+    }
+
+    /**
+     * Whether the finder orders by createdAt descending. Finders without explicit order get createdAt ascending from
+     * Firestore, as it is their inequality field, and ties are ordered by document id in the same direction.
+     */
+    protected boolean isNewestFirst() {
+        return false;
+    }
+
+    protected Long startsAt() {
+        final PageCursor cursor = cursor();
+        return cursor == null || isNewestFirst() ? this.range.getStartsAt() : cursor.getCreatedAt();
+    }
+
+    protected Long endsAt() {
+        final PageCursor cursor = cursor();
+        return cursor != null && isNewestFirst() ? cursor.getCreatedAt() : this.range.getEndsAt();
+    }
+
+    /**
+     * With a cursor the page starts right after the ties already read, otherwise at the requested page number.
+     */
+    protected Pageable pageable() {
+        final PageCursor cursor = cursor();
+        return cursor == null
+                ? PageRequest.of(this.criteria.getPage(), this.criteria.getLimit())
+                : new OffsetPageRequest(cursor.getTies(), this.criteria.getLimit());
+    }
+
+    protected Flux<Case> afterCursor(final Flux<Case> cases) {
+        final PageCursor cursor = cursor();
+        return cursor == null ? cases : cases.filter(c -> cursor.precedes(c, isNewestFirst()));
+    }
+
+    /**
+     * Ranges wider than the split span are queried as consecutive sub-ranges, up to the given number at a time.
+     */
+    public void splitRanges(final long spanDays, final int parallelism) {
+        this.splitSpan = TimeUnit.DAYS.toMillis(spanDays);
+        this.splitParallelism = parallelism;
+    }
+
+    /**
+     * Runs the finder over the query range and counts the documents it reads. A wide range is split into sub-ranges
+     * queried concurrently for a page each and concatenated in result order as they complete, so the page is filled
+     * from the earliest sub-ranges and the later ones are cancelled once it is full. Only the first sub-range resumes
+     * after the cursor ties. Offset pages without a cursor are not split, as the offset cannot be spread over sub-ranges.
+     */
+    protected Flux<Case> findInRange(final RangeFinder finder) {
+        final AtomicLong rows = new AtomicLong();
+        final Flux<Case> read = readRange(finder);
+        return read == null ? null : positioned(read.doOnNext(c -> rows.incrementAndGet()), () -> rows.get() < this.criteria.getLimit());
+    }
+
+    private Flux<Case> readRange(final RangeFinder finder) {
+        final long startsAt = startsAt();
+        final long endsAt = endsAt();
+        if (this.splitParallelism < 2 || this.splitSpan <= 0 || endsAt - startsAt < this.splitSpan
+                || cursor() == null && this.criteria.getPage() > 0) {
+            return counted(finder.find(startsAt, endsAt, pageable()));
+        }
+
+        final List<long[]> subRanges = new ArrayList<>();
+        for (long subRangeStart = startsAt; subRangeStart <= endsAt; subRangeStart += this.splitSpan) {
+            subRanges.add(new long[] {subRangeStart, Math.min(endsAt, subRangeStart + this.splitSpan - 1)});
+        }
+        if (isNewestFirst()) {
+            Collections.reverse(subRanges);
+        }
+
+        final List<Flux<Case>> parts = new ArrayList<>(subRanges.size());
+        for (int i = 0; i < subRanges.size(); i++) {
+            final Flux<Case> part = finder.find(subRanges.get(i)[0], subRanges.get(i)[1], i == 0 ? pageable() : PageRequest.of(0, this.criteria.getLimit()));
+            parts.add(part == null ? Flux.empty() : counted(part));
+        }
+        return Flux.mergeSequential(parts, this.splitParallelism, this.criteria.getLimit())
+                .distinct(Case::getId)
+                .take(this.criteria.getLimit());
+    }
+
+    /**
+     * Tracks the position after each case read from storage, in result order and whether it is returned or not, and
+     * whether the reads reached the end of the range once they complete.
+     */
+    protected Flux<Case> positioned(final Flux<Case> read, final BooleanSupplier rangeExhausted) {
+        this.position.set(cursor());
+        return read
+                .doOnNext(c -> this.position.updateAndGet(position -> position == null || position.precedes(c, isNewestFirst())
+                        ? PageCursor.after(position, c)
+                        : position.skipping()))
+                .doOnComplete(() -> this.exhausted = rangeExhausted.getAsBoolean());
+    }
+
+    /**
+     * Where the next page resumes: after the last case read, returned or not. Null once the reads reached the end of
+     * the range.
+     */
+    public PageCursor nextCursor() {
+        return this.exhausted ? null : this.position.get();
+    }
+
+    protected Flux<Case> counted(final Flux<Case> cases) {
+        return cases == null ? null : cases.doOnNext(c -> this.documentsRead.incrementAndGet());
+    }
+
+    public long getDocumentsRead() {
+        return this.documentsRead.get();
+    }
+
+    protected PageCursor cursor() {
+        return PageCursor.decode(this.criteria.getCursor());
+    }
+
+    /**
+     * A finder of the strategy, queried over the given createdAt range.
+     */
+    @FunctionalInterface
+    protected interface RangeFinder {
+
+        Flux<Case> find(Long startsAt, Long endsAt, Pageable pageable);
+
     }
 
     protected boolean isFullTextSearch() {
         return !StringUtils.isEmpty(this.criteria.getFolder())
                 || !StringUtils.isEmpty(this.criteria.getTitle())
-                || !StringUtils.isEmpty(this.criteria.getDescription());
+                || !StringUtils.isEmpty(this.criteria.getDescription())
+                || StringUtils.hasText(this.criteria.getLabelExpression());
     }
 
 }
@@ -3,4 +3,7 @@ package com.aurum.casesintegrator.util;
 public class Constants {
 
     public static int SINGLE_CASE = 1;
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    public static final String IDEMPOTENCY_FINGERPRINT_ATTRIBUTE = "idempotencyFingerprint";
 }
@@ -0,0 +1,95 @@
+package com.aurum.casesintegrator.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Bounded map that evicts the least recently used entry once full and ignores entries older than the time to live.
+ */
+public class ExpiringLruCache<K, V> {
+
+    private final long ttlMillis;
+    private final Map<K, Entry<V>> entries;
+    private long evictionCount;
+
+    public ExpiringLruCache(final int maxEntries, final long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<K, Entry<V>> eldest) {
+                final boolean full = size() > maxEntries;
+                evictionCount += full ? 1 : 0;
+                return full;
+            }
+        };
+    }
+
+    public synchronized V get(final K key) {
+        final Entry<V> entry = this.entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired()) {
+            this.entries.remove(key);
+            this.evictionCount++;
+            return null;
+        }
+        return entry.value;
+    }
+
+    public synchronized void put(final K key, final V value) {
+        this.entries.put(key, new Entry<>(value, System.currentTimeMillis() + this.ttlMillis));
+    }
+
+    /**
+     * Returns the live value already mapped to the key, or stores the given one and returns null.
+     */
+    public synchronized V putIfAbsent(final K key, final V value) {
+        final V current = get(key);
+        if (current == null) {
+            put(key, value);
+        }
+        return current;
+    }
+
+    public synchronized void remove(final K key) {
+        this.entries.remove(key);
+    }
+
+    public synchronized void removeIf(final Predicate<K> keyPredicate) {
+        this.entries.keySet().removeIf(keyPredicate);
+    }
+
+    public synchronized void clear() {
+        this.entries.clear();
+    }
+
+    /**
+     * Entries dropped because the cache was full or because they expired.
+     */
+    public synchronized long evictionCount() {
+        return this.evictionCount;
+    }
+
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    private static class Entry<V> {
+
+        private final V value;
+        private final long expiresAt;
+
+        private Entry(final V value, final long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() > this.expiresAt;
+        }
+
+    }
+
+}
@@ -0,0 +1,47 @@
+package com.aurum.casesintegrator.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Computes the SHA-256 of everything read through it. Closing drains what the reader left unread, so the fingerprint
+ * always covers the whole body.
+ */
+public class FingerprintInputStream extends DigestInputStream {
+
+    private String fingerprint;
+
+    public FingerprintInputStream(final InputStream in) {
+        super(in, newSha256());
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.fingerprint == null) {
+            transferTo(OutputStream.nullOutputStream());
+            this.fingerprint = String.format("%064x", new BigInteger(1, getMessageDigest().digest()));
+        }
+        super.close();
+    }
+
+    /**
+     * Available once the stream is closed.
+     */
+    public String getFingerprint() {
+        return this.fingerprint;
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e);
+        }
+    }
+
+}
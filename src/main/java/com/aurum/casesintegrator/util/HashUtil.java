@@ -0,0 +1,38 @@
+package com.aurum.casesintegrator.util;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+public class HashUtil {
+
+    private static final int CONTENT_HASH_BYTES = 16;
+
+    /**
+     * First 128 bits of the SHA-256 of the given parts, in hex. Each part is prefixed with its length, and nulls with
+     * a length of their own, so different sequences of parts never share the same input.
+     */
+    public static String contentHash(final Iterable<String> parts) {
+        final MessageDigest digest = newSha256();
+        for (final String part : parts) {
+            final byte[] bytes = part == null ? null : part.getBytes(StandardCharsets.UTF_8);
+            digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytes == null ? -1 : bytes.length).array());
+            if (bytes != null) {
+                digest.update(bytes);
+            }
+        }
+        return String.format("%032x", new BigInteger(1, Arrays.copyOf(digest.digest(), CONTENT_HASH_BYTES)));
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e);
+        }
+    }
+
+}
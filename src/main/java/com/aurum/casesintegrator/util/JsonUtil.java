@@ -1,6 +1,12 @@
 package com.aurum.casesintegrator.util;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -20,4 +26,49 @@ public class JsonUtil {
         return null;
     }
 
+    public static <T> T fromBytes(final byte[] json, final Class<T> type) {
+        try {
+            return MAPPER.readValue(json, type);
+        } catch (IOException e) {
+            log.error("Could not convert bytes to JSON.");
+        }
+        return null;
+    }
+
+    public static byte[] toBytes(final Object value) {
+        try {
+            return MAPPER.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            log.error("Could not convert object to JSON.");
+            throw new IllegalStateException("Could not convert object to JSON.", e);
+        }
+    }
+
+    /**
+     * Reads either a single JSON object or an array of objects from the given stream in a single pass,
+     * handing each element to the consumer as soon as it is materialized. Returns whether the root was an array.
+     */
+    public static <T> boolean fromStream(final InputStream json, final Class<T> type, final Consumer<T> consumer) {
+        try (JsonParser parser = MAPPER.getFactory().createParser(json)) {
+            final JsonToken firstToken = parser.nextToken();
+            if (firstToken == JsonToken.START_OBJECT) {
+                consumer.accept(parser.readValueAs(type));
+                return false;
+            }
+            if (firstToken != JsonToken.START_ARRAY) {
+                return false;
+            }
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (parser.currentToken() != JsonToken.START_OBJECT) {
+                    throw new IllegalArgumentException("Array elements must be JSON objects.");
+                }
+                consumer.accept(parser.readValueAs(type));
+            }
+            return true;
+        } catch (IOException e) {
+            log.error("Could not read JSON from stream.");
+            throw new IllegalArgumentException("Request body is not a valid JSON.");
+        }
+    }
+
 }
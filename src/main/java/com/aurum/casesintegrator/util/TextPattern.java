@@ -0,0 +1,56 @@
+package com.aurum.casesintegrator.util;
+
+/**
+ * Substring pattern compiled once and matched with Boyer-Moore-Horspool against normalized text, without allocating.
+ * The bad character table is indexed by the low byte of each char; chars sharing a slot keep the smallest shift,
+ * which is always safe.
+ */
+public class TextPattern {
+
+    private static final int TABLE_SIZE = 256;
+
+    private final char[] pattern;
+    private final int[] shifts = new int[TABLE_SIZE];
+
+    private TextPattern(final String normalizedPattern) {
+        this.pattern = normalizedPattern.toCharArray();
+        final int length = this.pattern.length;
+        for (int i = 0; i < TABLE_SIZE; i++) {
+            this.shifts[i] = Math.max(length, 1);
+        }
+        for (int i = 0; i < length - 1; i++) {
+            this.shifts[this.pattern[i] & 0xFF] = length - 1 - i;
+        }
+    }
+
+    /**
+     * Null for a null pattern, which every text matches.
+     */
+    public static TextPattern compile(final String pattern) {
+        return pattern == null ? null : new TextPattern(TextUtil.normalize(pattern));
+    }
+
+    /**
+     * Whether the pattern occurs in already normalized text. Null text never matches.
+     */
+    public boolean foundIn(final String normalizedText) {
+        if (normalizedText == null) {
+            return false;
+        }
+
+        final int length = this.pattern.length;
+        final int last = length - 1;
+        for (int end = last; end < normalizedText.length(); ) {
+            int i = last;
+            while (i >= 0 && normalizedText.charAt(end - last + i) == this.pattern[i]) {
+                i--;
+            }
+            if (i < 0) {
+                return true;
+            }
+            end += this.shifts[normalizedText.charAt(end) & 0xFF];
+        }
+        return length == 0;
+    }
+
+}
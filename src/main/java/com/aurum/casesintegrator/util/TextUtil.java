@@ -0,0 +1,32 @@
+package com.aurum.casesintegrator.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+public class TextUtil {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    /**
+     * Lower cased and accent folded form used by text search. Text that is already plain lower case ASCII is
+     * returned as is, without allocating.
+     */
+    public static String normalize(final String text) {
+        if (text == null || isNormalizedAscii(text)) {
+            return text;
+        }
+        final String folded = COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return folded.toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isNormalizedAscii(final String text) {
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            if (c >= 0x80 || c >= 'A' && c <= 'Z') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
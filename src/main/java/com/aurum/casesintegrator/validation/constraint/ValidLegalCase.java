@@ -6,21 +6,15 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
-import javax.validation.Constraint;
-import javax.validation.Payload;
-
-import com.aurum.casesintegrator.validation.validator.CaseValidator;
-
-@Target({ElementType.FIELD, ElementType.PARAMETER})
+/**
+ * Marks a {@code List<Case>} handler parameter to be read from the request body (single case or array)
+ * and validated case by case while it is being parsed.
+ *
+ * @see com.aurum.casesintegrator.validation.resolver.LegalCaseArgumentResolver
+ */
+@Target(ElementType.PARAMETER)
 @Retention(RetentionPolicy.RUNTIME)
-@Constraint(validatedBy = {CaseValidator.class})
 @Documented
 public @interface ValidLegalCase {
 
-    String message() default "String does not match a valid legal case";
-
-    Class<?>[] groups() default {};
-
-    Class<? extends Payload>[] payload() default {};
-
 }
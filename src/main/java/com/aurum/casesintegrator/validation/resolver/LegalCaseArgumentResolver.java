@@ -0,0 +1,62 @@
+package com.aurum.casesintegrator.validation.resolver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import com.aurum.casesintegrator.domain.Case;
+import com.aurum.casesintegrator.util.Constants;
+import com.aurum.casesintegrator.util.FingerprintInputStream;
+import com.aurum.casesintegrator.util.JsonUtil;
+import com.aurum.casesintegrator.validation.constraint.ValidLegalCase;
+import com.aurum.casesintegrator.validation.validator.CaseValidator;
+
+/**
+ * Streams the request body straight from the servlet input stream, so a create request is parsed exactly once,
+ * then validates the parsed cases in parallel chunks. Requests carrying an Idempotency-Key are fingerprinted in the
+ * same pass.
+ */
+public class LegalCaseArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private final CaseValidator caseValidator;
+
+    public LegalCaseArgumentResolver(final CaseValidator caseValidator) {
+        this.caseValidator = caseValidator;
+    }
+
+    @Override
+    public boolean supportsParameter(final MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(ValidLegalCase.class) && List.class.isAssignableFrom(parameter.getParameterType());
+    }
+
+    @Override
+    public List<Case> resolveArgument(final MethodParameter parameter, final ModelAndViewContainer mavContainer,
+                                      final NativeWebRequest webRequest, final WebDataBinderFactory binderFactory) throws IOException {
+        final HttpServletRequest request = webRequest.getNativeRequest(HttpServletRequest.class);
+        final boolean idempotent = request.getHeader(Constants.IDEMPOTENCY_KEY) != null;
+        final InputStream body = idempotent ? new FingerprintInputStream(request.getInputStream()) : request.getInputStream();
+        final List<Case> cases = new ArrayList<>();
+        final boolean array = JsonUtil.fromStream(body, Case.class, cases::add);
+
+        if (idempotent) {
+            request.setAttribute(Constants.IDEMPOTENCY_FINGERPRINT_ATTRIBUTE, ((FingerprintInputStream) body).getFingerprint());
+        }
+
+        if (cases.isEmpty()) {
+            throw new IllegalArgumentException("Request body must contain a single case or an array of cases.");
+        }
+
+        this.caseValidator.validate(cases, array);
+        return cases;
+    }
+
+}
@@ -1,47 +1,175 @@
 package com.aurum.casesintegrator.validation.validator;
 
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
-import javax.validation.ConstraintValidator;
-import javax.validation.ConstraintValidatorContext;
+import javax.validation.Constraint;
 import javax.validation.ConstraintViolation;
 import javax.validation.Validator;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Size;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.util.CollectionUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
 
 import com.aurum.casesintegrator.domain.Case;
-import com.aurum.casesintegrator.service.CaseService;
-import com.aurum.casesintegrator.validation.constraint.ValidLegalCase;
+import com.aurum.casesintegrator.exception.CaseValidationException;
 
-public class CaseValidator implements ConstraintValidator<ValidLegalCase, String> {
+/**
+ * Validates cases with field checks compiled once from the {@code @NotBlank} and {@code @Size} constraints declared on
+ * {@link Case}, reading the values through the getters below. Bean Validation is only called when {@link Case} declares
+ * a constraint the compiled checks do not cover.
+ */
+@Component
+public class CaseValidator {
 
-    @Autowired
-    private Validator validator;
+    private static final Map<String, Function<Case, Object>> GETTERS = Map.of(
+            "folder", Case::getFolder,
+            "customer", Case::getCustomer,
+            "title", Case::getTitle,
+            "labels", Case::getLabels,
+            "description", Case::getDescription,
+            "notes", Case::getNotes,
+            "inChargeOf", Case::getInChargeOf);
+
+    private final Validator validator;
+    private final ValidationMode mode;
+    private final int chunkSize;
+    private final List<FieldCheck> fieldChecks = new ArrayList<>();
+    private boolean beanValidationRequired;
 
     @Autowired
-    private CaseService caseService;
+    public CaseValidator(final Validator validator,
+                         @Value("${validation.mode}") final ValidationMode mode,
+                         @Value("${validation.chunk.size}") final int chunkSize) {
+        this.validator = validator;
+        this.mode = mode;
+        this.chunkSize = chunkSize;
+        compileFieldChecks();
+    }
 
-    @Override
-    public boolean isValid(String s, ConstraintValidatorContext constraintValidatorContext) {
-        final List<Case> cases = this.caseService.getExtractedCasesFrom(s);
-        if (CollectionUtils.isEmpty(cases)) {
-            return false;
+    /**
+     * Violation messages of a single case, empty when the case is valid.
+     */
+    public Set<String> violationsOf(final Case singleCase) {
+        Set<String> violations = null;
+        for (final FieldCheck fieldCheck : this.fieldChecks) {
+            if (fieldCheck.isViolatedBy(singleCase)) {
+                violations = violations == null ? new LinkedHashSet<>() : violations;
+                violations.add(fieldCheck.message);
+            }
         }
 
-        return cases.stream().noneMatch(singleCase -> {
-            final Set<ConstraintViolation<Case>> fieldsConstraintViolations = this.validator.validate(singleCase);
-            final boolean thereAreFailedFields = !CollectionUtils.isEmpty(fieldsConstraintViolations);
-            if (thereAreFailedFields) {
-                constraintValidatorContext.disableDefaultConstraintViolation();
-                fieldsConstraintViolations.forEach(violation -> constraintValidatorContext
-                        .buildConstraintViolationWithTemplate(violation.getMessageTemplate())
-                        .addConstraintViolation()
-                );
+        if (this.beanValidationRequired) {
+            violations = violations == null ? new LinkedHashSet<>() : violations;
+            for (final ConstraintViolation<Case> violation : this.validator.validate(singleCase)) {
+                violations.add(violation.getMessageTemplate());
             }
-            return thereAreFailedFields;
-        });
+        }
+        return violations == null ? Set.of() : violations;
+    }
+
+    /**
+     * Validates the cases in chunks, spread over the common pool when there is more than one chunk. Messages of cases
+     * sent in an array are prefixed with the index of the offending case. Fail fast reports the first invalid case in
+     * list order, whichever chunk finishes first.
+     */
+    public void validate(final List<Case> cases, final boolean array) {
+        final int chunks = (cases.size() + this.chunkSize - 1) / this.chunkSize;
+        final AtomicInteger firstInvalidIndex = new AtomicInteger(Integer.MAX_VALUE);
+        final IntStream chunkIndexes = chunks > 1 ? IntStream.range(0, chunks).parallel() : IntStream.range(0, chunks);
+        final TreeMap<Integer, Set<String>> violationsByIndex = chunkIndexes
+                .mapToObj(chunk -> validateChunk(cases, chunk, firstInvalidIndex))
+                .flatMap(violations -> violations.entrySet().stream())
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (first, second) -> first, TreeMap::new));
+        if (violationsByIndex.isEmpty()) {
+            return;
+        }
+
+        final Map<Integer, Set<String>> reported = this.mode == ValidationMode.FAIL_FAST
+                ? Map.of(violationsByIndex.firstKey(), violationsByIndex.firstEntry().getValue())
+                : violationsByIndex;
+        final Set<String> messages = new LinkedHashSet<>();
+        reported.forEach((index, violations) -> violations.forEach(message -> messages.add(array ? "[" + index + "] " + message : message)));
+        throw new CaseValidationException(messages);
+    }
+
+    /**
+     * In fail fast mode a chunk stops at its own first invalid case or once it has passed an invalid case found by
+     * another chunk, so chunks ahead of the lowest invalid index found so far keep running.
+     */
+    private Map<Integer, Set<String>> validateChunk(final List<Case> cases, final int chunk, final AtomicInteger firstInvalidIndex) {
+        final Map<Integer, Set<String>> violationsByIndex = new HashMap<>();
+        final int end = Math.min(cases.size(), (chunk + 1) * this.chunkSize);
+        for (int i = chunk * this.chunkSize; i < end; i++) {
+            if (this.mode == ValidationMode.FAIL_FAST && i > firstInvalidIndex.get()) {
+                break;
+            }
+
+            final Set<String> violations = violationsOf(cases.get(i));
+            if (!violations.isEmpty()) {
+                violationsByIndex.put(i, violations);
+                firstInvalidIndex.accumulateAndGet(i, Math::min);
+                if (this.mode == ValidationMode.FAIL_FAST) {
+                    break;
+                }
+            }
+        }
+        return violationsByIndex;
+    }
+
+    private void compileFieldChecks() {
+        for (final Field field : Case.class.getDeclaredFields()) {
+            final Function<Case, Object> getter = GETTERS.get(field.getName());
+            for (final Annotation annotation : field.getAnnotations()) {
+                if (getter != null && annotation instanceof NotBlank) {
+                    this.fieldChecks.add(new FieldCheck(getter, ((NotBlank) annotation).message(),
+                            value -> value == null || value.toString().trim().isEmpty()));
+                } else if (getter != null && annotation instanceof Size) {
+                    final Size size = (Size) annotation;
+                    this.fieldChecks.add(new FieldCheck(getter, size.message(),
+                            value -> value != null && (lengthOf(value) < size.min() || lengthOf(value) > size.max())));
+                } else if (annotation.annotationType().isAnnotationPresent(Constraint.class)) {
+                    this.beanValidationRequired = true;
+                }
+            }
+        }
+    }
+
+    private static int lengthOf(final Object value) {
+        return value instanceof Collection ? ((Collection<?>) value).size() : value.toString().length();
+    }
+
+    private static class FieldCheck {
+
+        private final Function<Case, Object> getter;
+        private final String message;
+        private final Predicate<Object> violation;
+
+        private FieldCheck(final Function<Case, Object> getter, final String message, final Predicate<Object> violation) {
+            this.getter = getter;
+            this.message = message;
+            this.violation = violation;
+        }
+
+        private boolean isViolatedBy(final Case singleCase) {
+            return this.violation.test(this.getter.apply(singleCase));
+        }
+
     }
 
 }
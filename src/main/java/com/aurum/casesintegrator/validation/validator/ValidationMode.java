@@ -0,0 +1,15 @@
+package com.aurum.casesintegrator.validation.validator;
+
+public enum ValidationMode {
+
+    /**
+     * Stops at the first invalid case found and reports only its violations.
+     */
+    FAIL_FAST,
+
+    /**
+     * Validates every case and reports all violations.
+     */
+    COLLECT_ALL
+
+}
@@ -1,18 +1,28 @@
 package com.aurum.casesintegrator.controller;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 
 import com.aurum.casesintegrator.repository.CaseRepository;
 import com.aurum.casesintegrator.service.CaseService;
+import com.aurum.casesintegrator.service.IdempotencyService;
+import com.aurum.casesintegrator.validation.validator.CaseValidator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 @WebMvcTest(CaseController.class)
+@Import(CaseValidator.class)
 public class CaseControllerBase {
 
     protected static final String TARGET_RELATIVE_PATH = "/v1/cases";
@@ -28,14 +38,22 @@ public class CaseControllerBase {
     @MockBean
     public CaseRepository caseRepository;
 
+    @MockBean
+    protected IdempotencyService idempotencyService;
+
     @BeforeAll
     public static void setUpBeforeClass() {
         mapper = new ObjectMapper();
     }
 
+    protected ResultActions performAsync(final MockHttpServletRequestBuilder requestBuilder) throws Exception {
+        final MvcResult asyncResult = this.mockMvc.perform(requestBuilder).andExpect(request().asyncStarted()).andReturn();
+        return this.mockMvc.perform(asyncDispatch(asyncResult));
+    }
+
     @AfterEach
     public void tearDown() {
-        Mockito.reset(this.caseService, this.caseRepository);
+        Mockito.reset(this.caseService, this.caseRepository, this.idempotencyService);
     }
 
 }
@@ -2,18 +2,26 @@ package com.aurum.casesintegrator.controller;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MvcResult;
@@ -21,6 +29,11 @@ import org.springframework.test.web.servlet.MvcResult;
 import com.aurum.casesintegrator.domain.AccessType;
 import com.aurum.casesintegrator.domain.Case;
 import com.aurum.casesintegrator.domain.CaseCriteria;
+import com.aurum.casesintegrator.domain.CasePage;
+import com.aurum.casesintegrator.domain.CaseStats;
+import com.aurum.casesintegrator.domain.QueryExplanation;
+import com.aurum.casesintegrator.domain.StatsGranularity;
+import com.aurum.casesintegrator.util.Constants;
 import com.aurum.casesintegrator.util.FileUtil;
 import com.aurum.casesintegrator.util.JsonUtil;
 import com.fasterxml.jackson.core.type.TypeReference;
@@ -42,7 +55,7 @@ public class CaseControllerGetTest extends CaseControllerBase {
                         .contentType(MediaType.APPLICATION_JSON_VALUE))
                 .andReturn();
 
-        assertThat(asyncResult.getAsyncResult()).isEqualTo(ResponseEntity.ok(expectedCase));
+        assertThat(asyncResult.getAsyncResult()).isEqualTo(ResponseEntity.ok().eTag("\"" + expectedCase.getVersion() + "\"").body(expectedCase));
 
         verify(super.caseService).findById("870cd9a8-b07a-41f4-b8a6-7dcb8bec3344");
     }
@@ -73,7 +86,7 @@ public class CaseControllerGetTest extends CaseControllerBase {
                 .to(LocalDate.of(2020, 04, 21))
                 .limit(100)
                 .build();
-        given(super.caseService.findByCriteria(criteria)).willReturn(Flux.fromIterable(foundCases));
+        given(super.caseService.findPageByCriteria(criteria)).willReturn(Mono.just(new CasePage(foundCases, null)));
 
         final MvcResult asyncResult = super.mockMvc
                 .perform(get(TARGET_RELATIVE_PATH)
@@ -83,9 +96,9 @@ public class CaseControllerGetTest extends CaseControllerBase {
                 .andExpect(status().isOk())
                 .andReturn();
 
-        assertThat(asyncResult.getAsyncResult()).isEqualTo(foundCases);
+        assertThat(asyncResult.getAsyncResult()).isEqualTo(ResponseEntity.ok().eTag(EntityTags.of(foundCases, null, null)).body(foundCases));
 
-        verify(super.caseService).findByCriteria(criteria);
+        verify(super.caseService).findPageByCriteria(criteria);
     }
 
     @Test
@@ -96,7 +109,7 @@ public class CaseControllerGetTest extends CaseControllerBase {
                 .to(LocalDate.of(2020, 04, 21))
                 .limit(100)
                 .build();
-        given(super.caseService.findByCriteria(criteria)).willReturn(Flux.empty());
+        given(super.caseService.findPageByCriteria(criteria)).willReturn(Mono.just(new CasePage(List.of(), null)));
 
         final MvcResult asyncResult = super.mockMvc
                 .perform(get(TARGET_RELATIVE_PATH)
@@ -106,9 +119,9 @@ public class CaseControllerGetTest extends CaseControllerBase {
                     .andExpect(status().isOk())
                 .andReturn();
 
-        assertThat(asyncResult.getAsyncResult().toString()).isEqualTo("[]");
+        assertThat(asyncResult.getAsyncResult()).isEqualTo(ResponseEntity.ok().eTag(EntityTags.of(List.of(), null, null)).body(List.of()));
 
-        verify(super.caseService).findByCriteria(criteria);
+        verify(super.caseService).findPageByCriteria(criteria);
     }
 
     @Test
@@ -120,7 +133,7 @@ public class CaseControllerGetTest extends CaseControllerBase {
                 .limit(100)
                 .build();
         final String expectedExceptionMessage = "Invalid Access Type param. Available options are [" + AccessType.values() + "]";
-        given(super.caseService.findByCriteria(criteria)).willThrow(new IllegalStateException(expectedExceptionMessage));
+        given(super.caseService.findPageByCriteria(criteria)).willThrow(new IllegalStateException(expectedExceptionMessage));
 
         super.mockMvc.perform(get(TARGET_RELATIVE_PATH).queryParam("accessType", "PUBLICC")
                 .queryParam("from", "2020-04-21")
@@ -129,4 +142,198 @@ public class CaseControllerGetTest extends CaseControllerBase {
                 .andExpect(jsonPath("$.messages[0]", is(expectedExceptionMessage)));
     }
 
+    @Test
+    public void findByCriteria_shouldLinkNextPageWithCursorAndWithoutPageNumber() throws Exception {
+        final List<Case> foundCases = JsonUtil.fromString(FileUtil.readFile("samples/FullCasesSample.json"), new TypeReference<>() {});
+        final CaseCriteria criteria = CaseCriteria.builder()
+                .accessType(AccessType.PUBLIC.name())
+                .from(LocalDate.of(2020, 04, 21))
+                .to(LocalDate.of(2020, 04, 21))
+                .limit(4)
+                .page(1)
+                .build();
+        given(super.caseService.findPageByCriteria(criteria)).willReturn(Mono.just(new CasePage(foundCases, "next-token")));
+
+        super.performAsync(get(TARGET_RELATIVE_PATH)
+                .queryParam("accessType", "PUBLIC")
+                .queryParam("from", "2020-04-21")
+                .queryParam("to", "2020-04-21")
+                .queryParam("limit", "4")
+                .queryParam("page", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.LINK,
+                        "<http://localhost/v1/cases?accessType=PUBLIC&from=2020-04-21&to=2020-04-21&limit=4&cursor=next-token>; rel=\"next\""))
+                .andExpect(jsonPath("$.length()", is(4)));
+    }
+
+    @Test
+    public void findByCriteria_shouldExplainPlanWhenRequested() throws Exception {
+        final CaseCriteria criteria = CaseCriteria.builder()
+                .customer("Mike McCready")
+                .from(LocalDate.of(2020, 04, 21))
+                .to(LocalDate.of(2020, 04, 21))
+                .limit(100)
+                .build();
+        given(super.caseService.explain(criteria)).willReturn(Mono.just(QueryExplanation.builder()
+                .accessPath("CUSTOMER")
+                .documentsRead(3)
+                .returned(2)
+                .build()));
+
+        super.performAsync(get(TARGET_RELATIVE_PATH)
+                .queryParam("customer", "Mike McCready")
+                .queryParam("from", "2020-04-21")
+                .queryParam("to", "2020-04-21")
+                .queryParam("explain", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accessPath", is("CUSTOMER")))
+                .andExpect(jsonPath("$.documentsRead", is(3)))
+                .andExpect(jsonPath("$.returned", is(2)));
+
+        verify(super.caseService, never()).findPageByCriteria(any());
+    }
+
+    @Test
+    public void findById_shouldReturnNotModifiedWhenStoredVersionMatches() throws Exception {
+        final Case storedCase = JsonUtil.fromString(FileUtil.readFile("samples/LegalCaseIdAlreadyFilledSample.json"), new TypeReference<>() {});
+        given(super.caseService.findRevalidatedById(anyString())).willReturn(Mono.just(storedCase));
+
+        super.performAsync(get(TARGET_RELATIVE_PATH + "/870cd9a8-b07a-41f4-b8a6-7dcb8bec3344")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"stale\", W/\"" + storedCase.getVersion() + "\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + storedCase.getVersion() + "\""))
+                .andExpect(content().string(""));
+
+        verify(super.caseService, never()).findById(anyString());
+    }
+
+    @Test
+    public void findById_shouldReturnStoredCaseWhenTagOfCachedVersionIsStale() throws Exception {
+        final Case cachedCase = JsonUtil.fromString(FileUtil.readFile("samples/LegalCaseIdAlreadyFilledSample.json"), new TypeReference<>() {});
+        final Case storedCase = JsonUtil.fromString(FileUtil.readFile("samples/LegalCaseIdAlreadyFilledSample.json"), new TypeReference<>() {});
+        storedCase.setTitle("Written by another instance");
+        storedCase.refreshVersion();
+        given(super.caseService.findById(anyString())).willReturn(Mono.just(cachedCase));
+        given(super.caseService.findRevalidatedById(anyString())).willReturn(Mono.just(storedCase));
+
+        super.performAsync(get(TARGET_RELATIVE_PATH + "/870cd9a8-b07a-41f4-b8a6-7dcb8bec3344")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"" + cachedCase.getVersion() + "\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + storedCase.getVersion() + "\""))
+                .andExpect(jsonPath("$.title", is("Written by another instance")));
+    }
+
+    @Test
+    public void findById_shouldTagEachProjectionApart() throws Exception {
+        final Case storedCase = JsonUtil.fromString(FileUtil.readFile("samples/LegalCaseIdAlreadyFilledSample.json"), new TypeReference<>() {});
+        given(super.caseService.findRevalidatedById(anyString())).willReturn(Mono.just(storedCase));
+
+        super.performAsync(get(TARGET_RELATIVE_PATH + "/870cd9a8-b07a-41f4-b8a6-7dcb8bec3344")
+                        .queryParam("fields", "id,title")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"" + storedCase.getVersion() + "\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not("\"" + storedCase.getVersion() + "\"")));
+    }
+
+    @Test
+    public void findByCriteria_shouldReturnNotModifiedWhenPageMembersAreUnchanged() throws Exception {
+        final List<Case> foundCases = JsonUtil.fromString(FileUtil.readFile("samples/FullCasesSample.json"), new TypeReference<>() {});
+        given(super.caseService.findPageByCriteria(any())).willReturn(Mono.just(new CasePage(foundCases, null)));
+        final String entityTag = EntityTags.of(foundCases, null, null);
+
+        super.performAsync(get(TARGET_RELATIVE_PATH).queryParam("accessType", "PUBLIC").header(HttpHeaders.IF_NONE_MATCH, entityTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, entityTag))
+                .andExpect(content().string(""));
+
+        foundCases.get(0).setTitle("Changed title");
+        foundCases.get(0).refreshVersion();
+
+        super.performAsync(get(TARGET_RELATIVE_PATH).queryParam("accessType", "PUBLIC").header(HttpHeaders.IF_NONE_MATCH, entityTag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void findById_shouldReturnOnlyRequestedFields() throws Exception {
+        final Case expectedCase = JsonUtil.fromString(FileUtil.readFile("samples/LegalCaseIdAlreadyFilledSample.json"), new TypeReference<>() {});
+        given(super.caseService.findById(anyString())).willReturn(Mono.just(expectedCase));
+
+        super.performAsync(get(TARGET_RELATIVE_PATH + "/870cd9a8-b07a-41f4-b8a6-7dcb8bec3344").queryParam("fields", "id,title"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(expectedCase.getId())))
+                .andExpect(jsonPath("$.title", is(expectedCase.getTitle())))
+                .andExpect(jsonPath("$.description").doesNotExist())
+                .andExpect(jsonPath("$.notes").doesNotExist());
+    }
+
+    @Test
+    public void findByCriteria_shouldReturnOnlyRequestedFieldsOfEachCase() throws Exception {
+        final List<Case> foundCases = JsonUtil.fromString(FileUtil.readFile("samples/FullCasesSample.json"), new TypeReference<>() {});
+        final CaseCriteria criteria = CaseCriteria.builder()
+                .from(LocalDate.of(2020, 04, 21))
+                .to(LocalDate.of(2020, 04, 21))
+                .limit(100)
+                .build();
+        given(super.caseService.findPageByCriteria(criteria)).willReturn(Mono.just(new CasePage(foundCases, null)));
+
+        super.performAsync(get(TARGET_RELATIVE_PATH)
+                .queryParam("from", "2020-04-21")
+                .queryParam("to", "2020-04-21")
+                .queryParam("fields", "customer, labels"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(foundCases.size())))
+                .andExpect(jsonPath("$[0].customer", is(foundCases.get(0).getCustomer())))
+                .andExpect(jsonPath("$[0].id").doesNotExist())
+                .andExpect(jsonPath("$[0].description").doesNotExist());
+    }
+
+    @Test
+    public void findByCriteria_shouldRejectUnknownFieldsWithBadRequest() throws Exception {
+        super.mockMvc.perform(get(TARGET_RELATIVE_PATH).queryParam("fields", "id,secret"))
+                .andExpect(status().isBadRequest());
+
+        verify(super.caseService, never()).findPageByCriteria(any());
+    }
+
+    @Test
+    public void streamByCriteria_shouldWriteOneLinePerCaseWhenNdjsonIsAccepted() throws Exception {
+        given(super.caseService.streamByCriteria(any())).willReturn(Flux.just(caseOf("1", "First"), caseOf("2", "Second")));
+
+        super.performAsync(get(TARGET_RELATIVE_PATH).queryParam("fields", "id,title").accept(Constants.APPLICATION_NDJSON_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, Constants.APPLICATION_NDJSON_VALUE))
+                .andExpect(content().string("{\"id\":\"1\",\"title\":\"First\"}\n{\"id\":\"2\",\"title\":\"Second\"}\n"));
+
+        verify(super.caseService, never()).findPageByCriteria(any());
+    }
+
+    @Test
+    public void streamByCriteria_shouldWriteOneEventPerCaseWhenEventStreamIsAccepted() throws Exception {
+        given(super.caseService.streamByCriteria(any())).willReturn(Flux.just(caseOf("1", "First")));
+
+        super.performAsync(get(TARGET_RELATIVE_PATH).queryParam("fields", "title").accept(MediaType.TEXT_EVENT_STREAM_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(content().string("id:1\ndata:{\"title\":\"First\"}\n\n"));
+    }
+
+    @Test
+    public void countByCriteria_shouldReturnCountsFromService() throws Exception {
+        given(super.caseService.countByCriteria(any(), eq(StatsGranularity.DAY))).willReturn(Mono.just(CaseStats.builder()
+                .customer("Mike McCready")
+                .total(3)
+                .buckets(Map.of("2020-04-21", 3L))
+                .build()));
+
+        super.performAsync(get(TARGET_RELATIVE_PATH + "/stats")
+                .queryParam("customer", "Mike McCready")
+                .queryParam("granularity", "DAY"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", is(3)))
+                .andExpect(jsonPath("$.buckets['2020-04-21']", is(3)));
+    }
+
+    private static Case caseOf(final String id, final String title) {
+        return new Case(id, null, "Mike McCready", title, List.of(), null, null, "Eddie Vedder", AccessType.PUBLIC, 1587438000000L);
+    }
+
 }
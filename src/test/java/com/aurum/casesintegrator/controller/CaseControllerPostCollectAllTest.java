@@ -0,0 +1,36 @@
+package com.aurum.casesintegrator.controller;
+
+import static org.hamcrest.Matchers.contains;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+
+import com.aurum.casesintegrator.util.FileUtil;
+
+@WebMvcTest(value = CaseController.class, properties = "validation.mode=COLLECT_ALL")
+@DisplayName("[CaseController] - Unit Tests for POST requests validated in collect all mode")
+public class CaseControllerPostCollectAllTest extends CaseControllerBase {
+
+    @Test
+    public void create_shouldReportEveryInvalidCaseOfAnArrayWithItsIndex() throws Exception {
+        final String jsonRequest = "[" + FileUtil.readFile("samples/LegalCaseFullSample.json") + ","
+                + FileUtil.readFile("samples/LegalCaseMissingCustomerSample.json") + ","
+                + FileUtil.readFile("samples/LegalCaseExceededFolderMaxLengthSample.json") + "]";
+
+        super.mockMvc.perform(post(TARGET_RELATIVE_PATH).content(jsonRequest).contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.messages", contains(
+                        "[1] Property \"customer\" must not be blank.",
+                        "[2] Property \"folder\" must not exceed max length 40."
+                )));
+
+        verifyNoInteractions(super.caseService);
+    }
+
+}
@@ -1,19 +1,31 @@
 package com.aurum.casesintegrator.controller;
 
+import static org.hamcrest.Matchers.allOf;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.endsWith;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 import javax.management.InstanceAlreadyExistsException;
@@ -23,12 +35,23 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 
 import com.aurum.casesintegrator.domain.Case;
+import com.aurum.casesintegrator.domain.CaseImportJob;
+import com.aurum.casesintegrator.domain.CaseImportResult;
+import com.aurum.casesintegrator.domain.CaseLookupResult;
+import com.aurum.casesintegrator.domain.ImportStatus;
+import com.aurum.casesintegrator.domain.JobStatus;
+import com.aurum.casesintegrator.exception.IdempotencyKeyReusedException;
+import com.aurum.casesintegrator.service.IdempotencyService;
+import com.aurum.casesintegrator.util.Constants;
 import com.aurum.casesintegrator.util.FileUtil;
+import com.aurum.casesintegrator.util.FingerprintInputStream;
 import com.fasterxml.jackson.core.type.TypeReference;
 
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 @DisplayName("[CaseController] - Unit Tests for POST requests on Case Controller")
 public class CaseControllerPostTest extends CaseControllerBase {
@@ -36,13 +59,12 @@ public class CaseControllerPostTest extends CaseControllerBase {
     @Test
     public void create_shouldCallServiceToCreateASingleCaseAndReturnStatusCreatedWithResponseBody() throws Exception {
         final String jsonRequest = FileUtil.readFile("samples/LegalCaseFullSample.json");
-        given(super.caseService.getExtractedCasesFrom(jsonRequest)).willReturn(List.of(mapper.readValue(jsonRequest, Case.class)));
 
         final Case expectedCaseFromService = mapper.readValue(jsonRequest, Case.class);
         expectedCaseFromService.setId("1");
         given(super.caseService.create(Mockito.any())).willReturn(Flux.just(expectedCaseFromService));
 
-        super.mockMvc.perform(post(TARGET_RELATIVE_PATH).content(jsonRequest).contentType(MediaType.APPLICATION_JSON_VALUE))
+        super.performAsync(post(TARGET_RELATIVE_PATH).content(jsonRequest).contentType(MediaType.APPLICATION_JSON_VALUE))
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.id", is("1")))
                 .andExpect(jsonPath("$.status", is(HttpStatus.CREATED.name())))
@@ -62,7 +84,6 @@ public class CaseControllerPostTest extends CaseControllerBase {
     @Test
     public void create_shouldValidateRequiredParamCustomerAndReturnStatusBadRequest() throws Exception {
         final String jsonRequest = FileUtil.readFile("samples/LegalCaseMissingCustomerSample.json");
-        given(super.caseService.getExtractedCasesFrom(jsonRequest)).willReturn(List.of(mapper.readValue(jsonRequest, Case.class)));
 
         super.mockMvc.perform(post(TARGET_RELATIVE_PATH).content(jsonRequest).contentType(MediaType.APPLICATION_JSON_VALUE))
                 .andExpect(status().isBadRequest())
@@ -74,7 +95,6 @@ public class CaseControllerPostTest extends CaseControllerBase {
     @Test
     public void create_shouldValidateAllRequiredParamsAndReturnStatusBadRequest() throws Exception {
         final String jsonRequest = FileUtil.readFile("samples/LegalCaseMissingAllRequiredFieldsSample.json");
-        given(super.caseService.getExtractedCasesFrom(jsonRequest)).willReturn(List.of(mapper.readValue(jsonRequest, Case.class)));
 
         super.mockMvc.perform(post(TARGET_RELATIVE_PATH).content(jsonRequest).contentType(MediaType.APPLICATION_JSON_VALUE))
                 .andExpect(status().isBadRequest())
@@ -90,7 +110,6 @@ public class CaseControllerPostTest extends CaseControllerBase {
     @Test
     public void create_shouldValidateMaxLengthOnFolderPropertyAndReturnStatusBadRequest() throws Exception {
         final String jsonRequest = FileUtil.readFile("samples/LegalCaseExceededFolderMaxLengthSample.json");
-        given(super.caseService.getExtractedCasesFrom(jsonRequest)).willReturn(List.of(mapper.readValue(jsonRequest, Case.class)));
 
         super.mockMvc.perform(post(TARGET_RELATIVE_PATH).content(jsonRequest).contentType(MediaType.APPLICATION_JSON_VALUE))
                 .andExpect(status().isBadRequest())
@@ -99,16 +118,62 @@ public class CaseControllerPostTest extends CaseControllerBase {
         verify(super.caseService, times(NO_INTERACTION)).create(anyList());
     }
 
+    @Test
+    public void create_shouldValidateEveryCaseOfAnArrayAndReturnStatusBadRequest() throws Exception {
+        final String jsonRequest = "[" + FileUtil.readFile("samples/LegalCaseFullSample.json") + ","
+                + FileUtil.readFile("samples/LegalCaseMissingCustomerSample.json") + "]";
+
+        super.mockMvc.perform(post(TARGET_RELATIVE_PATH).content(jsonRequest).contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.messages", contains("[1] Property \"customer\" must not be blank.")));
+
+        verifyNoInteractions(super.caseService);
+    }
+
+    @Test
+    public void create_shouldReportOnlyFirstInvalidCaseOfAnArrayWhenFailingFast() throws Exception {
+        final String jsonRequest = "[" + FileUtil.readFile("samples/LegalCaseFullSample.json") + ","
+                + FileUtil.readFile("samples/LegalCaseMissingCustomerSample.json") + ","
+                + FileUtil.readFile("samples/LegalCaseExceededFolderMaxLengthSample.json") + "]";
+
+        super.mockMvc.perform(post(TARGET_RELATIVE_PATH).content(jsonRequest).contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.messages", contains("[1] Property \"customer\" must not be blank.")));
+
+        verifyNoInteractions(super.caseService);
+    }
+
+    @Test
+    public void create_shouldReportFirstInvalidCaseAcrossValidationChunksWhenFailingFast() throws Exception {
+        final List<String> cases = new ArrayList<>(Collections.nCopies(800, FileUtil.readFile("samples/LegalCaseFullSample.json")));
+        cases.set(300, FileUtil.readFile("samples/LegalCaseExceededFolderMaxLengthSample.json"));
+        cases.set(600, FileUtil.readFile("samples/LegalCaseMissingCustomerSample.json"));
+        final String jsonRequest = "[" + String.join(",", cases) + "]";
+
+        super.mockMvc.perform(post(TARGET_RELATIVE_PATH).content(jsonRequest).contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.messages", contains("[300] Property \"folder\" must not exceed max length 40.")));
+
+        verifyNoInteractions(super.caseService);
+    }
+
+    @Test
+    public void create_shouldRejectMalformedJsonAndReturnStatusBadRequest() throws Exception {
+        super.mockMvc.perform(post(TARGET_RELATIVE_PATH).content("[{\"customer\": ").contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(super.caseService);
+    }
+
     @Test
     public void create_shouldCallServiceToCreateLoadsOfCasesAndReturnStatusMultipleStatus() throws Exception {
         final String jsonRequest = FileUtil.readFile("samples/BatchCasesReducedSample.json");
         final List<Case> expectedCasesFromService = mapper.readValue(jsonRequest, new TypeReference<>() {});
-        given(super.caseService.getExtractedCasesFrom(jsonRequest)).willReturn(expectedCasesFromService);
         given(super.caseService.create(expectedCasesFromService)).willReturn(Flux.fromIterable(
                 expectedCasesFromService.stream().peek(singleCase -> singleCase.setId(String.valueOf(new Random().nextLong()))).collect(Collectors.toList())
         ));
 
-        super.mockMvc.perform(post(TARGET_RELATIVE_PATH).content(jsonRequest).contentType(MediaType.APPLICATION_JSON_VALUE))
+        super.performAsync(post(TARGET_RELATIVE_PATH).content(jsonRequest).contentType(MediaType.APPLICATION_JSON_VALUE))
                 .andExpect(status().isMultiStatus());
     }
 
@@ -116,11 +181,10 @@ public class CaseControllerPostTest extends CaseControllerBase {
     public void create_shouldCallServiceToCreateLoadsOfCasesAndReturnStatusMultipleStatusContainingConflicts() throws Exception {
         final String jsonRequest = FileUtil.readFile("samples/BatchCasesMixedIdsSample.json");
         final List<Case> expectedCasesFromService = mapper.readValue(jsonRequest, new TypeReference<>() {});
-        given(super.caseService.getExtractedCasesFrom(jsonRequest)).willReturn(expectedCasesFromService);
         final List<Case> expectedAfterSaving = mapper.readValue(FileUtil.readFile("samples/BatchCasesMixedIdsNoConflictsSample.json"), new TypeReference<>() {});
         given(super.caseService.create(expectedCasesFromService)).willReturn(Flux.fromIterable(expectedAfterSaving));
 
-        super.mockMvc.perform(post(TARGET_RELATIVE_PATH).content(jsonRequest).contentType(MediaType.APPLICATION_JSON_VALUE))
+        super.performAsync(post(TARGET_RELATIVE_PATH).content(jsonRequest).contentType(MediaType.APPLICATION_JSON_VALUE))
                 .andExpect(status().isMultiStatus())
                 .andExpect(jsonPath("$.[0].status", is(HttpStatus.CREATED.name())))
                 .andExpect(jsonPath("$.[1].status", is(HttpStatus.CREATED.name())))
@@ -129,17 +193,148 @@ public class CaseControllerPostTest extends CaseControllerBase {
                 .andExpect(jsonPath("$.[4].status", is(HttpStatus.CONFLICT.name())));
     }
 
+    @Test
+    public void create_shouldReturnOnlyIdsAndStatusesWhenMinimalReturnIsPreferred() throws Exception {
+        final String jsonRequest = FileUtil.readFile("samples/BatchCasesMixedIdsSample.json");
+        final List<Case> expectedCasesFromService = mapper.readValue(jsonRequest, new TypeReference<>() {});
+        final List<Case> expectedAfterSaving = mapper.readValue(FileUtil.readFile("samples/BatchCasesMixedIdsNoConflictsSample.json"), new TypeReference<>() {});
+        given(super.caseService.create(expectedCasesFromService)).willReturn(Flux.fromIterable(expectedAfterSaving));
+
+        super.performAsync(post(TARGET_RELATIVE_PATH).content(jsonRequest).contentType(MediaType.APPLICATION_JSON_VALUE).header("Prefer", "return=minimal"))
+                .andExpect(status().isMultiStatus())
+                .andExpect(header().string("Preference-Applied", "return=minimal"))
+                .andExpect(jsonPath("$.[0].id", is("1")))
+                .andExpect(jsonPath("$.[0].status", is(HttpStatus.CREATED.name())))
+                .andExpect(jsonPath("$.[0].uri").doesNotExist())
+                .andExpect(jsonPath("$.[0].createdAt").doesNotExist())
+                .andExpect(jsonPath("$.[2].status", is(HttpStatus.CONFLICT.name())));
+
+        verify(super.caseService, times(1)).create(expectedCasesFromService);
+    }
+
     @Test
     public void create_shouldCallServiceThrowingAnInstanceAlreadyExistsExceptionAndReturnConflictStatusCode() throws Exception {
         final String jsonRequest = FileUtil.readFile("samples/LegalCaseIdAlreadyFilledSample.json");
         final Case expectedCaseFromService = mapper.readValue(jsonRequest, new TypeReference<>() {
         });
-        given(super.caseService.getExtractedCasesFrom(jsonRequest)).willReturn(List.of(expectedCaseFromService));
-        given(super.caseService.create(List.of(expectedCaseFromService))).willThrow(new InstanceAlreadyExistsException("Case already exists on database."));
+        given(super.caseService.create(List.of(expectedCaseFromService))).willReturn(Flux.error(new InstanceAlreadyExistsException("Case already exists on database.")));
 
-        super.mockMvc.perform(post(TARGET_RELATIVE_PATH).content(jsonRequest).contentType(MediaType.APPLICATION_JSON_VALUE))
+        super.performAsync(post(TARGET_RELATIVE_PATH).content(jsonRequest).contentType(MediaType.APPLICATION_JSON_VALUE))
                 .andExpect(status().isConflict())
                 .andExpect(jsonPath("$.messages[0]", is("Case already exists on database.")));
     }
 
+    @Test
+    public void importCases_shouldStreamOneResultLinePerImportedLine() throws Exception {
+        final String ndjsonRequest = "{\"customer\": \"Mike\", \"title\": \"Case\", \"inChargeOf\": \"Eddie\"}\n{\"title\": \"Case\"}\n";
+        given(super.caseService.importCases(Mockito.any())).willReturn(Flux.just(List.of(
+                CaseImportResult.builder().line(1).id("1").status(ImportStatus.CREATED).build(),
+                CaseImportResult.builder().line(2).status(ImportStatus.INVALID).messages(Set.of("Property \"customer\" must not be blank.")).build()
+        )));
+
+        super.performAsync(post(TARGET_RELATIVE_PATH + "/import").content(ndjsonRequest).contentType(Constants.APPLICATION_NDJSON_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(content().string(
+                        "{\"line\":1,\"id\":\"1\",\"status\":\"CREATED\"}\n"
+                                + "{\"line\":2,\"status\":\"INVALID\",\"messages\":[\"Property \\\"customer\\\" must not be blank.\"]}\n"
+                ));
+    }
+
+    @Test
+    public void submitImportJob_shouldReturnStatusAcceptedWithJobLocation() throws Exception {
+        final CaseImportJob job = new CaseImportJob();
+        job.setId("job-1");
+        job.setCustomer("Mike");
+        job.setStatus(JobStatus.QUEUED);
+        given(super.caseService.submitImportJob(Mockito.eq("Mike"), Mockito.any())).willReturn(Mono.just(job));
+
+        super.performAsync(post(TARGET_RELATIVE_PATH + "/jobs").param("customer", "Mike").content("{}\n").contentType(Constants.APPLICATION_NDJSON_VALUE))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "http://localhost/v1/cases/jobs/job-1"))
+                .andExpect(jsonPath("$.id", is("job-1")))
+                .andExpect(jsonPath("$.status", is(JobStatus.QUEUED.name())));
+    }
+
+    @Test
+    public void submitImportJob_shouldReturnStatusTooManyRequestsWhenCustomerLimitIsReached() throws Exception {
+        given(super.caseService.submitImportJob(Mockito.eq("Mike"), Mockito.any()))
+                .willThrow(new RejectedExecutionException("Customer Mike already has 2 import jobs in progress."));
+
+        super.mockMvc.perform(post(TARGET_RELATIVE_PATH + "/jobs").param("customer", "Mike").content("{}\n").contentType(Constants.APPLICATION_NDJSON_VALUE))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(jsonPath("$.messages", contains("Customer Mike already has 2 import jobs in progress.")));
+    }
+
+    @Test
+    public void create_shouldReplayStoredResponseForRepeatedIdempotencyKeyWithoutCallingService() throws Exception {
+        final String jsonRequest = FileUtil.readFile("samples/LegalCaseFullSample.json");
+        given(super.idempotencyService.replayOrReserve("key-1", fingerprintOf(jsonRequest))).willReturn(Mono.just(ResponseEntity.status(HttpStatus.CREATED)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Location", "http://localhost/v1/cases/1")
+                .header(IdempotencyService.IDEMPOTENT_REPLAYED, "true")
+                .body("{\"id\":\"1\",\"status\":\"CREATED\"}")));
+
+        super.performAsync(post(TARGET_RELATIVE_PATH).content(jsonRequest).contentType(MediaType.APPLICATION_JSON_VALUE).header(Constants.IDEMPOTENCY_KEY, "key-1"))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Location", "http://localhost/v1/cases/1"))
+                .andExpect(header().string(IdempotencyService.IDEMPOTENT_REPLAYED, "true"))
+                .andExpect(jsonPath("$.id", is("1")));
+
+        verifyNoInteractions(super.caseService);
+    }
+
+    @Test
+    public void create_shouldReturnStatusUnprocessableEntityWhenIdempotencyKeyIsReusedWithDifferentBody() throws Exception {
+        final String jsonRequest = FileUtil.readFile("samples/LegalCaseFullSample.json");
+        given(super.idempotencyService.replayOrReserve("key-1", fingerprintOf(jsonRequest)))
+                .willReturn(Mono.error(new IdempotencyKeyReusedException("Idempotency-Key was already used with a different request body.")));
+
+        super.performAsync(post(TARGET_RELATIVE_PATH).content(jsonRequest).contentType(MediaType.APPLICATION_JSON_VALUE).header(Constants.IDEMPOTENCY_KEY, "key-1"))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.messages", contains("Idempotency-Key was already used with a different request body.")));
+
+        verifyNoInteractions(super.caseService);
+    }
+
+    @Test
+    public void create_shouldStoreResponseForNewIdempotencyKey() throws Exception {
+        final String jsonRequest = FileUtil.readFile("samples/LegalCaseFullSample.json");
+        final Case expectedCaseFromService = mapper.readValue(jsonRequest, Case.class);
+        expectedCaseFromService.setId("1");
+        given(super.idempotencyService.replayOrReserve("key-1", fingerprintOf(jsonRequest))).willReturn(Mono.empty());
+        given(super.idempotencyService.complete(Mockito.eq("key-1"), Mockito.eq(fingerprintOf(jsonRequest)), Mockito.any())).willReturn(Mono.empty());
+        given(super.caseService.create(Mockito.any())).willReturn(Flux.just(expectedCaseFromService));
+
+        super.performAsync(post(TARGET_RELATIVE_PATH).content(jsonRequest).contentType(MediaType.APPLICATION_JSON_VALUE).header(Constants.IDEMPOTENCY_KEY, "key-1"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id", is("1")));
+
+        verify(super.idempotencyService).complete(Mockito.eq("key-1"), Mockito.eq(fingerprintOf(jsonRequest)), Mockito.any());
+    }
+
+    @Test
+    public void findAllById_shouldStreamOneResultLinePerRequestedId() throws Exception {
+        final Case found = new Case();
+        found.setId("1");
+        found.setTitle("Case");
+        given(super.caseService.findAllById(List.of("1", "2"))).willReturn(Flux.just(
+                CaseLookupResult.builder().id("1").status(HttpStatus.OK).singleCase(found).build(),
+                CaseLookupResult.builder().id("2").status(HttpStatus.NOT_FOUND).build()
+        ));
+
+        super.performAsync(post(TARGET_RELATIVE_PATH + "/_mget").content("[\"1\", \"2\"]").contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", Constants.APPLICATION_NDJSON_VALUE))
+                .andExpect(content().string(allOf(
+                        startsWith("{\"id\":\"1\",\"status\":\"OK\",\"case\":{\"id\":\"1\","),
+                        endsWith("}}\n{\"id\":\"2\",\"status\":\"NOT_FOUND\"}\n")
+                )));
+    }
+
+    private String fingerprintOf(final String content) throws IOException {
+        final FingerprintInputStream fingerprint = new FingerprintInputStream(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+        fingerprint.close();
+        return fingerprint.getFingerprint();
+    }
+
 }
@@ -1,6 +1,7 @@
 package com.aurum.casesintegrator.controller;
 
-import static org.mockito.Mockito.doThrow;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -12,13 +13,17 @@ import com.aurum.casesintegrator.domain.Case;
 import com.aurum.casesintegrator.util.FileUtil;
 import com.fasterxml.jackson.core.type.TypeReference;
 
+import reactor.core.publisher.Mono;
+
 @DisplayName("[CaseController] - Unit Tests for PUT requests on Case Controller")
 public class CaseControllerUpdateTest extends CaseControllerBase {
 
     @Test
     public void update_shouldCallServiceToUpdateAllCaseFields() throws Exception {
         final String jsonRequest = FileUtil.readFile("samples/LegalCaseIdAlreadyFilledSample.json");
-        super.mockMvc.perform(put(TARGET_RELATIVE_PATH).content(jsonRequest).contentType(MediaType.APPLICATION_JSON_VALUE))
+        given(super.caseService.updateAllFields(any())).willReturn(Mono.empty());
+
+        super.performAsync(put(TARGET_RELATIVE_PATH).content(jsonRequest).contentType(MediaType.APPLICATION_JSON_VALUE))
                 .andExpect(status().isNoContent());
     }
 
@@ -33,9 +38,9 @@ public class CaseControllerUpdateTest extends CaseControllerBase {
     public void update_shouldCallServiceThrowingIllegalArgumentExceptionAndReturnBadRequestStatus() throws Exception {
         final String jsonRequest = FileUtil.readFile("samples/LegalCaseIdAlreadyFilledSample.json");
         final Case caseToUpdate = mapper.readValue(jsonRequest, new TypeReference<>() {});
-        doThrow(new IllegalArgumentException("Field id must be filled.")).when(super.caseService).updateAllFields(caseToUpdate);
+        given(super.caseService.updateAllFields(caseToUpdate)).willReturn(Mono.error(new IllegalArgumentException("Field id must be filled.")));
 
-        super.mockMvc.perform(put(TARGET_RELATIVE_PATH).content(jsonRequest).contentType(MediaType.APPLICATION_JSON_VALUE))
+        super.performAsync(put(TARGET_RELATIVE_PATH).content(jsonRequest).contentType(MediaType.APPLICATION_JSON_VALUE))
                 .andExpect(status().isBadRequest());
     }
 
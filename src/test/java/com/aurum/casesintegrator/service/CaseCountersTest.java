@@ -0,0 +1,151 @@
+package com.aurum.casesintegrator.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.ReactiveTransaction;
+import org.springframework.transaction.ReactiveTransactionManager;
+
+import com.aurum.casesintegrator.domain.AccessType;
+import com.aurum.casesintegrator.domain.Case;
+import com.aurum.casesintegrator.domain.CaseCounter;
+import com.aurum.casesintegrator.domain.CaseStats;
+import com.aurum.casesintegrator.domain.StatsGranularity;
+import com.aurum.casesintegrator.service.event.CasesChangedEvent;
+import com.aurum.casesintegrator.service.range.DateRangeResolver;
+import com.aurum.casesintegrator.service.stats.CaseCounters;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@DisplayName("[CaseCounters] - Unit Tests for aggregate case counters")
+public class CaseCountersTest extends CaseServiceBase {
+
+    private static final LocalDate DAY = LocalDate.of(2020, 4, 21);
+    private static final int SHARDS = 4;
+
+    @Autowired
+    private DateRangeResolver dateRangeResolver;
+
+    @Test
+    public void count_shouldIncludeUnflushedWritesPerLabelAndInTotal() {
+        final CaseCounters counters = newCounters();
+        givenNoStoredCounters();
+
+        counters.onCasesChanged(CasesChangedEvent.created(List.of(
+                caseOf("1", List.of("red", "blue"), DAY),
+                caseOf("2", List.of("red"), DAY.plusDays(1)),
+                caseOf("3", List.of("blue"), DAY.plusMonths(1))
+        )));
+
+        final CaseStats all = counters.count("Mike", null, null, DAY, DAY.plusMonths(2), StatsGranularity.MONTH).block();
+        final CaseStats red = counters.count("Mike", "red", AccessType.PUBLIC.name(), DAY, DAY.plusMonths(2), null).block();
+
+        assertThat(all.getTotal()).isEqualTo(3);
+        assertThat(all.getBuckets()).isEqualTo(Map.of("2020-04", 2L, "2020-05", 1L));
+        assertThat(red.getTotal()).isEqualTo(2);
+        assertThat(red.getBuckets()).isNull();
+    }
+
+    @Test
+    public void count_shouldMoveUpdatedCasesBetweenBuckets() {
+        final CaseCounters counters = newCounters();
+        givenNoStoredCounters();
+        final Case original = caseOf("1", List.of("red"), DAY);
+
+        counters.onCasesChanged(CasesChangedEvent.created(List.of(original)));
+        counters.onCasesChanged(CasesChangedEvent.updated(original, caseOf("1", List.of("blue"), DAY)));
+
+        assertThat(counters.count("Mike", "red", null, DAY, DAY, null).block().getTotal()).isZero();
+        assertThat(counters.count("Mike", "blue", null, DAY, DAY, null).block().getTotal()).isEqualTo(1);
+        assertThat(counters.count("Mike", null, null, DAY, DAY, null).block().getTotal()).isEqualTo(1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void flush_shouldAddPendingCountsToStoredCountersOfOneShard() {
+        final CaseCounters counters = newCounters();
+        counters.onCasesChanged(CasesChangedEvent.created(List.of(caseOf("1", List.of(), DAY), caseOf("2", List.of(), DAY))));
+        givenStoredCountersOf(5);
+        given(super.caseCounterRepository.saveAll(anyIterable())).willAnswer(invocation -> Flux.fromIterable((Iterable<CaseCounter>) invocation.getArgument(0)));
+
+        counters.flush().block();
+
+        final ArgumentCaptor<Iterable<CaseCounter>> saved = ArgumentCaptor.forClass(Iterable.class);
+        verify(super.caseCounterRepository).saveAll(saved.capture());
+        assertThat(saved.getValue()).hasSize(1);
+        final CaseCounter counter = saved.getValue().iterator().next();
+        assertThat(Integer.parseInt(counter.getShard())).isBetween(0, SHARDS - 1);
+        assertThat(counter.getLabel()).isEqualTo(CaseCounter.ALL_LABELS);
+        assertThat(counter.getCount()).isEqualTo(7);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void flush_shouldRetryFailedCountsOnceWithoutKeepingFlushedOnes() {
+        final CaseCounters counters = newCounters();
+        givenNoStoredCounters();
+        givenStoredCountersOf(0);
+        given(super.caseCounterRepository.saveAll(anyIterable()))
+                .willReturn(Flux.error(new IllegalStateException("Commit failed.")))
+                .willAnswer(invocation -> Flux.fromIterable((Iterable<CaseCounter>) invocation.getArgument(0)));
+        counters.onCasesChanged(CasesChangedEvent.created(List.of(caseOf("1", List.of(), DAY), caseOf("2", List.of(), DAY))));
+
+        counters.flush().onErrorResume(error -> Mono.empty()).block();
+        counters.flush().block();
+        counters.flush().block();
+
+        final ArgumentCaptor<Iterable<CaseCounter>> saved = ArgumentCaptor.forClass(Iterable.class);
+        verify(super.caseCounterRepository, times(2)).saveAll(saved.capture());
+        assertThat(saved.getValue()).extracting(CaseCounter::getCount).containsExactly(2L);
+        assertThat(counters.count("Mike", null, null, DAY, DAY, null).block().getTotal()).isZero();
+    }
+
+    private CaseCounters newCounters() {
+        final ReactiveTransactionManager transactionManager = mock(ReactiveTransactionManager.class);
+        given(transactionManager.getReactiveTransaction(any())).willReturn(Mono.just(mock(ReactiveTransaction.class)));
+        given(transactionManager.commit(any())).willReturn(Mono.empty());
+        given(transactionManager.rollback(any())).willReturn(Mono.empty());
+        return new CaseCounters(super.caseCounterRepository, this.dateRangeResolver, transactionManager, SHARDS);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenStoredCountersOf(final long count) {
+        given(super.caseCounterRepository.findAllById(anyIterable())).willAnswer(invocation -> {
+            final List<CaseCounter> stored = new ArrayList<>();
+            ((Iterable<String>) invocation.getArgument(0)).forEach(id -> stored.add(CaseCounter.builder().id(id).count(count).build()));
+            return Flux.fromIterable(stored);
+        });
+    }
+
+    private void givenNoStoredCounters() {
+        given(super.caseCounterRepository.findByLabelAndEpochDayGreaterThanEqualAndEpochDayLessThanEqual(anyString(), anyLong(), anyLong()))
+                .willReturn(Flux.empty());
+        given(super.caseCounterRepository.findByCustomerAndLabelAndEpochDayGreaterThanEqualAndEpochDayLessThanEqual(eq("Mike"), anyString(), anyLong(), anyLong()))
+                .willReturn(Flux.empty());
+    }
+
+    private Case caseOf(final String id, final List<String> labels, final LocalDate day) {
+        final Instant createdAt = day.atStartOfDay(this.dateRangeResolver.zoneOf("Mike")).toInstant();
+        return new Case(id, null, "Mike", "Sample case", labels, null, null, "Eddie Vedder", AccessType.PUBLIC, createdAt.toEpochMilli());
+    }
+
+}
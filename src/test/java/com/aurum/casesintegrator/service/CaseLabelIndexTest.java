@@ -0,0 +1,166 @@
+package com.aurum.casesintegrator.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.BDDMockito.given;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.aurum.casesintegrator.domain.AccessType;
+import com.aurum.casesintegrator.domain.Case;
+import com.aurum.casesintegrator.domain.CaseCriteria;
+import com.aurum.casesintegrator.service.cache.CriteriaCacheKey;
+import com.aurum.casesintegrator.service.event.CasesChangedEvent;
+import com.aurum.casesintegrator.service.index.CaseIndexFeed;
+import com.aurum.casesintegrator.service.index.CaseLabelIndex;
+import com.aurum.casesintegrator.service.range.DateRangeResolver;
+import com.aurum.casesintegrator.service.strategy.PageCursor;
+
+import reactor.core.publisher.Flux;
+
+@DisplayName("[CaseLabelIndex] - Unit Tests for label bitmap index")
+public class CaseLabelIndexTest extends CaseServiceBase {
+
+    private static final long CREATED_AT = 1587438000000L;
+    private static final LocalDate CASE_DAY = Instant.ofEpochMilli(CREATED_AT).atZone(ZoneId.systemDefault()).toLocalDate();
+
+    @Autowired
+    private DateRangeResolver dateRangeResolver;
+
+    @Test
+    public void search_shouldEvaluateAndOrNotOverLabels() {
+        final Case redImportant = caseOf("1", "Mike", List.of("important", "red"));
+        final Case blueImportant = caseOf("2", "Mike", List.of("important", "blue"));
+        final Case archived = caseOf("3", "Mike", List.of("important", "red", "archived"));
+        final Case redOnly = caseOf("4", "Mike", List.of("red"));
+        final CaseLabelIndex index = indexOf(redImportant, blueImportant, archived, redOnly);
+
+        final List<Case> found = search(index, keyOf(criteria().labelExpression("important AND (red OR blue) AND NOT archived")));
+
+        assertThat(found).containsExactly(blueImportant, redImportant);
+    }
+
+    @Test
+    public void search_shouldCombineExpressionWithStructuredFiltersAndPage() {
+        final Case first = caseOf("1", "Mike", List.of("red"));
+        final Case second = caseOf("2", "Mike", List.of("red"));
+        final Case otherCustomer = caseOf("3", "Eddie", List.of("red"));
+        final CaseLabelIndex index = indexOf(first, second, otherCustomer);
+
+        final CaseCriteria.CaseCriteriaBuilder criteria = criteria().labelExpression("red").customer("Mike").limit(1);
+
+        assertThat(index.count(keyOf(criteria.page(0)))).isEqualTo(2);
+        assertThat(search(index, keyOf(criteria.page(0)))).containsExactly(second);
+        assertThat(search(index, keyOf(criteria.page(1)))).containsExactly(first);
+    }
+
+    @Test
+    public void search_shouldReflectUpdatedLabels() {
+        final Case caseSample = caseOf("1", "Mike", List.of("red"));
+        final Case updatedCase = caseOf("1", "Mike", List.of("blue"));
+        final CaseLabelIndex index = indexOf(caseSample);
+
+        index.onCasesChanged(CasesChangedEvent.updated(caseSample, updatedCase));
+        givenStoredCases(updatedCase);
+
+        assertThat(search(index, keyOf(criteria().labelExpression("red")))).isEmpty();
+        assertThat(search(index, keyOf(criteria().labelExpression("NOT red")))).containsExactly(updatedCase);
+    }
+
+    @Test
+    public void search_shouldFillPageWhenIndexedCasesNoLongerMatchAsStored() {
+        final Case first = caseOf("1", "Mike", List.of("red"));
+        final Case second = caseOf("2", "Mike", List.of("red"));
+        final Case changedElsewhere = caseOf("3", "Mike", List.of("red"));
+        final CaseLabelIndex index = indexOf(first, second, changedElsewhere);
+        givenStoredCases(first, second, caseOf("3", "Mike", List.of("blue")));
+
+        final CaseCriteria.CaseCriteriaBuilder criteria = criteria().labelExpression("red").limit(1);
+
+        assertThat(search(index, keyOf(criteria.page(0)))).containsExactly(second);
+        assertThat(search(index, keyOf(criteria.page(1)))).containsExactly(first);
+    }
+
+    @Test
+    public void search_shouldResumeAfterCursorWithinDatesAndEndWithUndatedCases() {
+        final Case newest = caseOf("1", "Mike", List.of("red"));
+        newest.setCreatedAtInstant(CREATED_AT + 2);
+        final Case tiedHigherId = caseOf("3", "Mike", List.of("red"));
+        final Case tiedLowerId = caseOf("2", "Mike", List.of("red"));
+        final Case outOfDates = caseOf("4", "Mike", List.of("red"));
+        outOfDates.setCreatedAtInstant(CREATED_AT - Duration.ofDays(10).toMillis());
+        final Case undated = caseOf("5", "Mike", List.of("red"));
+        undated.setCreatedAtInstant(null);
+        final CaseLabelIndex index = indexOf(undated, outOfDates, tiedLowerId, tiedHigherId, newest);
+
+        final CaseCriteria.CaseCriteriaBuilder criteria = criteria().labelExpression("red").limit(2);
+        final String cursor = new PageCursor(CREATED_AT, 1, "3").encode();
+
+        assertThat(search(index, keyOf(criteria))).containsExactly(newest, tiedHigherId);
+        assertThat(search(index, keyOf(criteria.cursor(cursor)))).containsExactly(tiedLowerId, undated);
+    }
+
+    @Test
+    public void canSearch_shouldLeaveTextQueriesToOtherPaths() {
+        final CaseLabelIndex index = indexOf(caseOf("1", "Mike", List.of("red")));
+
+        assertThat(index.canSearch(keyOf(criteria().labelExpression("red")))).isTrue();
+        assertThat(index.canSearch(keyOf(criteria().labelExpression("red").title("sample")))).isFalse();
+        assertThat(index.canSearch(keyOf(criteria().labels(List.of("red"))))).isFalse();
+    }
+
+    @Test
+    public void keyOf_shouldRejectMalformedExpression() {
+        assertThatThrownBy(() -> keyOf(criteria().labelExpression("red AND (blue")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Invalid label expression");
+    }
+
+    private CaseLabelIndex indexOf(final Case... cases) {
+        given(super.caseRepository.findAll()).willReturn(Flux.just(cases));
+        givenStoredCases(cases);
+        final CaseLabelIndex index = new CaseLabelIndex(super.caseRepository, true, 100);
+        new CaseIndexFeed(super.caseRepository, List.of(index), 60000).bootstrap();
+        return index;
+    }
+
+    private static List<Case> search(final CaseLabelIndex index, final CriteriaCacheKey key) {
+        return index.search(key, documentsRead -> {}).collectList().block();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenStoredCases(final Case... cases) {
+        final Map<String, Case> stored = Stream.of(cases).collect(Collectors.toMap(Case::getId, Function.identity()));
+        given(super.caseRepository.findAllById(anyIterable())).willAnswer(invocation -> Flux.fromStream(
+                StreamSupport.stream(((Iterable<String>) invocation.getArgument(0)).spliterator(), false).map(stored::get).filter(Objects::nonNull)));
+    }
+
+    private CriteriaCacheKey keyOf(final CaseCriteria.CaseCriteriaBuilder builder) {
+        final CaseCriteria criteria = builder.build();
+        return CriteriaCacheKey.of(criteria, this.dateRangeResolver.resolve(criteria));
+    }
+
+    private static CaseCriteria.CaseCriteriaBuilder criteria() {
+        return CaseCriteria.builder().from(CASE_DAY).to(CASE_DAY).limit(100);
+    }
+
+    private static Case caseOf(final String id, final String customer, final List<String> labels) {
+        return new Case(id, null, customer, "Sample case", labels, null, null, "Eddie Vedder", AccessType.PUBLIC, CREATED_AT);
+    }
+
+}
@@ -0,0 +1,62 @@
+package com.aurum.casesintegrator.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.aurum.casesintegrator.domain.AccessType;
+import com.aurum.casesintegrator.domain.Case;
+import com.aurum.casesintegrator.service.lookup.CaseLookupBatcher;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@DisplayName("[CaseLookupBatcher] - Unit Tests for batched case lookups")
+public class CaseLookupBatcherTest extends CaseServiceBase {
+
+    @Test
+    public void load_shouldReadConcurrentLookupsWithOneFindAllById() {
+        final CaseLookupBatcher batcher = new CaseLookupBatcher(super.caseRepository, 50, 100);
+        given(super.caseRepository.findAllById(List.of("1", "2", "3"))).willReturn(Flux.just(caseOf("2"), caseOf("1")));
+
+        final List<Case> found = Flux.merge(batcher.load("1"), batcher.load("2"), batcher.load("1"), batcher.load("3"))
+                .collectList()
+                .block();
+
+        assertThat(found).extracting(Case::getId).containsExactlyInAnyOrder("1", "2", "1");
+        verify(super.caseRepository, times(1)).findAllById(List.of("1", "2", "3"));
+        verify(super.caseRepository, never()).findById("1");
+    }
+
+    @Test
+    public void load_shouldDispatchAsSoonAsTheBatchIsFull() {
+        final CaseLookupBatcher batcher = new CaseLookupBatcher(super.caseRepository, 60000, 2);
+        given(super.caseRepository.findAllById(anyIterable())).willReturn(Flux.just(caseOf("1"), caseOf("2")));
+
+        final List<Case> found = Flux.merge(batcher.load("1"), batcher.load("2")).collectList().block();
+
+        assertThat(found).hasSize(2);
+    }
+
+    @Test
+    public void load_shouldReadASingleIdWithFindById() {
+        final CaseLookupBatcher batcher = new CaseLookupBatcher(super.caseRepository, 1, 100);
+        given(super.caseRepository.findById("1")).willReturn(Mono.just(caseOf("1")));
+
+        assertThat(batcher.load("1").block().getId()).isEqualTo("1");
+        verify(super.caseRepository, never()).findAllById(anyIterable());
+    }
+
+    private Case caseOf(final String id) {
+        return new Case(id, null, "Mike", "Sample case", List.of(), null, null, "Eddie Vedder", AccessType.PUBLIC, null);
+    }
+
+}
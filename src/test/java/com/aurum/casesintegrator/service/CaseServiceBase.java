@@ -7,9 +7,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 
+import com.aurum.casesintegrator.repository.CaseCounterRepository;
 import com.aurum.casesintegrator.repository.CaseRepository;
+import com.aurum.casesintegrator.repository.ImportJobRepository;
+import com.aurum.casesintegrator.service.cache.CaseEntityCache;
+import com.aurum.casesintegrator.service.cache.CriteriaResultCache;
 
-@SpringBootTest
+@SpringBootTest(properties = {"import.jobs.resume-interrupted=false", "import.jobs.payload.store=file", "spring.cloud.gcp.storage.enabled=false", "text.index.enabled=false", "label.index.enabled=false", "planner.statistics.enabled=false"})
 @DisplayName("[CaseService] - Unit Tests for Cases Services")
 public class CaseServiceBase {
 
@@ -19,9 +23,26 @@ public class CaseServiceBase {
     @MockBean
     protected CaseRepository caseRepository;
 
+    @MockBean
+    protected ImportJobRepository importJobRepository;
+
+    @MockBean
+    protected CaseCounterRepository caseCounterRepository;
+
+    @MockBean
+    protected ImportJobCoordinator importJobCoordinator;
+
+    @Autowired
+    protected CriteriaResultCache criteriaResultCache;
+
+    @Autowired
+    protected CaseEntityCache caseEntityCache;
+
     @AfterEach
     public void tearDown() {
-        Mockito.reset(this.caseRepository);
+        Mockito.reset(this.caseRepository, this.importJobRepository, this.caseCounterRepository, this.importJobCoordinator);
+        this.criteriaResultCache.invalidateAll();
+        this.caseEntityCache.invalidateAll();
     }
 
 }
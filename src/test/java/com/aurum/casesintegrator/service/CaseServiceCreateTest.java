@@ -1,8 +1,11 @@
 package com.aurum.casesintegrator.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 import java.util.ArrayList;
@@ -19,13 +22,12 @@ import com.aurum.casesintegrator.domain.Case;
 import com.aurum.casesintegrator.util.DateUtil;
 
 import reactor.core.publisher.Flux;
-import reactor.core.publisher.Mono;
 
 @DisplayName("[CaseService] - Unit Tests for create Cases")
 public class CaseServiceCreateTest extends CaseServiceBase {
 
     @Test
-    public void create_shouldCallRepositoryToCreateASingleCase() throws InstanceAlreadyExistsException {
+    public void create_shouldCallRepositoryToCreateASingleCase() {
         /* Given */
         final List<Case> cases = List.of(new Case(null,
                 "O34398",
@@ -60,9 +62,36 @@ public class CaseServiceCreateTest extends CaseServiceBase {
         final Flux<Case> createdCases = super.caseService.create(cases);
 
         /* Then */
-        verify(super.caseRepository).saveAll(cases);
         assertThat(createdCases).isNotNull();
         assertThat(createdCases.blockFirst().getId()).isNotNull();
+        verify(super.caseRepository).saveAll(cases);
+    }
+
+    @Test
+    public void create_shouldWriteOnlyOnceWhenResultIsConsumedMoreThanOnce() {
+        /* Given */
+        final List<Case> cases = List.of(new Case(null,
+                "O34398",
+                "Clayton",
+                "Some case",
+                List.of("important"),
+                "Some description",
+                "Is someone getting the best of you...",
+                "SRV",
+                AccessType.PUBLIC,
+                DateUtil.getCurrentDateInstantZero())
+        );
+        given(super.caseRepository.saveAll(cases)).willReturn(Flux.fromIterable(cases));
+
+        /* When */
+        final Flux<Case> createdCases = super.caseService.create(cases);
+        final long createdCount = createdCases.count().block();
+        final Case firstCreated = createdCases.blockFirst();
+
+        /* Then */
+        verify(super.caseRepository, times(1)).saveAll(cases);
+        assertThat(createdCount).isEqualTo(1);
+        assertThat(firstCreated.getId()).isNotNull();
     }
 
     @Test
@@ -71,27 +100,44 @@ public class CaseServiceCreateTest extends CaseServiceBase {
         final List<Case> duplicatedCases = getMockedDuplicatedCases(sameId);
         given(super.caseRepository.findAllById(Set.of(sameId))).willReturn(Flux.just(duplicatedCases.get(0)));
 
-        assertThrows(InstanceAlreadyExistsException.class, () -> super.caseService.create(duplicatedCases));
+        assertThatThrownBy(() -> super.caseService.create(duplicatedCases).blockLast())
+                .hasCauseInstanceOf(InstanceAlreadyExistsException.class);
+        verify(super.caseRepository, never()).saveAll(anyList());
     }
 
     @Test
-    public void create_shouldCallRepositoryToSaveOnlyOneCase() throws InstanceAlreadyExistsException {
+    public void create_shouldCallRepositoryToSaveOnlyOneCase() {
         /* Given */
         final String sameId = "1";
         final int expectedCasesNumber = getMockedDuplicatedCases(sameId).size();
         final List<Case> duplicatedCases = getMockedDuplicatedCases(sameId);
         final Case originalCase = duplicatedCases.get(0);
         given(super.caseRepository.findAllById(Set.of(sameId))).willReturn(Flux.empty());
-        given(super.caseRepository.save(originalCase)).willReturn(Mono.just(originalCase));
+        given(super.caseRepository.saveAll(List.of(originalCase))).willReturn(Flux.just(originalCase));
 
         /* When */
-        final Flux<Case> createdCases = super.caseService.create(duplicatedCases);
+        final List<Case> createdCases = super.caseService.create(duplicatedCases).collectList().block();
 
         /* Then */
-        verify(super.caseRepository).save(originalCase);
-        assertThat(createdCases.toStream()).hasSize(expectedCasesNumber);
-        assertThat(createdCases).isNotNull();
-        assertThat(createdCases.blockFirst().getId()).isNotNull();
+        verify(super.caseRepository).findAllById(Set.of(sameId));
+        verify(super.caseRepository).saveAll(List.of(originalCase));
+        assertThat(createdCases).hasSize(expectedCasesNumber);
+        assertThat(createdCases.get(0).getId()).isNotNull();
+        assertThat(createdCases.subList(1, expectedCasesNumber)).allMatch(c -> c.getId() == null);
+    }
+
+    @Test
+    public void create_shouldStampStartOfCurrentDay() {
+        /* Given */
+        final List<Case> cases = List.of(new Case(null, "O34398", "Clayton", "Some case", List.of("important"), "Some description",
+                "Is someone getting the best of you...", "SRV", AccessType.PUBLIC, null));
+        given(super.caseRepository.saveAll(anyList())).willAnswer(invocation -> Flux.fromIterable(invocation.getArgument(0)));
+
+        /* When */
+        final Case created = super.caseService.create(cases).blockFirst();
+
+        /* Then */
+        assertThat(created.getCreatedAtInstant()).isEqualTo(DateUtil.getCurrentDateInstantZero());
     }
 
     private ArrayList<Case> getMockedDuplicatedCases(final String sameId) {
@@ -0,0 +1,87 @@
+package com.aurum.casesintegrator.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpStatus;
+
+import com.aurum.casesintegrator.domain.AccessType;
+import com.aurum.casesintegrator.domain.Case;
+import com.aurum.casesintegrator.domain.CaseLookupResult;
+
+import reactor.core.publisher.Flux;
+
+@DisplayName("[CaseService] - Unit Tests for find many Cases by id")
+public class CaseServiceFindAllByIdTest extends CaseServiceBase {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void findAllById_shouldReadInChunksAndKeepRequestOrder() {
+        final List<String> ids = IntStream.range(0, 250).mapToObj(String::valueOf).collect(Collectors.toList());
+        given(super.caseRepository.findAllById(anyIterable())).willAnswer(invocation -> {
+            final List<Case> found = new ArrayList<>();
+            ((Iterable<String>) invocation.getArgument(0)).forEach(id -> {
+                if (!"7".equals(id)) {
+                    found.add(caseOf(id));
+                }
+            });
+            Collections.reverse(found);
+            return Flux.fromIterable(found);
+        });
+
+        final List<CaseLookupResult> results = super.caseService.findAllById(ids).collectList().block();
+
+        assertThat(results).extracting(CaseLookupResult::getId).isEqualTo(ids);
+        assertThat(results.get(7).getStatus()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(results.get(7).getSingleCase()).isNull();
+        assertThat(results.get(8).getStatus()).isEqualTo(HttpStatus.OK);
+        assertThat(results.get(8).getSingleCase().getId()).isEqualTo("8");
+        verify(super.caseRepository, times(3)).findAllById(anyIterable());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void findAllById_shouldReadOnlyCacheMissesAndCacheWhatWasRead() {
+        super.caseEntityCache.put(caseOf("1"));
+        given(super.caseRepository.findAllById(anyIterable())).willAnswer(invocation -> {
+            final List<Case> found = new ArrayList<>();
+            ((Iterable<String>) invocation.getArgument(0)).forEach(id -> found.add(caseOf(id)));
+            return Flux.fromIterable(found);
+        });
+
+        final List<CaseLookupResult> first = super.caseService.findAllById(List.of("1", "2", "3")).collectList().block();
+        final List<CaseLookupResult> second = super.caseService.findAllById(List.of("3", "2", "1")).collectList().block();
+
+        final ArgumentCaptor<Iterable<String>> read = ArgumentCaptor.forClass(Iterable.class);
+        verify(super.caseRepository, times(1)).findAllById(read.capture());
+        assertThat(read.getValue()).containsExactlyInAnyOrder("2", "3");
+        assertThat(first).extracting(CaseLookupResult::getStatus).containsOnly(HttpStatus.OK);
+        assertThat(second).extracting(CaseLookupResult::getId).containsExactly("3", "2", "1");
+        assertThat(second).extracting(CaseLookupResult::getStatus).containsOnly(HttpStatus.OK);
+    }
+
+    @Test
+    public void findAllById_shouldRejectEmptyRequests() {
+        assertThatThrownBy(() -> super.caseService.findAllById(List.of()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Between 1 and 1000 ids must be requested.");
+    }
+
+    private Case caseOf(final String id) {
+        return new Case(id, null, "Mike", "Sample case", List.of(), null, null, "Eddie Vedder", AccessType.PUBLIC, null);
+    }
+
+}
@@ -0,0 +1,96 @@
+package com.aurum.casesintegrator.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import com.aurum.casesintegrator.domain.Case;
+import com.aurum.casesintegrator.domain.CaseCriteria;
+import com.aurum.casesintegrator.util.FileUtil;
+import com.aurum.casesintegrator.util.JsonUtil;
+import com.fasterxml.jackson.core.type.TypeReference;
+
+import reactor.core.publisher.Flux;
+
+@DisplayName("[CaseService] - Unit Tests for cached find Cases by criteria")
+public class CaseServiceFindByCriteriaCacheTest extends CaseServiceBase {
+
+    @Test
+    public void findByCriteria_shouldQueryRepositoryOnceForEquivalentCriteria() {
+        /* Given */
+        final Case caseSample = JsonUtil.fromString(FileUtil.readFile("samples/LegalCaseIdAlreadyFilledSample.json"), new TypeReference<>() {});
+        given(super.caseRepository.findByCustomerAndLabelsContainingAndCreatedAtInstantGreaterThanEqualAndCreatedAtInstantLessThanEqual(
+                anyString(), anyList(), anyLong(), anyLong(), any(Pageable.class)
+        )).willReturn(Flux.just(caseSample));
+
+        /* When */
+        final Flux<Case> first = super.caseService.findByCriteria(criteria("Mike", List.of("red", "important")));
+        final Flux<Case> concurrent = super.caseService.findByCriteria(criteria("Mike", List.of("important", "red", "red")));
+        final List<Case> firstCases = first.collectList().block();
+        final List<Case> concurrentCases = concurrent.collectList().block();
+        final List<Case> cachedCases = super.caseService.findByCriteria(criteria(" Mike", List.of(" red", "important "))).collectList().block();
+
+        /* Then */
+        assertThat(firstCases).containsExactly(caseSample);
+        assertThat(concurrentCases).containsExactly(caseSample);
+        assertThat(cachedCases).containsExactly(caseSample);
+        verify(super.caseRepository, times(1)).findByCustomerAndLabelsContainingAndCreatedAtInstantGreaterThanEqualAndCreatedAtInstantLessThanEqual(
+                eq("Mike"), eq(List.of("important", "red")), anyLong(), anyLong(), any(Pageable.class)
+        );
+    }
+
+    @Test
+    public void findByCriteria_shouldQueryRepositoryWithTrimmedCriteria() {
+        /* Given */
+        given(super.caseRepository.findByCustomerAndLabelsContainingAndCreatedAtInstantGreaterThanEqualAndCreatedAtInstantLessThanEqual(
+                anyString(), anyList(), anyLong(), anyLong(), any(Pageable.class)
+        )).willReturn(Flux.empty());
+
+        /* When */
+        super.caseService.findByCriteria(criteria("  Mike ", List.of(" red ", "  ", "red"))).collectList().block();
+
+        /* Then */
+        verify(super.caseRepository).findByCustomerAndLabelsContainingAndCreatedAtInstantGreaterThanEqualAndCreatedAtInstantLessThanEqual(
+                eq("Mike"), eq(List.of("red")), anyLong(), anyLong(), any(Pageable.class)
+        );
+    }
+
+    @Test
+    public void findByCriteria_shouldQueryRepositoryAgainAfterMatchingCaseIsCreated() {
+        /* Given */
+        final Case caseSample = JsonUtil.fromString(FileUtil.readFile("samples/LegalCaseFullSample.json"), new TypeReference<>() {});
+        caseSample.setCustomer("Mike");
+        given(super.caseRepository.findByCustomerAndLabelsContainingAndCreatedAtInstantGreaterThanEqualAndCreatedAtInstantLessThanEqual(
+                anyString(), anyList(), anyLong(), anyLong(), any(Pageable.class)
+        )).willReturn(Flux.empty());
+        given(super.caseRepository.saveAll(anyList())).willAnswer(invocation -> Flux.fromIterable(invocation.getArgument(0)));
+        super.caseService.findByCriteria(criteria("Mike", List.of("important"))).collectList().block();
+
+        /* When */
+        super.caseService.create(List.of(caseSample)).blockLast();
+        super.caseService.findByCriteria(criteria("Mike", List.of("important"))).collectList().block();
+
+        /* Then */
+        verify(super.caseRepository, times(2)).findByCustomerAndLabelsContainingAndCreatedAtInstantGreaterThanEqualAndCreatedAtInstantLessThanEqual(
+                anyString(), anyList(), anyLong(), anyLong(), any(Pageable.class)
+        );
+    }
+
+    private CaseCriteria criteria(final String customer, final List<String> labels) {
+        return CaseCriteria.builder().customer(customer).labels(labels).from(LocalDate.now()).to(LocalDate.now()).limit(100).build();
+    }
+
+}
@@ -0,0 +1,109 @@
+package com.aurum.casesintegrator.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import com.aurum.casesintegrator.domain.Case;
+import com.aurum.casesintegrator.domain.CaseCriteria;
+import com.aurum.casesintegrator.domain.CasePage;
+import com.aurum.casesintegrator.service.strategy.OffsetPageRequest;
+import com.aurum.casesintegrator.service.strategy.PageCursor;
+import com.aurum.casesintegrator.util.FileUtil;
+import com.aurum.casesintegrator.util.JsonUtil;
+import com.fasterxml.jackson.core.type.TypeReference;
+
+import reactor.core.publisher.Flux;
+
+@DisplayName("[CaseService] - Unit Tests for find Cases by criteria with page cursors")
+public class CaseServiceFindByCriteriaCursorTest extends CaseServiceBase {
+
+    private static final long CREATED_AT = 1587351600000L;
+
+    @Test
+    public void findPageByCriteria_shouldResumeAfterCursorWithoutReadingSkippedPages() {
+        givenStoredCases(JsonUtil.fromString(FileUtil.readFile("samples/FullCasesSample.json"), new TypeReference<>() {}));
+
+        final CasePage firstPage = super.caseService.findPageByCriteria(criteria(null)).block();
+        final CasePage secondPage = super.caseService.findPageByCriteria(criteria(firstPage.getNextCursor())).block();
+
+        assertThat(firstPage.getCases()).extracting(Case::getId)
+                .containsExactly("0088aec5-d272-47f7-b69c-36f89a2e975a", "00caafb2-2015-4a59-b7cd-0ee9f63572d8");
+        assertThat(secondPage.getCases()).extracting(Case::getId)
+                .containsExactly("0302a73e-219c-4c12-96b7-b27e865a3696", "0434dcb0-7797-4c8c-8484-2bace3633a80");
+        verify(super.caseRepository).findByCustomerAndCreatedAtInstantGreaterThanEqualAndCreatedAtInstantLessThanEqual(
+                anyString(), eq(CREATED_AT), anyLong(), eq(new OffsetPageRequest(2, 2)));
+    }
+
+    @Test
+    public void findPageByCriteria_shouldDropTiesAlreadyReadWhenCursorTiesFallShort() {
+        givenStoredCases(JsonUtil.fromString(FileUtil.readFile("samples/FullCasesSample.json"), new TypeReference<>() {}));
+        final String cursor = new PageCursor(CREATED_AT, 1, "00caafb2-2015-4a59-b7cd-0ee9f63572d8").encode();
+
+        final CasePage page = super.caseService.findPageByCriteria(criteria(cursor)).block();
+        final CasePage lastPage = super.caseService.findPageByCriteria(criteria(page.getNextCursor())).block();
+
+        assertThat(page.getCases()).extracting(Case::getId).containsExactly("0302a73e-219c-4c12-96b7-b27e865a3696");
+        assertThat(lastPage.getCases()).extracting(Case::getId).containsExactly("0434dcb0-7797-4c8c-8484-2bace3633a80");
+        assertThat(lastPage.getNextCursor()).isNull();
+    }
+
+    @Test
+    public void findPageByCriteria_shouldResumeAfterLastCaseReadWhenTextFiltersShortenThePage() {
+        givenStoredCases(JsonUtil.fromString(FileUtil.readFile("samples/FullCasesSample.json"), new TypeReference<>() {}));
+
+        final CasePage firstPage = super.caseService.findPageByCriteria(criteria(null).toBuilder().title("Est").build()).block();
+        final CasePage secondPage = super.caseService.findPageByCriteria(criteria(firstPage.getNextCursor()).toBuilder().title("Est").build()).block();
+
+        assertThat(firstPage.getCases()).extracting(Case::getId).containsExactly("00caafb2-2015-4a59-b7cd-0ee9f63572d8");
+        assertThat(firstPage.getNextCursor()).isNotNull();
+        assertThat(secondPage.getCases()).isEmpty();
+        verify(super.caseRepository).findByCustomerAndCreatedAtInstantGreaterThanEqualAndCreatedAtInstantLessThanEqual(
+                anyString(), eq(CREATED_AT), anyLong(), eq(new OffsetPageRequest(2, 2)));
+    }
+
+    @Test
+    public void findByCriteria_shouldThrowIllegalArgumentExceptionForInvalidCursor() {
+        assertThrows(IllegalArgumentException.class, () -> super.caseService.findByCriteria(criteria("not a cursor")));
+    }
+
+    private static CaseCriteria criteria(final String cursor) {
+        return CaseCriteria.builder()
+                .customer("Mike McCready")
+                .from(LocalDate.of(2020, 4, 19))
+                .to(LocalDate.of(2020, 4, 21))
+                .limit(2)
+                .cursor(cursor)
+                .build();
+    }
+
+    /**
+     * Serves the cases in the order of the customer finder: every case shares the same createdAt, so they are
+     * ordered by id.
+     */
+    private void givenStoredCases(final List<Case> storedCases) {
+        given(super.caseRepository.findByCustomerAndCreatedAtInstantGreaterThanEqualAndCreatedAtInstantLessThanEqual(
+                anyString(),
+                anyLong(),
+                anyLong(),
+                any(Pageable.class)
+        )).willAnswer(invocation -> {
+            final Pageable pageable = invocation.getArgument(3);
+            final int from = (int) Math.min(pageable.getOffset(), storedCases.size());
+            return Flux.fromIterable(storedCases.subList(from, Math.min(from + pageable.getPageSize(), storedCases.size())));
+        });
+    }
+
+}
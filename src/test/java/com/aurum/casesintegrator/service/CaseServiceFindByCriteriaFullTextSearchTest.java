@@ -3,22 +3,33 @@ package com.aurum.casesintegrator.service;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.ZoneId;
+import java.util.Comparator;
 import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
+import com.aurum.casesintegrator.domain.AccessType;
 import com.aurum.casesintegrator.domain.Case;
 import com.aurum.casesintegrator.domain.CaseCriteria;
+import com.aurum.casesintegrator.domain.QueryExplanation;
 import com.aurum.casesintegrator.util.DateUtil;
 import com.aurum.casesintegrator.util.FileUtil;
 import com.aurum.casesintegrator.util.JsonUtil;
@@ -29,6 +40,12 @@ import reactor.core.publisher.Flux;
 @DisplayName("[CaseService] - Unit Tests for find Cases by criteria and full text searching")
 public class CaseServiceFindByCriteriaFullTextSearchTest extends CaseServiceBase {
 
+    @Value("${scan.batch.size}")
+    private int batchSize;
+
+    @Value("${scan.read.budget}")
+    private long readBudget;
+
     @Test
     public void findByCriteria_shouldFilterByDescription() {
         final CaseCriteria caseCriteria = CaseCriteria.builder()
@@ -76,6 +93,23 @@ public class CaseServiceFindByCriteriaFullTextSearchTest extends CaseServiceBase
         assertThat(foundCases.collectList().block()).isEqualTo(List.of(caseSample));
     }
 
+    @Test
+    public void findByCriteria_shouldFilterIgnoringCaseAndAccents() {
+        final CaseCriteria caseCriteria = CaseCriteria.builder()
+                .title("FÚLL SÂMPLE").description("ABOUT").from(LocalDate.now()).to(LocalDate.now()).limit(100).build();
+        final Case caseSample = JsonUtil.fromString(FileUtil.readFile("samples/LegalCaseIdAlreadyFilledSample.json"), new TypeReference<>() {});
+
+        given(super.caseRepository.findByCreatedAtInstantGreaterThanEqualAndCreatedAtInstantLessThanEqualOrderByCreatedAtInstantDesc(
+                anyLong(),
+                anyLong(),
+                eq(PageRequest.of(0, 100))
+        )).willReturn(Flux.just(caseSample));
+
+        final Flux<Case> foundCases = super.caseService.findByCriteria(caseCriteria);
+
+        assertThat(foundCases.collectList().block()).isEqualTo(List.of(caseSample));
+    }
+
     @Test
     public void findByCriteria_shouldFilterByDescriptionAndTitleAndFolderReturningEmptyTitleDoesNotExist() {
         final CaseCriteria caseCriteria = CaseCriteria.builder()
@@ -147,35 +181,47 @@ public class CaseServiceFindByCriteriaFullTextSearchTest extends CaseServiceBase
     }
 
     @Test
-    public void findByCriteria_shouldFilterByTitleCallingRepositoryUntilFindSomeOrThereIsNoMoreRecords() {
+    public void findByCriteria_shouldFilterByTitleScanningBatchesUntilThereAreNoMoreRecords() {
         final CaseCriteria caseCriteria = CaseCriteria.builder()
-                .title("Est").from(LocalDate.now()).to(LocalDate.now()).limit(100).build();
-        final List<Case> caseSamplePage1 = JsonUtil.fromString(FileUtil.readFile("samples/OnlyRequiredFieldsSample.json"), new TypeReference<>() {});
-        final List<Case> caseSamplePage2 = JsonUtil.fromString(FileUtil.readFile("samples/BatchCasesMixedIdsNoConflictsSample.json"), new TypeReference<>() {});
-        final List<Case> caseSamplePage3 = JsonUtil.fromString(FileUtil.readFile("samples/FullCasesSample.json"), new TypeReference<>() {});
+                .title("Est").from(LocalDate.now()).to(LocalDate.now()).limit(2).build();
+        final List<Case> storedCases = casesSharingCreatedAt(this.batchSize * 2 + this.batchSize / 2);
+        storedCases.get(0).setTitle("Est PC");
+        givenStoredCases(storedCases);
 
-        given(super.caseRepository.findByCreatedAtInstantGreaterThanEqualAndCreatedAtInstantLessThanEqualOrderByCreatedAtInstantDesc(
-                anyLong(),
-                anyLong(),
-                eq(PageRequest.of(0, 100))
-        )).willReturn(Flux.fromIterable(caseSamplePage1));
+        final List<Case> foundCases = super.caseService.findByCriteria(caseCriteria).collectList().block();
 
-        given(super.caseRepository.findByCreatedAtInstantGreaterThanEqualAndCreatedAtInstantLessThanEqualOrderByCreatedAtInstantDesc(
-                anyLong(),
-                anyLong(),
-                eq(PageRequest.of(1, 100))
-        )).willReturn(Flux.fromIterable(caseSamplePage2));
+        assertThat(foundCases).extracting(Case::getId).containsExactly(storedCases.get(0).getId());
+        verify(super.caseRepository, times(2)).findByCreatedAtInstantAndIdLessThanOrderByIdDesc(
+                anyLong(), anyString(), eq(PageRequest.of(0, this.batchSize)));
+    }
 
-        given(super.caseRepository.findByCreatedAtInstantGreaterThanEqualAndCreatedAtInstantLessThanEqualOrderByCreatedAtInstantDesc(
-                anyLong(),
-                anyLong(),
-                eq(PageRequest.of(2, 100))
-        )).willReturn(Flux.fromIterable(caseSamplePage3));
+    @Test
+    public void findByCriteria_shouldStopScanningAsSoonAsPageIsFilled() {
+        final CaseCriteria caseCriteria = CaseCriteria.builder()
+                .title("Est").from(LocalDate.now()).to(LocalDate.now()).limit(1).build();
+        final List<Case> storedCases = casesSharingCreatedAt(this.batchSize * 2);
+        final Case newest = storedCases.get(storedCases.size() - 1);
+        newest.setTitle("Est PC");
+        givenStoredCases(storedCases);
 
-        final Flux<Case> foundCases = super.caseService.findByCriteria(caseCriteria);
+        final List<Case> foundCases = super.caseService.findByCriteria(caseCriteria).collectList().block();
 
-        assertThat(foundCases.collectList().block()).hasSize(1);
-        assertThat(foundCases.blockFirst().getId()).isEqualTo("00caafb2-2015-4a59-b7cd-0ee9f63572d8");
+        assertThat(foundCases).extracting(Case::getId).containsExactly(newest.getId());
+        verify(super.caseRepository, never()).findByCreatedAtInstantAndIdLessThanOrderByIdDesc(anyLong(), anyString(), any(Pageable.class));
+    }
+
+    @Test
+    public void findByCriteria_shouldStopScanningWhenReadBudgetIsSpent() {
+        final CaseCriteria caseCriteria = CaseCriteria.builder()
+                .title("Nothing").from(LocalDate.now()).to(LocalDate.now()).limit(2).build();
+        givenStoredCases(casesSharingCreatedAt((int) this.readBudget + this.batchSize * 2));
+
+        final QueryExplanation explanation = super.caseService.explain(caseCriteria).block();
+
+        assertThat(explanation.getReturned()).isZero();
+        assertThat(explanation.getDocumentsRead()).isEqualTo(this.readBudget);
+        verify(super.caseRepository, never()).findByCreatedAtInstantAndIdLessThanOrderByIdDesc(
+                anyLong(), anyString(), argThat(pageable -> pageable.getOffset() > 0));
     }
 
     @Test
@@ -196,5 +242,40 @@ public class CaseServiceFindByCriteriaFullTextSearchTest extends CaseServiceBase
         assertThat(foundCases.blockFirst().getId()).isEqualTo("00caafb2-2015-4a59-b7cd-0ee9f63572d8");
     }
 
+    /**
+     * Serves the cases like the createdAt index would, newest first and then by id descending, both from the start of
+     * a createdAt range and from the ties after an id.
+     */
+    private void givenStoredCases(final List<Case> storedCases) {
+        final List<Case> ordered = storedCases.stream()
+                .sorted(Comparator.comparing(Case::getCreatedAtInstant).thenComparing(Case::getId).reversed())
+                .collect(Collectors.toList());
+        given(super.caseRepository.findByCreatedAtInstantGreaterThanEqualAndCreatedAtInstantLessThanEqualOrderByCreatedAtInstantDesc(
+                anyLong(), anyLong(), any(Pageable.class)
+        )).willAnswer(invocation -> pageOf(ordered, invocation.getArgument(2), c -> c.getCreatedAtInstant() >= invocation.<Long>getArgument(0)
+                && c.getCreatedAtInstant() <= invocation.<Long>getArgument(1)));
+        given(super.caseRepository.findByCreatedAtInstantGreaterThanEqualAndCreatedAtInstantLessThanOrderByCreatedAtInstantDesc(
+                anyLong(), anyLong(), any(Pageable.class)
+        )).willAnswer(invocation -> pageOf(ordered, invocation.getArgument(2), c -> c.getCreatedAtInstant() >= invocation.<Long>getArgument(0)
+                && c.getCreatedAtInstant() < invocation.<Long>getArgument(1)));
+        given(super.caseRepository.findByCreatedAtInstantAndIdLessThanOrderByIdDesc(
+                anyLong(), anyString(), any(Pageable.class)
+        )).willAnswer(invocation -> pageOf(ordered, invocation.getArgument(2), c -> c.getCreatedAtInstant().equals(invocation.getArgument(0))
+                && c.getId().compareTo(invocation.getArgument(1)) < 0));
+    }
+
+    private static Flux<Case> pageOf(final List<Case> ordered, final Pageable pageable, final Predicate<Case> filter) {
+        return Flux.fromStream(ordered.stream().filter(filter).skip(pageable.getOffset()).limit(pageable.getPageSize()));
+    }
+
+    /**
+     * Cases created at the same instant of today, like the ones stored before creation times had full precision.
+     */
+    private static List<Case> casesSharingCreatedAt(final int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new Case(String.format("%05d", i), "C23", "Mike McCready", "Sample " + i, null, null, null, "Eddie Vedder",
+                        AccessType.PUBLIC, DateUtil.getCurrentDateInstantZero()))
+                .collect(Collectors.toList());
+    }
 
 }
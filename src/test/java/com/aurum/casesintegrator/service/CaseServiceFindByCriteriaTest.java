@@ -266,4 +266,27 @@ public class CaseServiceFindByCriteriaTest extends CaseServiceBase {
         org.assertj.core.api.Assertions.assertThat(foundCases.collectList().block()).isEqualTo(List.of(caseSample));
     }
 
+    @Test
+    public void findByCriteria_shouldSplitWideRangesAndKeepResultOrder() {
+        final CaseCriteria caseCriteria = CaseCriteria.builder().customer("Mike").from(LocalDate.now().minusDays(100)).to(LocalDate.now()).limit(2).build();
+        given(super.caseRepository.findByCustomerAndCreatedAtInstantGreaterThanEqualAndCreatedAtInstantLessThanEqual(
+                anyString(),
+                anyLong(),
+                anyLong(),
+                any(Pageable.class)
+        )).willAnswer(invocation -> {
+            final long startsAt = invocation.getArgument(1);
+            return Flux.just(new Case(String.valueOf(startsAt), null, "Mike", "Case", List.of(), null, null, "Eddie", null, startsAt));
+        });
+
+        final List<Case> foundCases = super.caseService.findByCriteria(caseCriteria).collectList().block();
+
+        verify(super.caseRepository, times(4)).findByCustomerAndCreatedAtInstantGreaterThanEqualAndCreatedAtInstantLessThanEqual(
+                anyString(), anyLong(), anyLong(), any(Pageable.class));
+        org.assertj.core.api.Assertions.assertThat(foundCases).hasSize(2);
+        org.assertj.core.api.Assertions.assertThat(foundCases.get(0).getCreatedAtInstant()).isLessThan(foundCases.get(1).getCreatedAtInstant());
+        org.assertj.core.api.Assertions.assertThat(foundCases.get(0).getCreatedAtInstant())
+                .isEqualTo(caseCriteria.getFrom().atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
 }
@@ -2,11 +2,17 @@ package com.aurum.casesintegrator.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import com.aurum.casesintegrator.domain.Case;
+import com.aurum.casesintegrator.service.cache.CaseEntityCache;
 import com.aurum.casesintegrator.util.FileUtil;
 import com.aurum.casesintegrator.util.JsonUtil;
 import com.fasterxml.jackson.core.type.TypeReference;
@@ -27,4 +33,125 @@ public class CaseServiceFindByIdTest extends CaseServiceBase {
         assertThat(foundCase.block()).isEqualTo(expectedCase);
     }
 
+    @Test
+    public void findById_shouldServeRepeatedLookupsFromCache() {
+        final String targetId = "870cd9a8-b07a-41f4-b8a6-7dcb8bec3344";
+        final Case expectedCase = JsonUtil.fromString(FileUtil.readFile("samples/LegalCaseIdAlreadyFilledSample.json"), new TypeReference<>() {});
+        given(super.caseRepository.findById(targetId)).willReturn(Mono.just(expectedCase));
+
+        super.caseService.findById(targetId).block();
+        final Case foundCase = super.caseService.findById(targetId).block();
+
+        assertThat(foundCase).isEqualTo(expectedCase);
+        verify(super.caseRepository, times(1)).findById(targetId);
+    }
+
+    @Test
+    public void findById_shouldRememberMissingCases() {
+        given(super.caseRepository.findById("missing")).willReturn(Mono.empty());
+
+        super.caseService.findById("missing").block();
+        final Case foundCase = super.caseService.findById("missing").block();
+
+        assertThat(foundCase).isNull();
+        verify(super.caseRepository, times(1)).findById("missing");
+    }
+
+    @Test
+    public void findStoredById_shouldReadStorageEvenWhenCachedAndRefreshTheCache() {
+        final Case cachedCase = JsonUtil.fromString(FileUtil.readFile("samples/LegalCaseIdAlreadyFilledSample.json"), new TypeReference<>() {});
+        final Case storedCase = JsonUtil.fromString(FileUtil.readFile("samples/LegalCaseIdAlreadyFilledSample.json"), new TypeReference<>() {});
+        storedCase.setTitle("Written by another instance");
+        super.caseEntityCache.put(cachedCase);
+        given(super.caseRepository.findById(storedCase.getId())).willReturn(Mono.just(storedCase));
+
+        final Case foundCase = super.caseService.findStoredById(storedCase.getId()).block();
+        final Case cachedAfterwards = super.caseService.findById(storedCase.getId()).block();
+
+        assertThat(foundCase.getTitle()).isEqualTo("Written by another instance");
+        assertThat(cachedAfterwards.getTitle()).isEqualTo("Written by another instance");
+        verify(super.caseRepository, times(1)).findById(storedCase.getId());
+    }
+
+    @Test
+    public void findRevalidatedById_shouldServeCaseJustConfirmedByStorageWithoutReadingAgain() {
+        final Case storedCase = JsonUtil.fromString(FileUtil.readFile("samples/LegalCaseIdAlreadyFilledSample.json"), new TypeReference<>() {});
+        given(super.caseRepository.findById(storedCase.getId())).willReturn(Mono.just(storedCase));
+
+        final Case firstFound = super.caseService.findRevalidatedById(storedCase.getId()).block();
+        final Case secondFound = super.caseService.findRevalidatedById(storedCase.getId()).block();
+
+        assertThat(firstFound).isEqualTo(storedCase);
+        assertThat(secondFound).isEqualTo(storedCase);
+        verify(super.caseRepository, times(1)).findById(storedCase.getId());
+    }
+
+    @Test
+    public void findById_shouldReturnUpdatedCaseWithoutGoingToRepository() {
+        final Case existingCase = JsonUtil.fromString(FileUtil.readFile("samples/LegalCaseIdAlreadyFilledSample.json"), new TypeReference<>() {});
+        final Case updatedCase = JsonUtil.fromString(FileUtil.readFile("samples/LegalCaseIdAlreadyFilledSample.json"), new TypeReference<>() {});
+        updatedCase.setTitle("Updated title");
+        given(super.caseRepository.findById(existingCase.getId())).willReturn(Mono.just(existingCase));
+        given(super.caseRepository.save(updatedCase)).willReturn(Mono.just(updatedCase));
+
+        super.caseService.updateAllFields(updatedCase).block();
+        final Case foundCase = super.caseService.findById(existingCase.getId()).block();
+
+        assertThat(foundCase.getTitle()).isEqualTo("Updated title");
+        verify(super.caseRepository, times(1)).findById(existingCase.getId());
+    }
+
+    @Test
+    public void findById_shouldServeCasesFromWarmTierWhenEvictedFromHotTier() throws Exception {
+        final Path warmFile = Files.createTempFile("cases-entity-cache", ".bin");
+        final CaseEntityCache cache = new CaseEntityCache(0, 60000, 60000, true, warmFile.toString(), 1024, 2048, 60000, 1000);
+        final Case expectedCase = JsonUtil.fromString(FileUtil.readFile("samples/LegalCaseIdAlreadyFilledSample.json"), new TypeReference<>() {});
+
+        try {
+            cache.put(expectedCase);
+            final Case foundCase = cache.get(expectedCase.getId(), id -> Mono.error(new IllegalStateException("Should not load."))).block();
+
+            assertThat(foundCase).isEqualTo(expectedCase);
+        } finally {
+            cache.close();
+            Files.deleteIfExists(warmFile);
+        }
+    }
+
+    @Test
+    public void findById_shouldNotReplaceCaseWrittenWhileLoading() throws Exception {
+        final CaseEntityCache cache = new CaseEntityCache(10, 60000, 60000, false, "", 0, 0, 0, 1000);
+        final Case loadedCase = JsonUtil.fromString(FileUtil.readFile("samples/LegalCaseIdAlreadyFilledSample.json"), new TypeReference<>() {});
+        final Case writtenCase = JsonUtil.fromString(FileUtil.readFile("samples/LegalCaseIdAlreadyFilledSample.json"), new TypeReference<>() {});
+        writtenCase.setTitle("Written while loading");
+
+        cache.get(loadedCase.getId(), id -> Mono.fromRunnable(() -> cache.put(writtenCase)).then(Mono.just(loadedCase))).block();
+
+        assertThat(cache.getIfPresent(loadedCase.getId()).getTitle()).isEqualTo("Written while loading");
+    }
+
+    @Test
+    public void findById_shouldDropWarmEntriesReplacedByOversizedCasesOrInvalidated() throws Exception {
+        final Path warmFile = Files.createTempFile("cases-entity-cache", ".bin");
+        final CaseEntityCache cache = new CaseEntityCache(0, 60000, 60000, true, warmFile.toString(), 1024, 2048, 60000, 1000);
+        final Case expectedCase = JsonUtil.fromString(FileUtil.readFile("samples/LegalCaseIdAlreadyFilledSample.json"), new TypeReference<>() {});
+        final Case oversizedCase = JsonUtil.fromString(FileUtil.readFile("samples/LegalCaseIdAlreadyFilledSample.json"), new TypeReference<>() {});
+        oversizedCase.setDescription("x".repeat(4096));
+
+        try {
+            cache.put(expectedCase);
+            cache.put(oversizedCase);
+            final Case afterOversizedPut = cache.getIfPresent(expectedCase.getId());
+            cache.put(expectedCase);
+            cache.invalidateAll();
+            final Case afterInvalidateAll = cache.getIfPresent(expectedCase.getId());
+
+            assertThat(afterOversizedPut).isNull();
+            assertThat(afterInvalidateAll).isNull();
+        } finally {
+            cache.close();
+            Files.deleteIfExists(warmFile);
+        }
+    }
+
 }
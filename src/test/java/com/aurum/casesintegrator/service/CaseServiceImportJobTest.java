@@ -0,0 +1,109 @@
+package com.aurum.casesintegrator.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.aurum.casesintegrator.domain.CaseImportJob;
+import com.aurum.casesintegrator.domain.ImportStatus;
+import com.aurum.casesintegrator.domain.JobStatus;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@DisplayName("[CaseService] - Unit Tests for asynchronous import jobs")
+public class CaseServiceImportJobTest extends CaseServiceBase {
+
+    private static final String NDJSON = "{\"customer\": \"Mike\", \"title\": \"New case\", \"inChargeOf\": \"Eddie\"}\n"
+            + "{\"title\": \"Missing customer\", \"inChargeOf\": \"Eddie\"}\n";
+
+    @Test
+    public void submitImportJob_shouldRunJobInBackgroundAndRecordProgress() {
+        /* Given */
+        final Map<String, CaseImportJob> savedJobs = new ConcurrentHashMap<>();
+        given(super.importJobCoordinator.reserveSlot("Mike", 2)).willReturn(Mono.empty());
+        given(super.importJobCoordinator.releaseSlot("Mike")).willReturn(Mono.empty());
+        given(super.importJobCoordinator.leased(any(CaseImportJob.class))).willAnswer(invocation -> invocation.getArgument(0));
+        given(super.importJobCoordinator.claim(anyString())).willAnswer(invocation -> Mono.justOrEmpty(savedJobs.get(invocation.<String>getArgument(0))));
+        given(super.importJobRepository.save(any(CaseImportJob.class))).willAnswer(invocation -> {
+            final CaseImportJob saved = invocation.getArgument(0);
+            savedJobs.put(saved.getId(), saved);
+            return Mono.just(saved);
+        });
+        given(super.caseRepository.findAllById(anySet())).willReturn(Flux.empty());
+        given(super.caseRepository.saveAll(anyList())).willAnswer(invocation -> Flux.fromIterable(invocation.getArgument(0)));
+
+        /* When */
+        final CaseImportJob job = super.caseService.submitImportJob("Mike", toStream(NDJSON)).block();
+
+        /* Then */
+        assertThat(job.getId()).isNotNull();
+        verify(super.importJobRepository, timeout(5000).atLeastOnce()).save(argThat(saved -> saved.getStatus() == JobStatus.COMPLETED));
+        assertThat(job.getCommittedChunks()).isEqualTo(1);
+        assertThat(job.getCommittedLines()).isEqualTo(2);
+        assertThat(job.getProcessedLines()).isEqualTo(2);
+        assertThat(job.getCreated()).isEqualTo(1);
+        assertThat(job.getInvalid()).isEqualTo(1);
+        assertThat(job.getFailures()).extracting(failure -> failure.getStatus()).containsExactly(ImportStatus.INVALID);
+        verify(super.importJobCoordinator, timeout(5000)).releaseSlot("Mike");
+    }
+
+    @Test
+    public void submitImportJob_shouldRejectJobsAboveCustomerLimit() {
+        /* Given */
+        final ByteArrayInputStream ndjson = toStream(NDJSON);
+        given(super.importJobCoordinator.reserveSlot("Tom", 2))
+                .willReturn(Mono.error(new RejectedExecutionException("Customer Tom already has 2 import jobs in progress.")));
+
+        /* When */
+        final Mono<CaseImportJob> submitted = super.caseService.submitImportJob("Tom", ndjson);
+
+        /* Then */
+        assertThatThrownBy(submitted::block)
+                .isInstanceOf(RejectedExecutionException.class)
+                .hasMessage("Customer Tom already has 2 import jobs in progress.");
+        assertThat(ndjson.available()).isEqualTo(NDJSON.getBytes(StandardCharsets.UTF_8).length);
+        verify(super.importJobRepository, never()).save(any(CaseImportJob.class));
+        verify(super.importJobCoordinator, never()).releaseSlot(anyString());
+    }
+
+    @Test
+    public void submitImportJob_shouldReleaseSlotWhenJobCannotBeSaved() {
+        /* Given */
+        given(super.importJobCoordinator.reserveSlot("Tom", 2)).willReturn(Mono.empty());
+        given(super.importJobCoordinator.releaseSlot("Tom")).willReturn(Mono.empty());
+        given(super.importJobCoordinator.leased(any(CaseImportJob.class))).willAnswer(invocation -> invocation.getArgument(0));
+        given(super.importJobRepository.save(any(CaseImportJob.class))).willReturn(Mono.error(new IllegalStateException("Firestore is unavailable.")));
+
+        /* When */
+        final Mono<CaseImportJob> submitted = super.caseService.submitImportJob("Tom", toStream(NDJSON));
+
+        /* Then */
+        assertThatThrownBy(submitted::block).hasMessage("Firestore is unavailable.");
+        verify(super.importJobCoordinator, timeout(5000)).releaseSlot(eq("Tom"));
+        verify(super.importJobCoordinator, never()).claim(anyString());
+    }
+
+    private ByteArrayInputStream toStream(final String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
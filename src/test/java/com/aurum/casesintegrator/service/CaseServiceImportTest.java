@@ -0,0 +1,128 @@
+package com.aurum.casesintegrator.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.aurum.casesintegrator.domain.Case;
+import com.aurum.casesintegrator.domain.CaseImportResult;
+import com.aurum.casesintegrator.domain.ImportStatus;
+import com.aurum.casesintegrator.util.FileUtil;
+import com.aurum.casesintegrator.util.JsonUtil;
+import com.fasterxml.jackson.core.type.TypeReference;
+
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+@DisplayName("[CaseService] - Unit Tests for import Cases from newline delimited JSON")
+public class CaseServiceImportTest extends CaseServiceBase {
+
+    @Captor
+    private ArgumentCaptor<List<Case>> savedCases;
+
+    @Autowired
+    private CaseImportService caseImportService;
+
+    @Test
+    public void importCases_shouldReportCreatedInvalidAndConflictedLines() {
+        /* Given */
+        final String existingCaseJson = FileUtil.readFile("samples/LegalCaseIdAlreadyFilledSample.json").replaceAll("\\s*\\n\\s*", " ");
+        final Case existingCase = JsonUtil.fromString(existingCaseJson, new TypeReference<>() {});
+        final String ndjson = "{\"customer\": \"Mike\", \"title\": \"New case\", \"inChargeOf\": \"Eddie\"}\n"
+                + "{\"title\": \"Missing customer\", \"inChargeOf\": \"Eddie\"}\n"
+                + "\n"
+                + existingCaseJson + "\n"
+                + "not a json\n";
+        given(super.caseRepository.findAllById(Set.of(existingCase.getId()))).willReturn(Flux.just(existingCase));
+        given(super.caseRepository.saveAll(anyList())).willAnswer(invocation -> Flux.fromIterable(invocation.getArgument(0)));
+
+        /* When */
+        final List<CaseImportResult> results = super.caseService.importCases(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)))
+                .flatMapIterable(chunk -> chunk)
+                .collectList()
+                .block();
+
+        /* Then */
+        assertThat(results).extracting(CaseImportResult::getLine).containsExactly(1L, 2L, 4L, 5L);
+        assertThat(results).extracting(CaseImportResult::getStatus)
+                .containsExactly(ImportStatus.CREATED, ImportStatus.INVALID, ImportStatus.CONFLICT, ImportStatus.INVALID);
+        assertThat(results.get(0).getId()).isNotNull();
+        assertThat(results.get(1).getMessages()).containsExactly("Property \"customer\" must not be blank.");
+        assertThat(results.get(2).getId()).isEqualTo(existingCase.getId());
+        verify(super.caseRepository).saveAll(this.savedCases.capture());
+        assertThat(this.savedCases.getValue()).extracting(Case::getCustomer).containsExactly("Mike");
+    }
+
+    @Test
+    public void importCases_shouldResumeAfterLastCommittedLine() {
+        /* Given */
+        final String ndjson = "{\"customer\": \"Mike\", \"title\": \"Committed case\", \"inChargeOf\": \"Eddie\"}\n"
+                + "\n"
+                + "{\"customer\": \"Tom\", \"title\": \"Committed case\", \"inChargeOf\": \"Eddie\"}\n"
+                + "{\"customer\": \"Anna\", \"title\": \"New case\", \"inChargeOf\": \"Eddie\"}\n";
+        given(super.caseRepository.findAllById(anySet())).willReturn(Flux.empty());
+        given(super.caseRepository.saveAll(anyList())).willAnswer(invocation -> Flux.fromIterable(invocation.getArgument(0)));
+
+        /* When */
+        final List<CaseImportResult> results = this.caseImportService
+                .importCases(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), "job", 3, Schedulers.boundedElastic())
+                .flatMapIterable(chunk -> chunk)
+                .collectList()
+                .block();
+
+        /* Then */
+        assertThat(results).extracting(CaseImportResult::getLine).containsExactly(4L);
+        verify(super.caseRepository).saveAll(this.savedCases.capture());
+        assertThat(this.savedCases.getValue()).extracting(Case::getCustomer).containsExactly("Anna");
+    }
+
+    @Test
+    public void importCases_shouldPullAtMostOneMoreChunkWhileWritingOne() {
+        /* Given */
+        final String line = "{\"customer\": \"Mike\", \"title\": \"New case\", \"inChargeOf\": \"Eddie\"}\n";
+        final int chunkSize = 500;
+        final AtomicLong linesPulled = new AtomicLong();
+        final AtomicLong linesPulledWhileWritingFirstChunk = new AtomicLong(-1);
+        final InputStream ndjson = new FilterInputStream(new ByteArrayInputStream(line.repeat(6 * chunkSize).getBytes(StandardCharsets.UTF_8))) {
+            @Override
+            public int read(final byte[] bytes, final int offset, final int length) throws IOException {
+                final int read = super.read(bytes, offset, length);
+                for (int i = offset; i < offset + read; i++) {
+                    linesPulled.addAndGet(bytes[i] == '\n' ? 1 : 0);
+                }
+                return read;
+            }
+        };
+        given(super.caseRepository.findAllById(anySet())).willReturn(Flux.empty());
+        given(super.caseRepository.saveAll(anyList())).willAnswer(invocation -> Flux.fromIterable(invocation.<List<Case>>getArgument(0))
+                .delaySubscription(Duration.ofMillis(200))
+                .doOnComplete(() -> linesPulledWhileWritingFirstChunk.compareAndSet(-1, linesPulled.get())));
+
+        /* When */
+        final long imported = super.caseService.importCases(ndjson).flatMapIterable(chunk -> chunk).count().block();
+
+        /* Then */
+        assertThat(imported).isEqualTo(6 * chunkSize);
+        // the reader decodes the stream in blocks of 8192 bytes, so a block worth of lines may be pulled ahead
+        assertThat(linesPulledWhileWritingFirstChunk.get()).isLessThanOrEqualTo(2 * chunkSize + 8192 / line.length() + 1);
+    }
+
+}
@@ -1,24 +1,35 @@
 package com.aurum.casesintegrator.service;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.verify;
 
+import java.time.LocalDate;
 import java.util.List;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
 
 import com.aurum.casesintegrator.domain.AccessType;
 import com.aurum.casesintegrator.domain.Case;
+import com.aurum.casesintegrator.service.stats.CaseCounters;
 import com.aurum.casesintegrator.util.DateUtil;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @DisplayName("[CaseService] - Unit Tests for update Cases")
 public class CaseServiceUpdateTest extends CaseServiceBase {
 
+    @Autowired
+    private CaseCounters caseCounters;
+
     @Test
     public void updateAllFields_shouldUpdateAllFields() {
         /* Given */
@@ -37,12 +48,48 @@ public class CaseServiceUpdateTest extends CaseServiceBase {
         given(super.caseRepository.findById(caseToUpdate.getId())).willReturn(Mono.just(caseToUpdate));
 
         /* When */
-        super.caseService.updateAllFields(caseToUpdate);
+        super.caseService.updateAllFields(caseToUpdate).block();
 
         /* Then */
         verify(super.caseRepository).save(caseToUpdate);
     }
 
+    @Test
+    public void updateAllFields_shouldMoveCountersFromStoredVersionRatherThanCachedOne() {
+        final LocalDate day = LocalDate.of(2020, 4, 21);
+        final Case cachedCase = new Case("counted", null, "Stale customer", "Some case", List.of(), null, null, "SRV", AccessType.PUBLIC, 1587470400000L);
+        final Case storedCase = new Case("counted", null, "Stored customer", "Some case", List.of(), null, null, "SRV", AccessType.PUBLIC, 1587470400000L);
+        final Case caseToUpdate = new Case("counted", null, "Stored customer", "Other case", List.of(), null, null, "SRV", AccessType.PUBLIC, 1587470400000L);
+        super.caseEntityCache.put(cachedCase);
+        given(super.caseRepository.findById(caseToUpdate.getId())).willReturn(Mono.just(storedCase));
+        given(super.caseRepository.save(any())).willAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        given(super.caseCounterRepository.findByCustomerAndLabelAndEpochDayGreaterThanEqualAndEpochDayLessThanEqual(anyString(), anyString(), anyLong(), anyLong()))
+                .willReturn(Flux.empty());
+
+        super.caseService.updateAllFields(caseToUpdate).block();
+
+        assertThat(this.caseCounters.count("Stale customer", null, null, day.minusDays(1), day.plusDays(1), null).block().getTotal()).isZero();
+        assertThat(this.caseCounters.count("Stored customer", null, null, day.minusDays(1), day.plusDays(1), null).block().getTotal()).isZero();
+    }
+
+    @Test
+    public void updateAllFields_shouldRefreshVersionBeforeSaving() {
+        final Case existingCase = new Case("1", "O34398", "Clayton", "Some case", List.of("important"), "Some description",
+                "Is someone getting the best of you...", "SRV", AccessType.PUBLIC, DateUtil.getCurrentDateInstantZero());
+        existingCase.refreshVersion();
+        final Case caseToUpdate = new Case("1", "O34398", "Clayton", "Some case", List.of("important", "urgent"), "Some description",
+                "Is someone getting the best of you...", "SRV", AccessType.PUBLIC, existingCase.getCreatedAtInstant());
+        caseToUpdate.setVersion(existingCase.getVersion());
+        given(super.caseRepository.findById(caseToUpdate.getId())).willReturn(Mono.just(existingCase));
+        given(super.caseRepository.save(any())).willAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        super.caseService.updateAllFields(caseToUpdate).block();
+
+        final ArgumentCaptor<Case> saved = ArgumentCaptor.forClass(Case.class);
+        verify(super.caseRepository).save(saved.capture());
+        assertThat(saved.getValue().getVersion()).isNotEqualTo(existingCase.getVersion());
+    }
+
     @Test
     public void updateAllFields_shouldThrowAnIllegalArgumentExceptionCaseNotExists() {
         final Case caseToUpdate = new Case("1",
@@ -58,7 +105,7 @@ public class CaseServiceUpdateTest extends CaseServiceBase {
         );
         given(super.caseRepository.findById(caseToUpdate.getId())).willReturn(Mono.empty());
 
-        assertThrows(IllegalArgumentException.class, () -> super.caseService.updateAllFields(caseToUpdate));
+        assertThrows(IllegalArgumentException.class, () -> super.caseService.updateAllFields(caseToUpdate).block());
     }
 
     @Test
@@ -74,7 +121,7 @@ public class CaseServiceUpdateTest extends CaseServiceBase {
                 AccessType.PUBLIC,
                 DateUtil.getCurrentDateInstantZero()
         );
-        assertThrows(IllegalArgumentException.class, () -> super.caseService.updateAllFields(caseToUpdate));
+        assertThrows(IllegalArgumentException.class, () -> super.caseService.updateAllFields(caseToUpdate).block());
     }
 
 }
@@ -0,0 +1,178 @@
+package com.aurum.casesintegrator.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.aurum.casesintegrator.domain.Case;
+import com.aurum.casesintegrator.domain.CaseCriteria;
+import com.aurum.casesintegrator.service.cache.CriteriaCacheKey;
+import com.aurum.casesintegrator.service.event.CasesChangedEvent;
+import com.aurum.casesintegrator.service.index.CaseIndex;
+import com.aurum.casesintegrator.service.index.CaseIndexFeed;
+import com.aurum.casesintegrator.service.index.CaseLabelIndex;
+import com.aurum.casesintegrator.service.index.CaseTextIndex;
+import com.aurum.casesintegrator.service.range.DateRangeResolver;
+import com.aurum.casesintegrator.util.FileUtil;
+import com.aurum.casesintegrator.util.JsonUtil;
+import com.fasterxml.jackson.core.type.TypeReference;
+
+import reactor.core.publisher.Flux;
+
+@DisplayName("[CaseTextIndex] - Unit Tests for full text index")
+public class CaseTextIndexTest extends CaseServiceBase {
+
+    private static final LocalDate CASE_DAY = Instant.ofEpochMilli(1587438000000L).atZone(ZoneId.systemDefault()).toLocalDate();
+
+    private final Map<String, Case> stored = new ConcurrentHashMap<>();
+
+    @Autowired
+    private DateRangeResolver dateRangeResolver;
+
+    @Test
+    public void search_shouldFindCasesBySubstringOfAnyTextField() {
+        final Case caseSample = sample("870cd9a8-b07a-41f4-b8a6-7dcb8bec3344", "Full Sample Case");
+        final Case otherCase = sample("2", "Another title");
+        otherCase.setDescription("Nothing here");
+        final CaseTextIndex index = indexOf(caseSample, otherCase);
+
+        final List<Case> found = search(index, CaseCriteria.builder().title("SAMPLE").description("case stuff").folder("c23"));
+
+        assertThat(found).containsExactly(caseSample);
+    }
+
+    @Test
+    public void search_shouldApplyStructuredFiltersAndPageOverAllMatches() {
+        final Case first = sample("1", "Sample one");
+        final Case second = sample("2", "Sample two");
+        second.setCreatedAtInstant(first.getCreatedAtInstant() + 1);
+        final Case otherCustomer = sample("3", "Sample three");
+        otherCustomer.setCustomer("Someone else");
+        final CaseTextIndex index = indexOf(first, second, otherCustomer);
+
+        final CaseCriteria.CaseCriteriaBuilder criteria = CaseCriteria.builder().title("sample").customer("Mike McCready").limit(1);
+
+        assertThat(search(index, criteria.page(0))).containsExactly(second);
+        assertThat(search(index, criteria.page(1))).containsExactly(first);
+    }
+
+    @Test
+    public void search_shouldReflectUpdatedCases() {
+        final Case caseSample = sample("1", "Old title");
+        final Case updatedCase = sample("1", "New title");
+        final CaseTextIndex index = indexOf(caseSample);
+
+        this.stored.put(updatedCase.getId(), updatedCase);
+        index.onCasesChanged(CasesChangedEvent.updated(caseSample, updatedCase));
+
+        assertThat(search(index, CaseCriteria.builder().title("old"))).isEmpty();
+        assertThat(search(index, CaseCriteria.builder().title("new"))).containsExactly(updatedCase);
+    }
+
+    @Test
+    public void search_shouldCheckCasesAsStoredAndCatchUpWithWritesOfOtherInstances() {
+        final Case caseSample = sample("1", "Old title");
+        final Case updatedElsewhere = sample("1", "New title");
+        final CaseTextIndex index = new CaseTextIndex(super.caseRepository, disabledLabelIndex(), true, 100);
+        final CaseIndexFeed feed = feedOf(index, caseSample);
+        this.stored.put(updatedElsewhere.getId(), updatedElsewhere);
+        given(super.caseRepository.findByUpdatedAtInstantGreaterThanEqual(anyLong())).willReturn(Flux.just(updatedElsewhere));
+
+        final List<Case> beforeCatchUp = search(index, CaseCriteria.builder().title("old"));
+        feed.catchUp();
+
+        assertThat(beforeCatchUp).isEmpty();
+        assertThat(search(index, CaseCriteria.builder().title("new"))).containsExactly(updatedElsewhere);
+    }
+
+    @Test
+    public void canSearch_shouldBeFalseUntilIndexIsLoaded() {
+        final CaseTextIndex index = new CaseTextIndex(super.caseRepository, disabledLabelIndex(), true, 100);
+
+        assertThat(index.canSearch(keyOf(CaseCriteria.builder().title("sample")))).isFalse();
+    }
+
+    @Test
+    public void canSearch_shouldLeaveQueriesShorterThanTrigramToScan() {
+        final CaseTextIndex index = indexOf(sample("1", "Sample"));
+
+        assertThat(index.canSearch(keyOf(CaseCriteria.builder().title("sa")))).isFalse();
+        assertThat(index.canSearch(keyOf(CaseCriteria.builder().title("sa").folder("c23")))).isTrue();
+    }
+
+    @Test
+    public void search_shouldOnlyReadCandidatesMatchingStructuredFilters() {
+        final Case caseSample = sample("1", "Sample one");
+        final Case otherCustomer = sample("2", "Sample two");
+        otherCustomer.setCustomer("Someone else");
+        final CaseLabelIndex labelIndex = new CaseLabelIndex(super.caseRepository, true, 100);
+        final CaseTextIndex index = new CaseTextIndex(super.caseRepository, labelIndex, true, 100);
+        feedOf(List.of(index, labelIndex), caseSample, otherCustomer);
+
+        final List<Case> found = search(index, CaseCriteria.builder().title("sample").customer("Mike McCready"));
+
+        assertThat(found).containsExactly(caseSample);
+        verify(super.caseRepository).findAllById(List.of("1"));
+    }
+
+    private CaseTextIndex indexOf(final Case... cases) {
+        final CaseTextIndex index = new CaseTextIndex(super.caseRepository, disabledLabelIndex(), true, 100);
+        feedOf(index, cases);
+        return index;
+    }
+
+    private CaseLabelIndex disabledLabelIndex() {
+        return new CaseLabelIndex(super.caseRepository, false, 100);
+    }
+
+    private CaseIndexFeed feedOf(final CaseTextIndex index, final Case... cases) {
+        return feedOf(List.of(index), cases);
+    }
+
+    /**
+     * Loads the indexes from the given stored cases, which the indexes read back by id.
+     */
+    private CaseIndexFeed feedOf(final List<CaseIndex> indexes, final Case... cases) {
+        for (final Case singleCase : cases) {
+            this.stored.put(singleCase.getId(), singleCase);
+        }
+        given(super.caseRepository.findAll()).willReturn(Flux.just(cases));
+        given(super.caseRepository.findAllById(anyList())).willAnswer(invocation -> Flux.fromStream(invocation.<List<String>>getArgument(0).stream()
+                .map(this.stored::get)
+                .filter(Objects::nonNull)));
+        final CaseIndexFeed feed = new CaseIndexFeed(super.caseRepository, indexes, 60000);
+        feed.bootstrap();
+        return feed;
+    }
+
+    private List<Case> search(final CaseTextIndex index, final CaseCriteria.CaseCriteriaBuilder builder) {
+        return index.search(keyOf(builder), documentsRead -> {}).collectList().block();
+    }
+
+    private CriteriaCacheKey keyOf(final CaseCriteria.CaseCriteriaBuilder builder) {
+        final CaseCriteria criteria = builder.from(CASE_DAY).to(CASE_DAY).build();
+        return CriteriaCacheKey.of(criteria, this.dateRangeResolver.resolve(criteria));
+    }
+
+    private static Case sample(final String id, final String title) {
+        final Case singleCase = JsonUtil.fromString(FileUtil.readFile("samples/LegalCaseIdAlreadyFilledSample.json"), new TypeReference<>() {});
+        singleCase.setId(id);
+        singleCase.setTitle(title);
+        return singleCase;
+    }
+
+}
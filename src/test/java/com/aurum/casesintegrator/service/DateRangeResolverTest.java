@@ -0,0 +1,57 @@
+package com.aurum.casesintegrator.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.aurum.casesintegrator.domain.CaseCriteria;
+import com.aurum.casesintegrator.service.range.DateRange;
+import com.aurum.casesintegrator.service.range.DateRangeResolver;
+
+@DisplayName("[DateRangeResolver] - Unit Tests for query date ranges")
+public class DateRangeResolverTest extends CaseServiceBase {
+
+    @Autowired
+    private DateRangeResolver dateRangeResolver;
+
+    @Test
+    public void resolve_shouldCoverWholeDaysOnDefaultZone() {
+        final LocalDate from = LocalDate.now().minusMonths(12);
+        final LocalDate to = LocalDate.now().plusMonths(12);
+
+        final DateRange range = this.dateRangeResolver.resolve(CaseCriteria.builder().from(from).to(to).build());
+
+        assertThat(range.getStartsAt()).isEqualTo(from.atStartOfDay().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        assertThat(range.getEndsAt()).isEqualTo(to.atTime(LocalTime.MAX).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
+    @Test
+    public void resolve_shouldUseCustomerTimeZoneAlsoOutsidePrecomputedDays() {
+        final DateRangeResolver resolver = new DateRangeResolver("UTC", "Mike McCready=America/Sao_Paulo; Tom=Asia/Tokyo", 1);
+        final LocalDate day = LocalDate.of(2020, 4, 21);
+
+        final DateRange range = resolver.resolve(CaseCriteria.builder().customer("Mike McCready").from(day).to(day).build());
+
+        assertThat(range).isEqualTo(new DateRange(
+                day.atStartOfDay(ZoneId.of("America/Sao_Paulo")).toInstant().toEpochMilli(),
+                day.plusDays(1).atStartOfDay(ZoneId.of("America/Sao_Paulo")).toInstant().toEpochMilli() - 1
+        ));
+        assertThat(resolver.zoneOf("Tom")).isEqualTo(ZoneId.of("Asia/Tokyo"));
+        assertThat(resolver.zoneOf("Eddie")).isEqualTo(ZoneId.of("UTC"));
+    }
+
+    @Test
+    public void startOfToday_shouldUseCustomerTimeZone() {
+        final DateRangeResolver resolver = new DateRangeResolver("UTC", "Tom=Asia/Tokyo", 1);
+
+        assertThat(resolver.startOfToday("Tom")).isEqualTo(LocalDate.now(ZoneId.of("Asia/Tokyo")).atStartOfDay(ZoneId.of("Asia/Tokyo")).toInstant().toEpochMilli());
+        assertThat(resolver.startOfToday("Eddie")).isEqualTo(LocalDate.now(ZoneId.of("UTC")).atStartOfDay(ZoneId.of("UTC")).toInstant().toEpochMilli());
+    }
+
+}
@@ -0,0 +1,37 @@
+package com.aurum.casesintegrator.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.aurum.casesintegrator.service.id.IdGenerator;
+import com.aurum.casesintegrator.service.id.UlidIdGenerator;
+
+@DisplayName("[IdGenerator] - Unit Tests for generated case ids")
+public class IdGeneratorTest extends CaseServiceBase {
+
+    @Autowired
+    private IdGenerator idGenerator;
+
+    @Test
+    public void generate_shouldUseConfiguredUlidGenerator() {
+        assertThat(this.idGenerator).isInstanceOf(UlidIdGenerator.class);
+    }
+
+    @Test
+    public void generate_shouldGenerateStrictlyIncreasingIdsOnSameThread() {
+        final List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(this.idGenerator.generate());
+        }
+
+        assertThat(ids).allMatch(id -> id.matches("[0-9A-HJKMNP-TV-Z]{26}"));
+        assertThat(ids).isSorted().doesNotHaveDuplicates();
+    }
+
+}
@@ -0,0 +1,78 @@
+package com.aurum.casesintegrator.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import javax.management.InstanceAlreadyExistsException;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+
+import com.aurum.casesintegrator.domain.IdempotentResponse;
+import com.aurum.casesintegrator.exception.IdempotencyKeyReusedException;
+
+@DisplayName("[IdempotencyService] - Unit Tests for Idempotency-Key responses")
+public class IdempotencyServiceTest extends CaseServiceBase {
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Test
+    public void reserve_shouldRejectKeyAlreadyInProgress() {
+        assertThat(this.idempotencyService.reserve("in-progress")).isTrue();
+        assertThat(this.idempotencyService.reserve("in-progress")).isFalse();
+    }
+
+    @Test
+    public void complete_shouldKeepResponseAfterRequestCompletion() {
+        /* Given */
+        this.idempotencyService.reserve("completed");
+
+        /* When */
+        this.idempotencyService.complete("completed", "fingerprint", ResponseEntity.status(201).header("Location", "/v1/cases/1").body("{}")).block();
+        this.idempotencyService.releaseIfPending("completed");
+
+        /* Then */
+        final IdempotentResponse stored = this.idempotencyService.find("completed").block();
+        assertThat(stored.isCompleted()).isTrue();
+        assertThat(stored.getFingerprint()).isEqualTo("fingerprint");
+        assertThat(stored.getStatus()).isEqualTo(201);
+        assertThat(stored.getHeaders()).containsEntry("Location", "/v1/cases/1");
+    }
+
+    @Test
+    public void releaseIfPending_shouldFreeKeyOfFailedRequest() {
+        this.idempotencyService.reserve("failed");
+
+        this.idempotencyService.releaseIfPending("failed");
+
+        assertThat(this.idempotencyService.find("failed").block()).isNull();
+    }
+
+    @Test
+    public void replayOrReserve_shouldReserveUnknownKeyAndReplayItOnceCompleted() {
+        assertThat(this.idempotencyService.replayOrReserve("replayed", "fingerprint").block()).isNull();
+        assertThatThrownBy(() -> this.idempotencyService.replayOrReserve("replayed", "fingerprint").block())
+                .hasCauseInstanceOf(InstanceAlreadyExistsException.class);
+
+        this.idempotencyService.complete("replayed", "fingerprint", ResponseEntity.status(201).header("Location", "/v1/cases/1").body("{}")).block();
+        final ResponseEntity<Object> replayed = this.idempotencyService.replayOrReserve("replayed", "fingerprint").block();
+
+        assertThat(replayed.getStatusCodeValue()).isEqualTo(201);
+        assertThat(replayed.getHeaders().getFirst("Location")).isEqualTo("/v1/cases/1");
+        assertThat(replayed.getHeaders().getFirst(IdempotencyService.IDEMPOTENT_REPLAYED)).isEqualTo("true");
+        assertThat(replayed.getBody()).isEqualTo("\"{}\"");
+    }
+
+    @Test
+    public void replayOrReserve_shouldRejectKeyReusedWithDifferentBody() {
+        this.idempotencyService.reserve("reused");
+        this.idempotencyService.complete("reused", "fingerprint", ResponseEntity.status(201).body("{}")).block();
+
+        assertThatThrownBy(() -> this.idempotencyService.replayOrReserve("reused", "other fingerprint").block())
+                .isInstanceOf(IdempotencyKeyReusedException.class);
+    }
+
+}
@@ -0,0 +1,186 @@
+package com.aurum.casesintegrator.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.ReactiveTransactionManager;
+
+import com.aurum.casesintegrator.domain.AccessType;
+import com.aurum.casesintegrator.domain.Case;
+import com.aurum.casesintegrator.domain.CaseCriteria;
+import com.aurum.casesintegrator.domain.QueryExplanation;
+import com.aurum.casesintegrator.service.cache.CriteriaCacheKey;
+import com.aurum.casesintegrator.service.event.CasesChangedEvent;
+import com.aurum.casesintegrator.service.index.CaseIndexFeed;
+import com.aurum.casesintegrator.service.index.CaseLabelIndex;
+import com.aurum.casesintegrator.service.index.CaseTextIndex;
+import com.aurum.casesintegrator.service.plan.AccessPath;
+import com.aurum.casesintegrator.service.plan.CaseStatistics;
+import com.aurum.casesintegrator.service.plan.IndexedField;
+import com.aurum.casesintegrator.service.plan.QueryPlan;
+import com.aurum.casesintegrator.service.plan.QueryPlanner;
+import com.aurum.casesintegrator.service.range.DateRangeResolver;
+import com.aurum.casesintegrator.service.stats.CaseCounters;
+
+import reactor.core.publisher.Flux;
+
+@DisplayName("[QueryPlanner] - Unit Tests for criteria query planning")
+public class QueryPlannerTest extends CaseServiceBase {
+
+    @Autowired
+    private DateRangeResolver dateRangeResolver;
+
+    @Autowired
+    private CaseTextIndex caseTextIndex;
+
+    @Autowired
+    private CaseLabelIndex caseLabelIndex;
+
+    @Test
+    public void plan_shouldPickFinderCoveringAllFiltersAndCostWiderOnes() {
+        final CaseStatistics statistics = statisticsOf(
+                caseOf("1", "Big customer", "common"),
+                caseOf("2", "Big customer", "common"),
+                caseOf("3", "Big customer", "rare"),
+                caseOf("4", "Small customer", "common")
+        );
+        final CaseCriteria criteria = criteria().customer("Big customer").labels(List.of("rare")).build();
+
+        final QueryPlan plan = new QueryPlanner(super.caseRepository, statistics, this.caseTextIndex, this.caseLabelIndex, 2000, 100, 31, 4)
+                .planWithEstimates(criteria, keyOf(criteria))
+                .block();
+
+        assertThat(plan.getAccessPath()).isEqualTo(AccessPath.CUSTOMER_AND_LABELS);
+        assertThat(plan.getEstimatedMatches()).isEqualTo(1);
+        assertThat(plan.getConsideredPaths()).containsOnlyKeys(
+                AccessPath.CUSTOMER_AND_LABELS, AccessPath.CUSTOMER, AccessPath.LABELS, AccessPath.CREATION_DATE);
+        assertThat(plan.getConsideredPaths().get(AccessPath.CUSTOMER_AND_LABELS)).isLessThan(plan.getConsideredPaths().get(AccessPath.CUSTOMER));
+    }
+
+    @Test
+    public void plan_shouldCostTextIndexByMatchesOfQueriedCustomerOnly() {
+        final List<Case> cases = new ArrayList<>(List.of(caseOf("1", "Small customer", "red")));
+        for (int i = 2; i <= 6; i++) {
+            final Case bigCustomerCase = caseOf(String.valueOf(i), "Big customer", "red");
+            bigCustomerCase.setTitle("Sample case");
+            cases.add(bigCustomerCase);
+        }
+        final CaseCriteria criteria = criteria().customer("Small customer").title("sample").build();
+
+        final QueryPlan plan = plannerOverLoadedIndexes(cases).plan(criteria, keyOf(criteria));
+
+        assertThat(plan.getAccessPath()).isEqualTo(AccessPath.TEXT_INDEX);
+        assertThat(plan.getEstimatedMatches()).isEqualTo(1);
+        assertThat(plan.getConsideredPaths().get(AccessPath.TEXT_INDEX)).isEqualTo(1);
+        verifyNoInteractions(super.caseCounterRepository);
+    }
+
+    @Test
+    public void plan_shouldSearchTextIndexWhenTextIsRarerThanCustomer() {
+        final List<Case> cases = new ArrayList<>();
+        for (int i = 1; i <= 6; i++) {
+            cases.add(caseOf(String.valueOf(i), "Big customer", "red"));
+        }
+        final CaseCriteria criteria = criteria().customer("Big customer").title("sample").build();
+
+        final QueryPlan plan = plannerOverLoadedIndexes(cases).plan(criteria, keyOf(criteria));
+
+        assertThat(plan.getAccessPath()).isEqualTo(AccessPath.TEXT_INDEX);
+        assertThat(plan.getEstimatedMatches()).isEqualTo(1);
+    }
+
+    @Test
+    public void estimate_shouldFollowCommittedWrites() {
+        final Case existing = caseOf("1", "Mike", "red");
+        final CaseCounters counters = countersOf(existing);
+        final CaseCriteria criteria = criteria().customer("Mike").build();
+
+        counters.onCasesChanged(CasesChangedEvent.created(List.of(caseOf("2", "Mike", "red"))));
+        counters.onCasesChanged(CasesChangedEvent.updated(existing, caseOf("1", "Eddie", "red")));
+
+        assertThat(new CaseStatistics(counters, true).countsOf(criteria).block().estimate(List.of(IndexedField.CUSTOMER))).isEqualTo(1);
+    }
+
+    @Test
+    public void plan_shouldNotReadCountersUnlessExplained() {
+        final CaseCriteria criteria = criteria().customer("Mike").build();
+
+        final QueryPlan plan = new QueryPlanner(super.caseRepository, statisticsOf(caseOf("1", "Mike", "red")), this.caseTextIndex, this.caseLabelIndex,
+                2000, 100, 31, 4).plan(criteria, keyOf(criteria));
+
+        assertThat(plan.getEstimatedMatches()).isNull();
+        verifyNoInteractions(super.caseCounterRepository);
+    }
+
+    @Test
+    public void explain_shouldReportPlanAndDocumentsRead() {
+        final CaseCriteria criteria = criteria().customer("Mike").title("sample").build();
+        given(super.caseRepository.findByCustomerAndCreatedAtInstantGreaterThanEqualAndCreatedAtInstantLessThanEqual(
+                anyString(), anyLong(), anyLong(), any(Pageable.class)
+        )).willReturn(Flux.just(caseOf("1", "Mike", "red"), caseOf("2", "Mike", "red")));
+
+        final QueryExplanation explanation = super.caseService.explain(criteria).block();
+
+        assertThat(explanation.getAccessPath()).isEqualTo(AccessPath.CUSTOMER.name());
+        assertThat(explanation.getIndexedFilters()).containsExactly(IndexedField.CUSTOMER.name());
+        assertThat(explanation.getResidualFilters()).containsExactly("TITLE");
+        assertThat(explanation.getEstimatedMatches()).isNull();
+        assertThat(explanation.getDocumentsRead()).isEqualTo(2);
+        assertThat(explanation.getReturned()).isEqualTo(1);
+    }
+
+    /**
+     * Planner over text and label indexes loaded with the given stored cases.
+     */
+    private QueryPlanner plannerOverLoadedIndexes(final List<Case> cases) {
+        final CaseLabelIndex labelIndex = new CaseLabelIndex(super.caseRepository, true, 100);
+        final CaseTextIndex textIndex = new CaseTextIndex(super.caseRepository, labelIndex, true, 100);
+        given(super.caseRepository.findAll()).willReturn(Flux.fromIterable(cases));
+        new CaseIndexFeed(super.caseRepository, List.of(textIndex, labelIndex), 60000).bootstrap();
+        return new QueryPlanner(super.caseRepository, statisticsOf(), textIndex, labelIndex, 2000, 100, 31, 4);
+    }
+
+    private CaseStatistics statisticsOf(final Case... cases) {
+        return new CaseStatistics(countersOf(cases), true);
+    }
+
+    /**
+     * Counters holding the given cases as counted but not flushed yet.
+     */
+    private CaseCounters countersOf(final Case... cases) {
+        given(super.caseCounterRepository.findByLabelAndEpochDayGreaterThanEqualAndEpochDayLessThanEqual(anyString(), anyLong(), anyLong()))
+                .willReturn(Flux.empty());
+        given(super.caseCounterRepository.findByCustomerAndLabelAndEpochDayGreaterThanEqualAndEpochDayLessThanEqual(anyString(), anyString(), anyLong(), anyLong()))
+                .willReturn(Flux.empty());
+        final CaseCounters counters = new CaseCounters(super.caseCounterRepository, this.dateRangeResolver, mock(ReactiveTransactionManager.class), 1);
+        counters.onCasesChanged(CasesChangedEvent.created(List.of(cases)));
+        return counters;
+    }
+
+    private CriteriaCacheKey keyOf(final CaseCriteria criteria) {
+        return CriteriaCacheKey.of(criteria, this.dateRangeResolver.resolve(criteria));
+    }
+
+    private static CaseCriteria.CaseCriteriaBuilder criteria() {
+        return CaseCriteria.builder().from(LocalDate.of(2020, 4, 20)).to(LocalDate.of(2020, 4, 22)).limit(100);
+    }
+
+    private static Case caseOf(final String id, final String customer, final String label) {
+        final String title = "1".equals(id) ? "Sample case" : "Other case";
+        return new Case(id, null, customer, title, List.of(label), null, null, "Eddie Vedder", AccessType.PUBLIC, 1587438000000L);
+    }
+
+}